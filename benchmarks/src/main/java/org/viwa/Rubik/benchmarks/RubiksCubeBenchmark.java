@@ -0,0 +1,131 @@
+package org.viwa.Rubik.benchmarks;
+import static org.viwa.Rubik.CubePiece.Color;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.viwa.Rubik.CubeSide;
+import org.viwa.Rubik.RubiksCube;
+
+/**
+ * Throughput of the public operations of {@link RubiksCube}.
+ *
+ * Every benchmark works on a cube of its own thread and returns what it changed or built, so nothing is
+ * optimized away. Whole cube rotations only record the new orientation, the rotation followed by getSide
+ * benchmark includes laying the sides out again.
+ *
+ * @author Vishal Wakchaure
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RubiksCubeBenchmark {
+
+    private static final Color[] COLORS = Color.values();
+
+    private RubiksCube cube;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        cube = new RubiksCube();
+        cube.scrambleCube(1);
+    }
+
+    //Cycles through the colors, so rotateToSide and getSide never repeat the previous call.
+    private Color nextColor() {
+        next = next == COLORS.length - 1 ? 0 : next + 1;
+        return COLORS[next];
+    }
+
+    @Benchmark
+    public RubiksCube rotateFrontSideClockwise() {
+        cube.rotateFrontSideClockwise();
+        return cube;
+    }
+
+    @Benchmark
+    public RubiksCube rotateCubeXClockwise() {
+        cube.rotateCubeXClockwise();
+        return cube;
+    }
+
+    @Benchmark
+    public RubiksCube rotateCubeXAntiClockwise() {
+        cube.rotateCubeXAntiClockwise();
+        return cube;
+    }
+
+    @Benchmark
+    public RubiksCube rotateCubeYClockwise() {
+        cube.rotateCubeYClockwise();
+        return cube;
+    }
+
+    @Benchmark
+    public RubiksCube rotateCubeYAntiClockwise() {
+        cube.rotateCubeYAntiClockwise();
+        return cube;
+    }
+
+    @Benchmark
+    public RubiksCube rotateCubeZClockwise() {
+        cube.rotateCubeZClockwise();
+        return cube;
+    }
+
+    @Benchmark
+    public RubiksCube rotateCubeZAntiClockwise() {
+        cube.rotateCubeZAntiClockwise();
+        return cube;
+    }
+
+    @Benchmark
+    public CubeSide rotateCubeXClockwiseAndGetSide() {
+        cube.rotateCubeXClockwise();
+        return cube.getSide(Color.WHITE);
+    }
+
+    @Benchmark
+    public RubiksCube rotateToSide() {
+        cube.rotateToSide(nextColor());
+        return cube;
+    }
+
+    @Benchmark
+    public CubeSide getSide() {
+        return cube.getSide(nextColor());
+    }
+
+    @Benchmark
+    public byte[] scrambleCube() {
+        return cube.scrambleCube();
+    }
+
+    @Benchmark
+    public String toStringOfCube() {
+        return cube.toString();
+    }
+
+    @Benchmark
+    public RubiksCube newCube() {
+        return new RubiksCube();
+    }
+
+    @Benchmark
+    public RubiksCube newCubeOfColor() {
+        return new RubiksCube(Color.RED);
+    }
+}
@@ -0,0 +1,332 @@
+package org.viwa.Rubik;
+
+/**
+ * A move sequence (algorithm) compiled into a single transform, so applying it costs the same as one move
+ * whatever its length.
+ *
+ * Sequences are written in standard notation: side turns F R L U D B, slice turns M E S and whole cube
+ * rotations x y z, each followed by nothing, 2 or ' and separated by spaces, like "R U R' U2 x".
+ * A sequence is applied to the cube as it is currently held, so its transform depends on the frame the cube
+ * is in. Compiling keeps, for every one of the 24 frames of {@link CubeFrames}, the permutation of the
+ * cubies (for {@link PackedCube}), the gather of the facelets (for {@link RubiksCube}) and the frame the cube
+ * ends up in. Compiled sequences are immutable, and can be composed, inverted and raised to a power without
+ * replaying their moves.
+ *
+ * @author Vishal Wakchaure
+ */
+public final class CompiledSequence {
+
+    //Rotation of CubeFrames doing x, y and z of standard notation.
+    private static final int[] AXIS_ROTATION = {CubeFrames.Y_ANTI_CLOCKWISE, CubeFrames.X_CLOCKWISE, CubeFrames.Z_CLOCKWISE};
+
+    private static final String LAYERS = "FRLUDBMES";
+    private static final String AXES = "xyz";
+
+    //Sequence doing nothing.
+    public static final CompiledSequence IDENTITY = parse("");
+
+    //Cubie transform for each starting frame, same convention as MoveTables:
+    //new slot i gets the piece of slot PERM[frame][i], its orientation increased by TWIST/FLIP[frame][i].
+    final byte[][] cornerPerm;
+    final byte[][] cornerTwist;
+    final byte[][] edgePerm;
+    final byte[][] edgeFlip;
+
+    //Frame the cube ends up in, for each starting frame. A packed cube turns slices as a rotation of the frame,
+    //a Rubik's Cube moves the centers, so their frames only agree without slices.
+    final byte[] endFrame;
+    final byte[] faceletEndFrame;
+
+    //Physical facelet gather for each starting frame, and the facelets it changes with their sources.
+    private final byte[][] faceletSource;
+    final byte[][] movedFacelets;
+    final byte[][] movedSources;
+    final boolean[] movesCenters;
+
+    private final String notation;
+
+    private CompiledSequence(byte[][] cornerPerm, byte[][] cornerTwist, byte[][] edgePerm, byte[][] edgeFlip,
+        byte[] endFrame, byte[][] faceletSource, byte[] faceletEndFrame, String notation) {
+        this.cornerPerm = cornerPerm;
+        this.cornerTwist = cornerTwist;
+        this.edgePerm = edgePerm;
+        this.edgeFlip = edgeFlip;
+        this.endFrame = endFrame;
+        this.faceletSource = faceletSource;
+        this.faceletEndFrame = faceletEndFrame;
+        this.notation = notation;
+
+        movedFacelets = new byte[CubeFrames.COUNT][];
+        movedSources = new byte[CubeFrames.COUNT][];
+        movesCenters = new boolean[CubeFrames.COUNT];
+        for(int frame=0; frame<CubeFrames.COUNT; frame++) {
+            byte[] source = faceletSource[frame];
+            int count = 0;
+            for(int i=0; i<CubeLayout.FACELETS; i++) {
+                if(source[i] != i) {
+                    count++;
+                }
+            }
+            movedFacelets[frame] = new byte[count];
+            movedSources[frame] = new byte[count];
+            count = 0;
+            for(int i=0; i<CubeLayout.FACELETS; i++) {
+                if(source[i] != i) {
+                    movedFacelets[frame][count] = (byte) i;
+                    movedSources[frame][count++] = source[i];
+                    movesCenters[frame] |= i % 9 == 4;
+                }
+            }
+        }
+    }
+
+    /**
+     * Compiles a sequence written in standard notation, like "R U R' U2".
+     *
+     * @param sequence
+     * @return
+     * @throws IllegalArgumentException if a move is not in standard notation.
+     */
+    public static CompiledSequence parse(String sequence) {
+        String[] tokens = sequence.trim().split("\\s+");
+        int steps[] = new int[tokens.length];
+        int count = 0;
+        for(String token : tokens) {
+            if(!token.isEmpty()) {
+                steps[count++] = parseStep(token);
+            }
+        }
+        StringBuilder notation = new StringBuilder();
+        for(int i=0; i<count; i++) {
+            if(i > 0) {
+                notation.append(' ');
+            }
+            notation.append(tokens[i]);
+        }
+        return compile(steps, count, notation.toString());
+    }
+
+    /**
+     * Compiles a sequence of moves.
+     *
+     * @param moves
+     * @return
+     */
+    public static CompiledSequence of(Move... moves) {
+        int steps[] = new int[moves.length];
+        StringBuilder notation = new StringBuilder();
+        for(int i=0; i<moves.length; i++) {
+            steps[i] = moves[i].ordinal();
+            if(i > 0) {
+                notation.append(' ');
+            }
+            notation.append(moves[i].getNotation());
+        }
+        return compile(steps, moves.length, notation.toString());
+    }
+
+    /**
+     * Returns the sequence doing this sequence and then given sequence.
+     *
+     * @param next
+     * @return
+     */
+    public CompiledSequence then(CompiledSequence next) {
+        byte[][] cornerPerm = new byte[CubeFrames.COUNT][CubeLayout.CORNERS];
+        byte[][] cornerTwist = new byte[CubeFrames.COUNT][CubeLayout.CORNERS];
+        byte[][] edgePerm = new byte[CubeFrames.COUNT][CubeLayout.EDGES];
+        byte[][] edgeFlip = new byte[CubeFrames.COUNT][CubeLayout.EDGES];
+        byte[] endFrame = new byte[CubeFrames.COUNT];
+        byte[][] faceletSource = new byte[CubeFrames.COUNT][];
+        byte[] faceletEndFrame = new byte[CubeFrames.COUNT];
+        for(int frame=0; frame<CubeFrames.COUNT; frame++) {
+            int middle = this.endFrame[frame];
+            for(int slot=0; slot<CubeLayout.CORNERS; slot++) {
+                int source = next.cornerPerm[middle][slot];
+                cornerPerm[frame][slot] = this.cornerPerm[frame][source];
+                cornerTwist[frame][slot] = (byte) ((this.cornerTwist[frame][source] + next.cornerTwist[middle][slot]) % 3);
+            }
+            for(int slot=0; slot<CubeLayout.EDGES; slot++) {
+                int source = next.edgePerm[middle][slot];
+                edgePerm[frame][slot] = this.edgePerm[frame][source];
+                edgeFlip[frame][slot] = (byte) (this.edgeFlip[frame][source] ^ next.edgeFlip[middle][slot]);
+            }
+            endFrame[frame] = next.endFrame[middle];
+
+            middle = this.faceletEndFrame[frame];
+            faceletSource[frame] = MoveTables.compose(this.faceletSource[frame], next.faceletSource[middle]);
+            faceletEndFrame[frame] = next.faceletEndFrame[middle];
+        }
+        return new CompiledSequence(cornerPerm, cornerTwist, edgePerm, edgeFlip, endFrame, faceletSource, faceletEndFrame,
+            join(notation, next.notation));
+    }
+
+    /**
+     * Returns the sequence undoing this sequence.
+     *
+     * @return
+     */
+    public CompiledSequence inverse() {
+        byte[][] cornerPerm = new byte[CubeFrames.COUNT][CubeLayout.CORNERS];
+        byte[][] cornerTwist = new byte[CubeFrames.COUNT][CubeLayout.CORNERS];
+        byte[][] edgePerm = new byte[CubeFrames.COUNT][CubeLayout.EDGES];
+        byte[][] edgeFlip = new byte[CubeFrames.COUNT][CubeLayout.EDGES];
+        byte[] endFrame = new byte[CubeFrames.COUNT];
+        byte[][] faceletSource = new byte[CubeFrames.COUNT][CubeLayout.FACELETS];
+        byte[] faceletEndFrame = new byte[CubeFrames.COUNT];
+        //Undoing starts in the frame this sequence ends in.
+        for(int frame=0; frame<CubeFrames.COUNT; frame++) {
+            int end = this.endFrame[frame];
+            for(int slot=0; slot<CubeLayout.CORNERS; slot++) {
+                int source = this.cornerPerm[frame][slot];
+                cornerPerm[end][source] = (byte) slot;
+                cornerTwist[end][source] = (byte) ((3 - this.cornerTwist[frame][slot]) % 3);
+            }
+            for(int slot=0; slot<CubeLayout.EDGES; slot++) {
+                int source = this.edgePerm[frame][slot];
+                edgePerm[end][source] = (byte) slot;
+                edgeFlip[end][source] = this.edgeFlip[frame][slot];
+            }
+            endFrame[end] = (byte) frame;
+
+            end = this.faceletEndFrame[frame];
+            for(int i=0; i<CubeLayout.FACELETS; i++) {
+                faceletSource[end][this.faceletSource[frame][i]] = (byte) i;
+            }
+            faceletEndFrame[end] = (byte) frame;
+        }
+        return new CompiledSequence(cornerPerm, cornerTwist, edgePerm, edgeFlip, endFrame, faceletSource, faceletEndFrame,
+            notation.isEmpty() ? "" : "(" + notation + ")'");
+    }
+
+    /**
+     * Returns the sequence doing this sequence 'power' times, a negative power doing the inverse.
+     *
+     * @param power
+     * @return
+     */
+    public CompiledSequence power(int power) {
+        CompiledSequence base = power < 0 ? inverse() : this;
+        CompiledSequence result = IDENTITY;
+        //Square and multiply, powers of a sequence commute so the order does not matter.
+        for(long n = Math.abs((long) power); n > 0; n >>= 1) {
+            if((n & 1) != 0) {
+                result = result.then(base);
+            }
+            if(n > 1) {
+                base = base.then(base);
+            }
+        }
+        return new CompiledSequence(result.cornerPerm, result.cornerTwist, result.edgePerm, result.edgeFlip,
+            result.endFrame, result.faceletSource, result.faceletEndFrame, notation.isEmpty() || power == 0 ? "" : "(" + notation + ")" + power);
+    }
+
+    /**
+     * Applies this sequence to given cube, see {@link PackedCube#applySequence(CompiledSequence)}.
+     *
+     * @param cube
+     */
+    public void applyTo(PackedCube cube) {
+        cube.applySequence(this);
+    }
+
+    /**
+     * Applies this sequence to given cube, see {@link RubiksCube#applySequence(CompiledSequence)}.
+     *
+     * @param cube
+     */
+    public void applyTo(RubiksCube cube) {
+        cube.applySequence(this);
+    }
+
+    public String toString() {
+        return notation;
+    }
+
+    /**
+     * Returns step of a sequence, Move ordinal or Move.COUNT + axis * 3 + power - 1 for a whole cube rotation.
+     */
+    private static int parseStep(String token) {
+        int power;
+        switch(token.substring(1)) {
+            case "":
+                power = 1;
+                break;
+            case "2":
+            case "2'":
+                power = 2;
+                break;
+            case "'":
+                power = 3;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown move: " + token);
+        }
+        int layer = LAYERS.indexOf(token.charAt(0));
+        if(layer >= 0) {
+            return Move.of(layer, power).ordinal();
+        }
+        int axis = AXES.indexOf(token.charAt(0));
+        if(axis >= 0) {
+            return Move.COUNT + axis*3 + power - 1;
+        }
+        throw new IllegalArgumentException("Unknown move: " + token);
+    }
+
+    /**
+     * Compiles steps by playing them once from every frame.
+     */
+    private static CompiledSequence compile(int[] steps, int count, String notation) {
+        byte[][] cornerPerm = new byte[CubeFrames.COUNT][CubeLayout.CORNERS];
+        byte[][] cornerTwist = new byte[CubeFrames.COUNT][CubeLayout.CORNERS];
+        byte[][] edgePerm = new byte[CubeFrames.COUNT][CubeLayout.EDGES];
+        byte[][] edgeFlip = new byte[CubeFrames.COUNT][CubeLayout.EDGES];
+        byte[] endFrame = new byte[CubeFrames.COUNT];
+        byte[][] faceletSource = new byte[CubeFrames.COUNT][];
+        byte[] faceletEndFrame = new byte[CubeFrames.COUNT];
+
+        PackedCube cube = new PackedCube();
+        long solvedCorners = cube.getCorners();
+        long solvedEdges = cube.getEdges();
+        for(int start=0; start<CubeFrames.COUNT; start++) {
+            //The pieces of a solved cube after the sequence are its transform.
+            cube.set(solvedCorners, solvedEdges);
+            cube.setFrame(start);
+            byte[] source = MoveTables.identity();
+            int frame = start;
+            for(int i=0; i<count; i++) {
+                int step = steps[i];
+                if(step < Move.COUNT) {
+                    cube.applyMove(Move.valueOf(step));
+                    source = MoveTables.compose(source, MoveTables.FACELET_SOURCE[CubeFrames.FRAME_MOVE[frame][step]]);
+                } else {
+                    int rotation = AXIS_ROTATION[(step - Move.COUNT) / 3];
+                    int power = (step - Move.COUNT) % 3 + 1;
+                    cube.rotate(rotation, power);
+                    for(int k=0; k<power; k++) {
+                        frame = CubeFrames.ROTATE[frame][rotation];
+                    }
+                }
+            }
+
+            for(int slot=0; slot<CubeLayout.CORNERS; slot++) {
+                int value = (int) (cube.getCorners() >>> (5*slot)) & 31;
+                cornerPerm[start][slot] = (byte) (value & 7);
+                cornerTwist[start][slot] = (byte) (value >>> 3);
+            }
+            for(int slot=0; slot<CubeLayout.EDGES; slot++) {
+                int value = (int) (cube.getEdges() >>> (5*slot)) & 31;
+                edgePerm[start][slot] = (byte) (value & 15);
+                edgeFlip[start][slot] = (byte) (value >>> 4);
+            }
+            endFrame[start] = (byte) cube.getFrame();
+            faceletSource[start] = source;
+            faceletEndFrame[start] = (byte) frame;
+        }
+        return new CompiledSequence(cornerPerm, cornerTwist, edgePerm, edgeFlip, endFrame, faceletSource, faceletEndFrame, notation);
+    }
+
+    private static String join(String first, String second) {
+        return first.isEmpty() ? second : second.isEmpty() ? first : first + " " + second;
+    }
+}
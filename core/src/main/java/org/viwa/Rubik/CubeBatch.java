@@ -0,0 +1,372 @@
+package org.viwa.Rubik;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A batch of cubes stored column-major, for applying the same moves to many independent cubes at once.
+ *
+ * Every corner slot and every edge slot is a byte array holding that slot (orientation * 8 + corner,
+ * orientation * 16 + edge, like {@link PackedCube}) of all cubes. A side turn moves whole slots, so it only
+ * reorders the column arrays, and then adds the twist or flip of every turned slot over its column.
+ * Those are plain loops over byte arrays, which the JIT compiles to vector instructions.
+ *
+ * While all cubes are held in the same frame, that frame is kept once for the batch and moves cost the same for
+ * every cube. A batch holding cubes in different frames keeps a frame per cube and turns every cube on its own.
+ *
+ * @author Vishal Wakchaure
+ */
+public final class CubeBatch {
+
+    private final int size;
+
+    //Slot columns, indexed by slot and then by cube.
+    private final byte corners[][] = new byte[CubeLayout.CORNERS][];
+    private final byte edges[][] = new byte[CubeLayout.EDGES][];
+
+    //Frame of all cubes, or -1 if they are held in different frames and 'frames' has the frame of every cube.
+    private int frame;
+    private final byte frames[];
+
+    //Columns being reordered by a turn.
+    private final byte cornerBuffer[][] = new byte[CubeLayout.CORNERS][];
+    private final byte edgeBuffer[][] = new byte[CubeLayout.EDGES][];
+
+    /**
+     * Constructs a batch of 'size' solved cubes held with WHITE side in front.
+     *
+     * @param size
+     */
+    public CubeBatch(int size) {
+        this.size = size;
+        for(int slot=0; slot<CubeLayout.CORNERS; slot++) {
+            corners[slot] = new byte[size];
+            Arrays.fill(corners[slot], (byte) slot);
+        }
+        for(int slot=0; slot<CubeLayout.EDGES; slot++) {
+            edges[slot] = new byte[size];
+            Arrays.fill(edges[slot], (byte) slot);
+        }
+        frames = new byte[size];
+        frame = CubeFrames.IDENTITY;
+    }
+
+    /**
+     * Returns number of cubes.
+     *
+     * @return
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Sets cube at given index to the state of given cube.
+     *
+     * @param index
+     * @param cube
+     */
+    public void set(int index, PackedCube cube) {
+        set(index, cube.getCorners(), cube.getEdges());
+    }
+
+    /**
+     * Sets cube at given index to given packed words, see {@link PackedCube#getCorners()} and {@link PackedCube#getEdges()}.
+     *
+     * @param index
+     * @param cornersWord
+     * @param edgesWord
+     */
+    public void set(int index, long cornersWord, long edgesWord) {
+        Objects.checkIndex(index, size);
+        for(int slot=0; slot<CubeLayout.CORNERS; slot++) {
+            corners[slot][index] = (byte) (cornersWord >>> (5*slot) & 31);
+        }
+        for(int slot=0; slot<CubeLayout.EDGES; slot++) {
+            edges[slot][index] = (byte) (edgesWord >>> (5*slot) & 31);
+        }
+        int cubeFrame = (int) (cornersWord >>> PackedCube.FRAME_SHIFT);
+        if(frame >= 0 && cubeFrame != frame) {
+            Arrays.fill(frames, (byte) frame);
+            frame = -1;
+        }
+        if(frame < 0) {
+            frames[index] = (byte) cubeFrame;
+        }
+    }
+
+    /**
+     * Sets all cubes from packed words, corners and edges words of cube i at 2i and 2i + 1,
+     * like {@link RandomStates#randomStates(long, int, long[])} writes them.
+     *
+     * @param states at least 2 * size longs.
+     */
+    public void load(long[] states) {
+        int first = size == 0 ? CubeFrames.IDENTITY : (int) (states[0] >>> PackedCube.FRAME_SHIFT);
+        boolean sameFrame = true;
+        for(int i=0; i<size; i++) {
+            int cubeFrame = (int) (states[2*i] >>> PackedCube.FRAME_SHIFT);
+            frames[i] = (byte) cubeFrame;
+            sameFrame &= cubeFrame == first;
+        }
+        frame = sameFrame ? first : -1;
+        for(int slot=0; slot<CubeLayout.CORNERS; slot++) {
+            byte[] column = corners[slot];
+            int shift = 5*slot;
+            for(int i=0; i<size; i++) {
+                column[i] = (byte) (states[2*i] >>> shift & 31);
+            }
+        }
+        for(int slot=0; slot<CubeLayout.EDGES; slot++) {
+            byte[] column = edges[slot];
+            int shift = 5*slot;
+            for(int i=0; i<size; i++) {
+                column[i] = (byte) (states[2*i + 1] >>> shift & 31);
+            }
+        }
+    }
+
+    /**
+     * Writes all cubes as packed words, in the layout of {@link #load(long[])}.
+     *
+     * @param states at least 2 * size longs.
+     */
+    public void store(long[] states) {
+        for(int i=0; i<size; i++) {
+            states[2*i] = (long) frameOf(i) << PackedCube.FRAME_SHIFT;
+            states[2*i + 1] = 0;
+        }
+        for(int slot=0; slot<CubeLayout.CORNERS; slot++) {
+            byte[] column = corners[slot];
+            int shift = 5*slot;
+            for(int i=0; i<size; i++) {
+                states[2*i] |= (long) column[i] << shift;
+            }
+        }
+        for(int slot=0; slot<CubeLayout.EDGES; slot++) {
+            byte[] column = edges[slot];
+            int shift = 5*slot;
+            for(int i=0; i<size; i++) {
+                states[2*i + 1] |= (long) column[i] << shift;
+            }
+        }
+    }
+
+    /**
+     * Sets given cube to the state of the cube at given index.
+     *
+     * @param index
+     * @param cube
+     */
+    public void get(int index, PackedCube cube) {
+        cube.set(getCorners(index), getEdges(index));
+    }
+
+    /**
+     * Returns corners word of the cube at given index, see {@link PackedCube#getCorners()}.
+     *
+     * @param index
+     * @return
+     */
+    public long getCorners(int index) {
+        Objects.checkIndex(index, size);
+        long word = (long) frameOf(index) << PackedCube.FRAME_SHIFT;
+        for(int slot=0; slot<CubeLayout.CORNERS; slot++) {
+            word |= (long) corners[slot][index] << (5*slot);
+        }
+        return word;
+    }
+
+    /**
+     * Returns edges word of the cube at given index, see {@link PackedCube#getEdges()}.
+     *
+     * @param index
+     * @return
+     */
+    public long getEdges(int index) {
+        Objects.checkIndex(index, size);
+        long word = 0;
+        for(int slot=0; slot<CubeLayout.EDGES; slot++) {
+            word |= (long) edges[slot][index] << (5*slot);
+        }
+        return word;
+    }
+
+    /**
+     * Returns true if the cube at given index is solved, in whatever frame it is held.
+     *
+     * @param index
+     * @return
+     */
+    public boolean isSolved(int index) {
+        Objects.checkIndex(index, size);
+        for(int slot=0; slot<CubeLayout.CORNERS; slot++) {
+            if(corners[slot][index] != slot) {
+                return false;
+            }
+        }
+        for(int slot=0; slot<CubeLayout.EDGES; slot++) {
+            if(edges[slot][index] != slot) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns number of solved cubes.
+     *
+     * @return
+     */
+    public int countSolved() {
+        int count = 0;
+        for(int i=0; i<size; i++) {
+            if(isSolved(i)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Applies given move to every cube, as each cube is currently held.
+     *
+     * @param move
+     */
+    public void applyMove(Move move) {
+        if(frame < 0) {
+            for(int i=0; i<size; i++) {
+                frames[i] = (byte) applyMove(move.ordinal(), frames[i], i);
+            }
+        } else {
+            frame = applyMove(move.ordinal(), frame, -1);
+        }
+    }
+
+    /**
+     * Applies given moves to every cube, in order.
+     *
+     * @param sequence
+     */
+    public void applySequence(MoveSequence sequence) {
+        for(int i=0; i<sequence.length(); i++) {
+            applyMove(sequence.get(i));
+        }
+    }
+
+    /**
+     * Applies a compiled move sequence to every cube, at the cost of a single move.
+     *
+     * @param sequence
+     */
+    public void applySequence(CompiledSequence sequence) {
+        if(frame < 0) {
+            for(int i=0; i<size; i++) {
+                int cubeFrame = frames[i];
+                permute(sequence.cornerPerm[cubeFrame], sequence.cornerTwist[cubeFrame],
+                    sequence.edgePerm[cubeFrame], sequence.edgeFlip[cubeFrame], i);
+                frames[i] = sequence.endFrame[cubeFrame];
+            }
+        } else {
+            permute(sequence.cornerPerm[frame], sequence.cornerTwist[frame],
+                sequence.edgePerm[frame], sequence.edgeFlip[frame], -1);
+            frame = sequence.endFrame[frame];
+        }
+    }
+
+    /**
+     * Applies a move to cubes held in given frame, like {@link PackedCube#applyMove(Move)}.
+     *
+     * @param move Move ordinal.
+     * @param frame
+     * @param index the cube to turn, -1 for all cubes.
+     * @return the frame after the move.
+     */
+    private int applyMove(int move, int frame, int index) {
+        if(move >= Move.SIDE_TURNS) {
+            byte[] turns = MoveTables.SLICE_TURNS[move - Move.SIDE_TURNS];
+            turn(CubeFrames.FACE_AT[frame][turns[0] / 3]*3 + turns[0] % 3, index);
+            turn(CubeFrames.FACE_AT[frame][turns[1] / 3]*3 + turns[1] % 3, index);
+            for(int i=0; i<=move % 3; i++) {
+                frame = CubeFrames.ROTATE[frame][turns[2]];
+            }
+            return frame;
+        }
+        turn(CubeFrames.FACE_AT[frame][move / 3]*3 + move % 3, index);
+        return frame;
+    }
+
+    /**
+     * Applies a side turn of the reference orientation.
+     */
+    private void turn(int move, int index) {
+        permute(MoveTables.CORNER_PERM[move], MoveTables.CORNER_TWIST[move],
+            MoveTables.EDGE_PERM[move], MoveTables.EDGE_FLIP[move], index);
+    }
+
+    /**
+     * Moves slots like {@link PackedCube}: new slot i takes slot perm[i], its orientation increased by twist[i]
+     * or flip[i].
+     *
+     * @param index the cube to change, -1 for all cubes.
+     */
+    private void permute(byte[] cornerPerm, byte[] cornerTwist, byte[] edgePerm, byte[] edgeFlip, int index) {
+        if(index < 0) {
+            permuteColumns(corners, cornerBuffer, cornerPerm);
+            permuteColumns(edges, edgeBuffer, edgePerm);
+            for(int slot=0; slot<CubeLayout.CORNERS; slot++) {
+                if(cornerTwist[slot] != 0) {
+                    twist(corners[slot], cornerTwist[slot]);
+                }
+            }
+            for(int slot=0; slot<CubeLayout.EDGES; slot++) {
+                if(edgeFlip[slot] != 0) {
+                    flip(edges[slot]);
+                }
+            }
+        } else {
+            long cornersWord = getCorners(index);
+            long edgesWord = getEdges(index);
+            for(int slot=0; slot<CubeLayout.CORNERS; slot++) {
+                int value = (int) (cornersWord >>> (5*cornerPerm[slot])) & 31;
+                int orientation = (value >>> 3) + cornerTwist[slot];
+                if(orientation >= 3) {
+                    orientation -= 3;
+                }
+                corners[slot][index] = (byte) (orientation << 3 | value & 7);
+            }
+            for(int slot=0; slot<CubeLayout.EDGES; slot++) {
+                int value = (int) (edgesWord >>> (5*edgePerm[slot])) & 31;
+                edges[slot][index] = (byte) (value ^ edgeFlip[slot] << 4);
+            }
+        }
+    }
+
+    private static void permuteColumns(byte[][] columns, byte[][] buffer, byte[] perm) {
+        for(int slot=0; slot<perm.length; slot++) {
+            buffer[slot] = columns[perm[slot]];
+        }
+        for(int slot=0; slot<perm.length; slot++) {
+            columns[slot] = buffer[slot];
+        }
+    }
+
+    //Adds 'twist' to the orientation of every corner of the column, modulo 3 without a branch.
+    private static void twist(byte[] column, int twist) {
+        int add = twist << 3;
+        for(int i=0; i<column.length; i++) {
+            int value = column[i] + add;
+            column[i] = (byte) (value - (24 & (23 - value) >> 31));
+        }
+    }
+
+    private static void flip(byte[] column) {
+        for(int i=0; i<column.length; i++) {
+            column[i] = (byte) (column[i] ^ 16);
+        }
+    }
+
+    private int frameOf(int index) {
+        return frame >= 0 ? frame : frames[index];
+    }
+}
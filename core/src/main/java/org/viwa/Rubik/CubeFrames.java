@@ -0,0 +1,117 @@
+package org.viwa.Rubik;
+
+/**
+ * The 24 orientations (frames) a whole cube can be held in.
+ *
+ * A frame says which location of the base orientation currently sits at each location.
+ * Frame 0 is the base orientation itself, other frames are numbered in the order they are reached
+ * by whole cube rotations. Rotations use the same meaning as RubiksCube's rotateCubeX/Y/Z methods.
+ *
+ * @author Vishal Wakchaure
+ */
+final class CubeFrames {
+
+    static final int COUNT = 24;
+    static final int IDENTITY = 0;
+
+    //Rotations, in the order of RubiksCube's rotateCube methods.
+    static final int X_CLOCKWISE = 0;
+    static final int X_ANTI_CLOCKWISE = 1;
+    static final int Y_CLOCKWISE = 2;
+    static final int Y_ANTI_CLOCKWISE = 3;
+    static final int Z_CLOCKWISE = 4;
+    static final int Z_ANTI_CLOCKWISE = 5;
+
+    //For each rotation, the location each location takes its side from.
+    static final byte[][] ROTATION_SOURCE = {
+        {CubeLayout.RIGHT, CubeLayout.BACK, CubeLayout.FRONT, CubeLayout.UP, CubeLayout.DOWN, CubeLayout.LEFT},
+        {CubeLayout.LEFT, CubeLayout.FRONT, CubeLayout.BACK, CubeLayout.UP, CubeLayout.DOWN, CubeLayout.RIGHT},
+        {CubeLayout.UP, CubeLayout.RIGHT, CubeLayout.LEFT, CubeLayout.BACK, CubeLayout.FRONT, CubeLayout.DOWN},
+        {CubeLayout.DOWN, CubeLayout.RIGHT, CubeLayout.LEFT, CubeLayout.FRONT, CubeLayout.BACK, CubeLayout.UP},
+        {CubeLayout.FRONT, CubeLayout.UP, CubeLayout.DOWN, CubeLayout.LEFT, CubeLayout.RIGHT, CubeLayout.BACK},
+        {CubeLayout.FRONT, CubeLayout.DOWN, CubeLayout.UP, CubeLayout.RIGHT, CubeLayout.LEFT, CubeLayout.BACK}
+    };
+
+    //Base location sitting at each location, indexed by frame and location.
+    static final byte[][] FACE_AT = new byte[COUNT][6];
+
+    //Location of each base location, indexed by frame and base location.
+    static final byte[][] LOCATION_OF = new byte[COUNT][6];
+
+    //Frame reached by applying a rotation, indexed by frame and rotation.
+    static final byte[][] ROTATE = new byte[COUNT][6];
+
+    //Shortest sequence of rotations reaching each frame from the base orientation.
+    static final byte[][] PATH = new byte[COUNT][];
+
+    //Move of the base orientation doing the same as a move in a frame, indexed by frame and Move ordinal.
+    static final byte[][] FRAME_MOVE = new byte[COUNT][27];
+
+    //Slice turning along with each location, and whether it turns the same way (M with Left, E with Down, S with Front).
+    private static final byte[] SLICE_OF = {8, 6, 6, 7, 7, 8};
+    private static final boolean[] SLICE_SAME_WAY = {true, false, true, false, true, false};
+
+    //Frame by base locations at front and up, indexed by front * 6 + up.
+    private static final byte[] BY_FRONT_AND_UP = new byte[36];
+
+    static {
+        java.util.Arrays.fill(BY_FRONT_AND_UP, (byte) -1);
+        for(int location=0; location<6; location++) {
+            FACE_AT[IDENTITY][location] = (byte) location;
+        }
+        BY_FRONT_AND_UP[CubeLayout.FRONT*6 + CubeLayout.UP] = IDENTITY;
+        PATH[IDENTITY] = new byte[0];
+
+        int count = 1;
+        for(int frame=0; frame<count; frame++) {
+            for(int rotation=0; rotation<6; rotation++) {
+                byte[] faces = new byte[6];
+                for(int location=0; location<6; location++) {
+                    faces[location] = FACE_AT[frame][ROTATION_SOURCE[rotation][location]];
+                }
+                int key = faces[CubeLayout.FRONT]*6 + faces[CubeLayout.UP];
+                if(BY_FRONT_AND_UP[key] < 0) {
+                    FACE_AT[count] = faces;
+                    PATH[count] = java.util.Arrays.copyOf(PATH[frame], PATH[frame].length + 1);
+                    PATH[count][PATH[frame].length] = (byte) rotation;
+                    BY_FRONT_AND_UP[key] = (byte) count++;
+                }
+                ROTATE[frame][rotation] = BY_FRONT_AND_UP[key];
+            }
+        }
+
+        for(int frame=0; frame<COUNT; frame++) {
+            for(int location=0; location<6; location++) {
+                LOCATION_OF[frame][FACE_AT[frame][location]] = (byte) location;
+            }
+
+            for(int move=0; move<27; move++) {
+                int layer = move / 3;
+                int power = move % 3 + 1;
+                if(layer < 6) {
+                    FRAME_MOVE[frame][move] = (byte) (FACE_AT[frame][layer]*3 + power - 1);
+                } else {
+                    //Slice follows a side, find the side it follows in the base orientation.
+                    int side = layer == 6 ? CubeLayout.LEFT : layer == 7 ? CubeLayout.DOWN : CubeLayout.FRONT;
+                    int base = FACE_AT[frame][side];
+                    int basePower = SLICE_SAME_WAY[base] ? power : 4 - power;
+                    FRAME_MOVE[frame][move] = (byte) (SLICE_OF[base]*3 + basePower - 1);
+                }
+            }
+        }
+    }
+
+    private CubeFrames() {
+    }
+
+    /**
+     * Returns the frame having given base locations at front and up, or -1 if they are not adjacent.
+     *
+     * @param front
+     * @param up
+     * @return
+     */
+    static int of(int front, int up) {
+        return BY_FRONT_AND_UP[front*6 + up];
+    }
+}
@@ -0,0 +1,237 @@
+package org.viwa.Rubik;
+import static org.viwa.Rubik.CubePiece.Color;
+
+/**
+ * Facelet and cubie layout of a 3x3 cube shared by the compact cube representations.
+ *
+ * A facelet index is location * 9 + row * 3 + column, where location is the ordinal of
+ * {@link RubiksCube.CubeSideLocation} and row/column address the side's data matrix, exactly as
+ * the sides of {@link RubiksCube} store them (Up above Front, Down below Front, Back right of Right).
+ *
+ * Corner slots are URF, UFL, ULB, UBR, DFR, DLF, DBL, DRB and edge slots are
+ * UR, UF, UL, UB, DR, DF, DL, DB, FR, FL, BL, BR, named after the faces of the reference orientation
+ * (White front, Blue up, Red right).
+ *
+ * @author Vishal Wakchaure
+ */
+final class CubeLayout {
+
+    static final int FACELETS = 54;
+    static final int CORNERS = 8;
+    static final int EDGES = 12;
+
+    //Locations, same order as RubiksCube.CubeSideLocation.
+    static final int FRONT = 0;
+    static final int RIGHT = 1;
+    static final int LEFT = 2;
+    static final int UP = 3;
+    static final int DOWN = 4;
+    static final int BACK = 5;
+
+    //Location opposite to each location.
+    static final byte[] OPPOSITE = {BACK, LEFT, RIGHT, DOWN, UP, FRONT};
+
+    //Location next to each location in each direction, indexed by location and direction (FRONT being the location itself).
+    //Up and Down sides see Back side above and below them, like the unfolded cube.
+    static final byte[][] NEIGHBOUR = {
+        {FRONT, RIGHT, LEFT, UP, DOWN, BACK},
+        {RIGHT, BACK, FRONT, UP, DOWN, LEFT},
+        {LEFT, FRONT, BACK, UP, DOWN, RIGHT},
+        {UP, RIGHT, LEFT, BACK, FRONT, DOWN},
+        {DOWN, RIGHT, LEFT, FRONT, BACK, UP},
+        {BACK, LEFT, RIGHT, UP, DOWN, FRONT}
+    };
+
+    //All colors, indexed by ordinal.
+    static final Color[] COLORS = Color.values();
+
+    //Colors of the reference orientation, the one RubiksCube() is constructed in.
+    static final Color[] REFERENCE_COLOR = {Color.WHITE, Color.RED, Color.ORANGE, Color.BLUE, Color.GREEN, Color.YELLOW};
+
+    //Reference location of each color, indexed by Color ordinal.
+    static final byte[] REFERENCE_LOCATION = new byte[6];
+
+    //Facelets of each corner slot, in clockwise order starting with the Up/Down facelet.
+    static final byte[][] CORNER_FACELETS = {
+        {facelet(UP, 2, 2), facelet(RIGHT, 0, 0), facelet(FRONT, 0, 2)},
+        {facelet(UP, 2, 0), facelet(FRONT, 0, 0), facelet(LEFT, 0, 2)},
+        {facelet(UP, 0, 0), facelet(LEFT, 0, 0), facelet(BACK, 0, 2)},
+        {facelet(UP, 0, 2), facelet(BACK, 0, 0), facelet(RIGHT, 0, 2)},
+        {facelet(DOWN, 0, 2), facelet(FRONT, 2, 2), facelet(RIGHT, 2, 0)},
+        {facelet(DOWN, 0, 0), facelet(LEFT, 2, 2), facelet(FRONT, 2, 0)},
+        {facelet(DOWN, 2, 0), facelet(BACK, 2, 2), facelet(LEFT, 2, 0)},
+        {facelet(DOWN, 2, 2), facelet(RIGHT, 2, 2), facelet(BACK, 2, 0)}
+    };
+
+    //Facelets of each edge slot, starting with the Up/Down facelet (Front/Back for the middle layer).
+    static final byte[][] EDGE_FACELETS = {
+        {facelet(UP, 1, 2), facelet(RIGHT, 0, 1)},
+        {facelet(UP, 2, 1), facelet(FRONT, 0, 1)},
+        {facelet(UP, 1, 0), facelet(LEFT, 0, 1)},
+        {facelet(UP, 0, 1), facelet(BACK, 0, 1)},
+        {facelet(DOWN, 1, 2), facelet(RIGHT, 2, 1)},
+        {facelet(DOWN, 0, 1), facelet(FRONT, 2, 1)},
+        {facelet(DOWN, 1, 0), facelet(LEFT, 2, 1)},
+        {facelet(DOWN, 2, 1), facelet(BACK, 2, 1)},
+        {facelet(FRONT, 1, 2), facelet(RIGHT, 1, 0)},
+        {facelet(FRONT, 1, 0), facelet(LEFT, 1, 2)},
+        {facelet(BACK, 1, 2), facelet(LEFT, 1, 0)},
+        {facelet(BACK, 1, 0), facelet(RIGHT, 1, 2)}
+    };
+
+    //Corner slot by bit mask of its three locations, -1 if there is no such corner.
+    static final byte[] CORNER_BY_MASK = new byte[64];
+
+    //Edge slot by bit mask of its two locations, -1 if there is no such edge.
+    static final byte[] EDGE_BY_MASK = new byte[64];
+
+    //Facelet of corner {a, b, c} lying on location a, indexed by a * 36 + b * 6 + c.
+    static final byte[] CORNER_STICKER = new byte[216];
+
+    //Facelet of edge {a, b} lying on location a, indexed by a * 6 + b.
+    static final byte[] EDGE_STICKER = new byte[36];
+
+    //Next facelet in clockwise order around the same piece, or the facelet itself for middle pieces.
+    static final byte[] NEXT_STICKER = new byte[FACELETS];
+
+    //Stickers are numbered by the facelet they show on in the reference orientation: corner slot * 3 + k and
+    //24 + edge slot * 2 + k for the k-th facelet of the slot, 48 + location for middle pieces.
+    //Sticker of each facelet, and facelet of each sticker.
+    static final byte[] STICKER = new byte[FACELETS];
+    static final byte[] STICKER_FACELET = new byte[FACELETS];
+    static final int EDGE_STICKERS = 24;
+    static final int MIDDLE_STICKERS = 48;
+
+    static {
+        for(int location=0; location<6; location++) {
+            REFERENCE_LOCATION[REFERENCE_COLOR[location].ordinal()] = (byte) location;
+        }
+
+        java.util.Arrays.fill(CORNER_BY_MASK, (byte) -1);
+        java.util.Arrays.fill(EDGE_BY_MASK, (byte) -1);
+        java.util.Arrays.fill(CORNER_STICKER, (byte) -1);
+        java.util.Arrays.fill(EDGE_STICKER, (byte) -1);
+        for(int i=0; i<FACELETS; i++) {
+            NEXT_STICKER[i] = (byte) i;
+        }
+
+        for(int slot=0; slot<CORNERS; slot++) {
+            byte[] facelets = CORNER_FACELETS[slot];
+            CORNER_BY_MASK[mask(facelets)] = (byte) slot;
+            for(int k=0; k<3; k++) {
+                int a = facelets[k] / 9;
+                int b = facelets[(k+1)%3] / 9;
+                int c = facelets[(k+2)%3] / 9;
+                CORNER_STICKER[a*36 + b*6 + c] = facelets[k];
+                CORNER_STICKER[a*36 + c*6 + b] = facelets[k];
+                NEXT_STICKER[facelets[k]] = facelets[(k+1)%3];
+                STICKER[facelets[k]] = (byte) (slot*3 + k);
+            }
+        }
+
+        for(int slot=0; slot<EDGES; slot++) {
+            byte[] facelets = EDGE_FACELETS[slot];
+            EDGE_BY_MASK[mask(facelets)] = (byte) slot;
+            for(int k=0; k<2; k++) {
+                EDGE_STICKER[(facelets[k]/9)*6 + facelets[1-k]/9] = facelets[k];
+                NEXT_STICKER[facelets[k]] = facelets[1-k];
+                STICKER[facelets[k]] = (byte) (EDGE_STICKERS + slot*2 + k);
+            }
+        }
+
+        for(int location=0; location<6; location++) {
+            STICKER[location*9 + 4] = (byte) (MIDDLE_STICKERS + location);
+        }
+        for(int i=0; i<FACELETS; i++) {
+            STICKER_FACELET[STICKER[i]] = (byte) i;
+        }
+    }
+
+    private CubeLayout() {
+    }
+
+    /**
+     * Returns the sticker of given color on the piece of given colors, -1 if there is no such piece.
+     * For a middle piece the other colors are null, for an edge the last one is.
+     *
+     * @param color
+     * @param other1
+     * @param other2
+     * @return
+     */
+    static int sticker(Color color, Color other1, Color other2) {
+        int a = REFERENCE_LOCATION[color.ordinal()];
+        if(other1 == null) {
+            return MIDDLE_STICKERS + a;
+        }
+        int b = REFERENCE_LOCATION[other1.ordinal()];
+        int facelet;
+        if(other2 == null) {
+            facelet = EDGE_STICKER[a*6 + b];
+        } else {
+            facelet = CORNER_STICKER[a*36 + b*6 + REFERENCE_LOCATION[other2.ordinal()]];
+        }
+        return facelet < 0 ? -1 : STICKER[facelet];
+    }
+
+    /**
+     * Checks that facelets show every corner and every edge of a cube once, however the cube is held.
+     *
+     * @param facelets Color ordinals in facelet order.
+     * @throws IllegalArgumentException if facelets of a slot are not the colors of a piece, or a piece is there twice.
+     */
+    static void checkPieces(byte[] facelets) {
+        int seen = 0;
+        for(int slot=0; slot<CORNERS; slot++) {
+            byte[] slotFacelets = CORNER_FACELETS[slot];
+            int corner = CORNER_BY_MASK[1 << REFERENCE_LOCATION[facelets[slotFacelets[0]]]
+                | 1 << REFERENCE_LOCATION[facelets[slotFacelets[1]]] | 1 << REFERENCE_LOCATION[facelets[slotFacelets[2]]]];
+            if(corner < 0) {
+                throw new IllegalArgumentException("Corner facelets do not belong to a corner piece");
+            }
+            if((seen & 1 << corner) != 0) {
+                throw new IllegalArgumentException("Corner piece is on the cube twice");
+            }
+            seen |= 1 << corner;
+        }
+        seen = 0;
+        for(int slot=0; slot<EDGES; slot++) {
+            byte[] slotFacelets = EDGE_FACELETS[slot];
+            int edge = EDGE_BY_MASK[1 << REFERENCE_LOCATION[facelets[slotFacelets[0]]]
+                | 1 << REFERENCE_LOCATION[facelets[slotFacelets[1]]]];
+            if(edge < 0) {
+                throw new IllegalArgumentException("Edge facelets do not belong to an edge piece");
+            }
+            if((seen & 1 << edge) != 0) {
+                throw new IllegalArgumentException("Edge piece is on the cube twice");
+            }
+            seen |= 1 << edge;
+        }
+    }
+
+    /**
+     * Returns facelet index of given location, row and column.
+     *
+     * @param location
+     * @param row
+     * @param column
+     * @return
+     */
+    static byte facelet(int location, int row, int column) {
+        return (byte) (location*9 + row*3 + column);
+    }
+
+    /**
+     * Returns bit mask of the locations the given facelets lie on.
+     *
+     * @param facelets
+     * @return
+     */
+    static int mask(byte[] facelets) {
+        int mask = 0;
+        for(byte facelet : facelets) {
+            mask |= 1 << (facelet / 9);
+        }
+        return mask;
+    }
+}
@@ -121,7 +121,7 @@ public class CubePiece {
      */
     public CubePiece(CubePiece piece) {
         this.pieceType = piece.pieceType;
-        this.colors.addAll(piece.getColors());
+        this.colors = new ArrayList<Color>(piece.getColors());
     }
 
     /**
@@ -283,6 +283,7 @@ public class CubePiece {
 
         while(i<index && currentPiece.next()!=this) {
             currentPiece = currentPiece.next();
+            i++;
         }
 
         if(i==index) {
@@ -1,6 +1,8 @@
 package org.viwa.Rubik;
 import static org.viwa.Rubik.CubePiece.Color;
 
+import org.viwa.Rubik.RubiksCube.CubeSideLocation;
+
 /**
  * This class represents a complete one cube side.
  * 
@@ -87,17 +89,7 @@ public class CubeSide {
      * @return
      */
     public CubeSide getRightSide() {
-        if(this.color == cube.frontSide.color 
-            || this.color == cube.upSide.color 
-            || this.color == cube.downSide.color){
-            return cube.rightSide;
-        } else if(this.color == cube.rightSide.color){
-            return cube.backSide;
-        } else if(this.color == cube.leftSide.color){
-            return cube.frontSide;
-        } else {
-            return cube.leftSide;
-        }
+        return cube.getNeighbourSide(color, CubeSideLocation.RIGHT);
     }
 
     /**
@@ -106,17 +98,7 @@ public class CubeSide {
      * @return
      */
     public CubeSide getLeftSide() {
-        if(this.color == cube.frontSide.color 
-            || this.color == cube.upSide.color 
-            || this.color == cube.downSide.color){
-            return cube.leftSide;
-        } else if(this.color == cube.rightSide.color){
-            return cube.frontSide;
-        } else if(this.color == cube.leftSide.color){
-            return cube.backSide;
-        } else {
-            return cube.rightSide;
-        }
+        return cube.getNeighbourSide(color, CubeSideLocation.LEFT);
     }
 
     /**
@@ -125,16 +107,7 @@ public class CubeSide {
      * @return
      */
     public CubeSide getUpSide() {
-        if(this.color == cube.frontSide.color 
-            || this.color == cube.rightSide.color 
-            || this.color == cube.leftSide.color
-            || this.color == cube.backSide.color){
-            return cube.upSide;
-        } else if(this.color == cube.downSide.color){
-            return cube.frontSide;
-        } else {
-            return cube.backSide;
-        }
+        return cube.getNeighbourSide(color, CubeSideLocation.UP);
     }
 
     /**
@@ -143,16 +116,7 @@ public class CubeSide {
      * @return
      */
     public CubeSide getDownSide() {
-        if(this.color == cube.frontSide.color 
-            || this.color == cube.rightSide.color 
-            || this.color == cube.leftSide.color
-            || this.color == cube.backSide.color){
-            return cube.downSide;
-        } else if(this.color == cube.downSide.color){
-            return cube.backSide;
-        } else {
-            return cube.frontSide;
-        }
+        return cube.getNeighbourSide(color, CubeSideLocation.DOWN);
     }
 
     /**
@@ -160,19 +124,7 @@ public class CubeSide {
      * @return
      */
     public CubeSide getBackSide() {
-        if(this.color == cube.frontSide.color){
-            return cube.backSide;
-        } else if(this.color == cube.downSide.color){
-            return cube.upSide;
-        } else if(this.color == cube.upSide.color){
-            return cube.downSide;
-        } else if(this.color == cube.leftSide.color){
-            return cube.rightSide;
-        } else if(this.color == cube.rightSide.color){
-            return cube.leftSide;
-        } else {
-            return cube.frontSide;
-        }
+        return cube.getNeighbourSide(color, CubeSideLocation.BACK);
     }
 
     /**
@@ -181,7 +133,7 @@ public class CubeSide {
      * @return
      */
     public CubePiece getEdgePieces() {
-        return pieces[0][1];
+        return pieces()[0][1];
     }
 
     /**
@@ -192,16 +144,24 @@ public class CubeSide {
      */
     public CubePiece getEdgePieces(Color color) {
         CubePiece newList = null;
-        CubePiece piece = pieces[0][1];
-        do {
+        CubePiece last = null;
+        CubePiece pieces[][] = pieces();
+        //Edges in clockwise order, read from the matrix as links of shared pieces may belong to another side.
+        CubePiece edges[] = {pieces[0][1], pieces[1][2], pieces[2][1], pieces[1][0]};
+        for(CubePiece piece : edges) {
             if(piece.getColors().contains(color)) {
+                CubePiece copy = new CubePiece(piece);
                 if(newList == null) {
-                    newList = new CubePiece(piece);
+                    newList = copy;
                 } else {
-                    newList.setNext(new CubePiece(piece));
+                    last.setNext(copy);
                 }
+                last = copy;
             }
-        } while(piece!=pieces[0][1]);
+        }
+        if(last != null) {
+            last.setNext(newList);
+        }
         return newList;
     }
 
@@ -211,13 +171,16 @@ public class CubeSide {
      * @return
      */
     public CubePiece getCornerPieces() {
-        return pieces[0][0];
+        return pieces()[0][0];
     }
 
     /**
      * Setting up cube pieces of this side along with shared pieces with shared sides.
      */
     public void initCubeSidePieces() {
+        if(pieces == null) {
+            return;
+        }
         CubeSide upSide = getUpSide();
         CubeSide leftSide = getLeftSide();
         CubeSide rightSide = getRightSide();
@@ -228,34 +191,103 @@ public class CubeSide {
         pieces[2][0] = new CubePiece(color, downSide.color, leftSide.color);
         pieces[2][2] = new CubePiece(color, rightSide.color, downSide.color);
 
-        //We are maintaining a 'Circular Linked List' of Corner Pieces.
-        pieces[0][0].setNext(pieces[0][2]).setNext(pieces[2][0]).setNext(pieces[2][2]).setNext(pieces[0][0]);
-
         pieces[0][1] = new CubePiece(color, upSide.color);
         pieces[1][2] = new CubePiece(color, rightSide.color);
         pieces[2][1] = new CubePiece(color, downSide.color);
         pieces[1][0] = new CubePiece(color, leftSide.color);
         pieces[1][1] = new CubePiece(color);
 
+        linkPieces(pieces);
+    }
+
+    /**
+     * Sets data matrix and pieces of this side from colors of all 54 facelets of the cube.
+     * Colors of every piece are taken clockwise around the piece, starting with this side's facelet.
+     *
+     * @param facelets Color ordinals in the facelet order of {@link CubeLayout}.
+     * @param location location of this side in the cube.
+     */
+    void setFacelets(byte[] facelets, int location) {
+        for(int i=0; i<3; i++) {
+            for(int j=0; j<3; j++) {
+                data[i][j] = CubeLayout.COLORS[facelets[location*9 + i*3 + j]];
+            }
+        }
+        if(pieces != null) {
+            buildPieces(facelets, location, pieces);
+        }
+    }
+
+    /**
+     * Builds pieces of the side at given location from colors of all 54 facelets of the cube, and links them.
+     * Colors of every piece are taken clockwise around the piece, starting with the side's facelet.
+     *
+     * @param facelets Color ordinals in the facelet order of {@link CubeLayout}.
+     * @param location
+     * @param pieces 3x3 matrix to fill.
+     */
+    static void buildPieces(byte[] facelets, int location, CubePiece[][] pieces) {
+        for(int i=0; i<3; i++) {
+            for(int j=0; j<3; j++) {
+                int facelet = location*9 + i*3 + j;
+                int next = CubeLayout.NEXT_STICKER[facelet];
+                Color color = CubeLayout.COLORS[facelets[facelet]];
+
+                if(next == facelet) {
+                    pieces[i][j] = new CubePiece(color);
+                } else if(CubeLayout.NEXT_STICKER[next] == facelet) {
+                    pieces[i][j] = new CubePiece(color, CubeLayout.COLORS[facelets[next]]);
+                } else {
+                    pieces[i][j] = new CubePiece(color, CubeLayout.COLORS[facelets[next]],
+                        CubeLayout.COLORS[facelets[CubeLayout.NEXT_STICKER[next]]]);
+                }
+            }
+        }
+        linkPieces(pieces);
+    }
+
+    /**
+     * Links corner pieces and edge pieces of a side in their linked lists.
+     */
+    private static void linkPieces(CubePiece[][] pieces) {
+        //We are maintaining a 'Circular Linked List' of Corner Pieces.
+        pieces[0][0].setNext(pieces[0][2]).setNext(pieces[2][0]).setNext(pieces[2][2]).setNext(pieces[0][0]);
+
         //We are maintaining a 'Circular Linked List' of Edge Pieces.
         pieces[0][1].setNext(pieces[1][2]).setNext(pieces[2][1]).setNext(pieces[1][0]).setNext(pieces[0][1]);
     }
 
+    /**
+     * Returns pieces of this side. A cube not tracking pieces derives them from its facelets, as new pieces
+     * every time.
+     */
+    private CubePiece[][] pieces() {
+        if(pieces != null) {
+            return pieces;
+        }
+        return cube.derivePieces(this);
+    }
+
     /**
      * Rotates the matrix of this side clockwise, representing side is being rotated clockwise.
      */
     public void rotateMatrixClockwise() {
-        CubePiece temp = pieces[0][0];
-        pieces[0][0] = pieces[2][0];
-        pieces[2][0] = pieces[2][2];
-        pieces[2][2] = pieces[0][2];
-        pieces[0][2] = temp;
-
-        temp = pieces[0][1];
-        pieces[0][1] = pieces[1][0];
-        pieces[1][0] = pieces[2][1];
-        pieces[2][1] = pieces[1][2];
-        pieces[1][2] = temp;
+        if(cube != null) {
+            cube.invalidateHash();
+        }
+        if(pieces != null) {
+            CubePiece temp = pieces[0][0];
+            pieces[0][0] = pieces[2][0];
+            pieces[2][0] = pieces[2][2];
+            pieces[2][2] = pieces[0][2];
+            pieces[0][2] = temp;
+
+            temp = pieces[0][1];
+            pieces[0][1] = pieces[1][0];
+            pieces[1][0] = pieces[2][1];
+            pieces[2][1] = pieces[1][2];
+            pieces[1][2] = temp;
+        }
 
         //rotating data grid
 
@@ -304,17 +336,22 @@ public class CubeSide {
      * Rotates matrix of this side, Anti clockwise, representing side is being rotated anti clockwise.
      */
     public void rotateMatrixAntiClockwise() {
-        CubePiece temp = pieces[0][0];
-        pieces[0][0] = pieces[0][2];
-        pieces[0][2] = pieces[2][2];
-        pieces[2][2] = pieces[2][0];
-        pieces[2][0] = temp;
+        if(cube != null) {
+            cube.invalidateHash();
+        }
+        if(pieces != null) {
+            CubePiece temp = pieces[0][0];
+            pieces[0][0] = pieces[0][2];
+            pieces[0][2] = pieces[2][2];
+            pieces[2][2] = pieces[2][0];
+            pieces[2][0] = temp;
     
-        temp = pieces[0][1];
-        pieces[0][1] = pieces[1][2];
-        pieces[1][2] = pieces[2][1];
-        pieces[2][1] = pieces[1][0];
-        pieces[1][0] = temp;
+            temp = pieces[0][1];
+            pieces[0][1] = pieces[1][2];
+            pieces[1][2] = pieces[2][1];
+            pieces[2][1] = pieces[1][0];
+            pieces[1][0] = temp;
+        }
 
         Color color = data[0][0];
         data[0][0] = data[0][2];
@@ -358,25 +395,27 @@ public class CubeSide {
         CubeSide rightSide = getRightSide();
         CubeSide downSide = getDownSide();
 
-        CubePiece piece1 = upSide.pieces[2][0];
-        CubePiece piece2 = upSide.pieces[2][1];
-        CubePiece piece3 = upSide.pieces[2][2];
+        if(pieces != null) {
+            CubePiece piece1 = upSide.pieces[2][0];
+            CubePiece piece2 = upSide.pieces[2][1];
+            CubePiece piece3 = upSide.pieces[2][2];
 
-        upSide.pieces[2][0] = leftSide.pieces[2][2];
-        upSide.pieces[2][1] = leftSide.pieces[1][2];
-        upSide.pieces[2][2] = leftSide.pieces[0][2];
+            upSide.pieces[2][0] = leftSide.pieces[2][2];
+            upSide.pieces[2][1] = leftSide.pieces[1][2];
+            upSide.pieces[2][2] = leftSide.pieces[0][2];
 
-        leftSide.pieces[0][2] = downSide.pieces[0][0];
-        leftSide.pieces[1][2] = downSide.pieces[0][1];
-        leftSide.pieces[2][2] = downSide.pieces[0][2];
+            leftSide.pieces[0][2] = downSide.pieces[0][0];
+            leftSide.pieces[1][2] = downSide.pieces[0][1];
+            leftSide.pieces[2][2] = downSide.pieces[0][2];
         
-        downSide.pieces[0][0] = rightSide.pieces[2][0];
-        downSide.pieces[0][1] = rightSide.pieces[1][0];
-        downSide.pieces[0][2] = rightSide.pieces[0][0];
+            downSide.pieces[0][0] = rightSide.pieces[2][0];
+            downSide.pieces[0][1] = rightSide.pieces[1][0];
+            downSide.pieces[0][2] = rightSide.pieces[0][0];
 
-        rightSide.pieces[0][0] = piece1;
-        rightSide.pieces[1][0] = piece2;
-        rightSide.pieces[2][0] = piece3;
+            rightSide.pieces[0][0] = piece1;
+            rightSide.pieces[1][0] = piece2;
+            rightSide.pieces[2][0] = piece3;
+        }
 
         //updating data matrix of adjacent Sides.
 
@@ -411,26 +450,28 @@ public class CubeSide {
         CubeSide rightSide = getRightSide();
         CubeSide downSide = getDownSide();
         
-        CubePiece peice1 = upSide.pieces[2][0];
-        CubePiece peice2 = upSide.pieces[2][1];
-        CubePiece peice3 = upSide.pieces[2][2];
+        if(pieces != null) {
+            CubePiece peice1 = upSide.pieces[2][0];
+            CubePiece peice2 = upSide.pieces[2][1];
+            CubePiece peice3 = upSide.pieces[2][2];
 
-        upSide.pieces[2][0] = rightSide.pieces[0][0];
-        upSide.pieces[2][1] = rightSide.pieces[1][0];
-        upSide.pieces[2][2] = rightSide.pieces[2][0];
+            upSide.pieces[2][0] = rightSide.pieces[0][0];
+            upSide.pieces[2][1] = rightSide.pieces[1][0];
+            upSide.pieces[2][2] = rightSide.pieces[2][0];
 
         
-        rightSide.pieces[0][0] = downSide.pieces[0][2];
-        rightSide.pieces[1][0] = downSide.pieces[0][1];
-        rightSide.pieces[2][0] = downSide.pieces[0][0];
+            rightSide.pieces[0][0] = downSide.pieces[0][2];
+            rightSide.pieces[1][0] = downSide.pieces[0][1];
+            rightSide.pieces[2][0] = downSide.pieces[0][0];
         
-        downSide.pieces[0][0] = leftSide.pieces[0][2];
-        downSide.pieces[0][1] = leftSide.pieces[1][2];
-        downSide.pieces[0][2] = leftSide.pieces[2][2];
+            downSide.pieces[0][0] = leftSide.pieces[0][2];
+            downSide.pieces[0][1] = leftSide.pieces[1][2];
+            downSide.pieces[0][2] = leftSide.pieces[2][2];
 
-        leftSide.pieces[2][2] = peice1;
-        leftSide.pieces[1][2] = peice2;
-        leftSide.pieces[0][2] = peice3;
+            leftSide.pieces[2][2] = peice1;
+            leftSide.pieces[1][2] = peice2;
+            leftSide.pieces[0][2] = peice3;
+        }
 
         //updating Data Matrix of adjecent Sides
 
@@ -456,12 +497,30 @@ public class CubeSide {
         leftSide.data[0][2] = color3;
     }
 
-    
+    /**
+     * Returns true if given object is a side of the same color, showing the same colors in its data matrix.
+     */
+    public boolean equals(Object object) {
+        if(this == object) {
+            return true;
+        }
+        if(!(object instanceof CubeSide)) {
+            return false;
+        }
+        CubeSide side = (CubeSide) object;
+        return color == side.color && java.util.Arrays.deepEquals(data, side.data);
+    }
+
+    public int hashCode() {
+        return 31 * color.hashCode() + java.util.Arrays.deepHashCode(data);
+    }
+
     /**
      * Returns a string representation of this side's current data matrix.
      */
     public String toString() {
         StringBuilder outString = new StringBuilder();
+        CubePiece pieces[][] = pieces();
         for(int i=0; i<3; i++) {
             for(int j=0; j<3; j++) {
                 outString.append(pieces[i][j].getColors()).append("\t");
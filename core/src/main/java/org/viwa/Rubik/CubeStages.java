@@ -0,0 +1,239 @@
+package org.viwa.Rubik;
+import static org.viwa.Rubik.CubePiece.Color;
+
+/**
+ * Stages of layer by layer solving methods (cross, F2L pairs, OLL, PLL) checked on the packed words of a cube.
+ *
+ * A piece of a {@link PackedCube} is solved, with respect to the centers, when its 5 bit slot holds the slot's own
+ * number with orientation 0, whatever frame the cube is held in. So a stage made of whole pieces is solved when
+ * its slots of the words are equal to those of the solved words, one XOR and one AND per word with a mask
+ * precomputed for every cross color. OLL also needs the last layer face to show one color: each last layer slot
+ * has a 32 bit mask of the slot values showing that color on the face.
+ *
+ * The cross color is any of the six colors, the cross is on its side and the last layer on the opposite side.
+ * Checks on a {@link RubiksCube} first pack its facelets, repeated checks should be done on a PackedCube.
+ *
+ * @author Vishal Wakchaure
+ */
+public final class CubeStages {
+
+    //By reference location of the cross color: slots of the cross edges, of all F2L pieces, and of the
+    //corner and edge of every F2L pair (in corner slot order).
+    private static final long[] CROSS_EDGES = new long[6];
+    private static final long[] F2L_CORNERS = new long[6];
+    private static final long[] F2L_EDGES = new long[6];
+    private static final long[][] PAIR_CORNERS = new long[6][4];
+    private static final long[][] PAIR_EDGES = new long[6][4];
+
+    //By reference location of the last layer: its slots, and for each of them the values (orientation and piece)
+    //showing the last layer color on the last layer face, a bit each. Edge sticker j of an edge of orientation o
+    //lies on facelet (o + j) % 2 of its slot.
+    private static final byte[][] LAST_CORNER_SLOTS = new byte[6][4];
+    private static final byte[][] LAST_EDGE_SLOTS = new byte[6][4];
+    private static final int[][] ORIENTED_CORNERS = new int[6][4];
+    private static final int[][] ORIENTED_EDGES = new int[6][4];
+
+    static {
+        for(int location=0; location<6; location++) {
+            int pairs = 0;
+            for(int slot=0; slot<CubeLayout.CORNERS; slot++) {
+                byte[] facelets = CubeLayout.CORNER_FACELETS[slot];
+                int k = indexOn(facelets, location);
+                if(k < 0) {
+                    continue;
+                }
+                //The F2L edge lies on the two other sides of the corner.
+                int mask = 1 << facelets[(k+1)%3] / 9 | 1 << facelets[(k+2)%3] / 9;
+                int edge = CubeLayout.EDGE_BY_MASK[mask];
+                PAIR_CORNERS[location][pairs] = 31L << (5*slot);
+                PAIR_EDGES[location][pairs++] = 31L << (5*edge);
+                F2L_CORNERS[location] |= 31L << (5*slot);
+                F2L_EDGES[location] |= 31L << (5*edge);
+
+                //As a last layer slot: corner values whose sticker of this location lies on the slot's facelet
+                //of this location. Sticker j of a corner of orientation o lies on facelet (o + j) % 3 of its slot.
+                int oriented = 0;
+                for(int corner=0; corner<CubeLayout.CORNERS; corner++) {
+                    int j = indexOn(CubeLayout.CORNER_FACELETS[corner], location);
+                    for(int orientation=0; j>=0 && orientation<3; orientation++) {
+                        if((orientation + j) % 3 == k) {
+                            oriented |= 1 << (orientation << 3 | corner);
+                        }
+                    }
+                }
+                LAST_CORNER_SLOTS[location][pairs - 1] = (byte) slot;
+                ORIENTED_CORNERS[location][pairs - 1] = oriented;
+            }
+
+            int lastEdges = 0;
+            for(int slot=0; slot<CubeLayout.EDGES; slot++) {
+                byte[] facelets = CubeLayout.EDGE_FACELETS[slot];
+                int k = indexOn(facelets, location);
+                if(k < 0) {
+                    continue;
+                }
+                CROSS_EDGES[location] |= 31L << (5*slot);
+
+                int oriented = 0;
+                for(int edge=0; edge<CubeLayout.EDGES; edge++) {
+                    int j = indexOn(CubeLayout.EDGE_FACELETS[edge], location);
+                    for(int orientation=0; j>=0 && orientation<2; orientation++) {
+                        if((orientation + j) % 2 == k) {
+                            oriented |= 1 << (orientation << 4 | edge);
+                        }
+                    }
+                }
+                LAST_EDGE_SLOTS[location][lastEdges] = (byte) slot;
+                ORIENTED_EDGES[location][lastEdges++] = oriented;
+            }
+        }
+    }
+
+    private CubeStages() {
+    }
+
+    /**
+     * Returns true if the edges of the cross on the side of given color are solved.
+     *
+     * @param cube
+     * @param color cross color.
+     * @return
+     */
+    public static boolean isCrossSolved(PackedCube cube, Color color) {
+        return ((cube.getEdges() ^ PackedCube.SOLVED_EDGES) & CROSS_EDGES[location(color)]) == 0;
+    }
+
+    /**
+     * Returns the F2L pairs solved, corner and middle layer edge, a bit each, in the order of the corner slots
+     * of the cross side (see {@link CubeLayout}). The cross is not checked.
+     *
+     * @param cube
+     * @param color cross color.
+     * @return
+     */
+    public static int getSolvedPairs(PackedCube cube, Color color) {
+        int location = location(color);
+        long corners = cube.getCorners() ^ PackedCube.SOLVED_CORNERS;
+        long edges = cube.getEdges() ^ PackedCube.SOLVED_EDGES;
+        int pairs = 0;
+        for(int i=0; i<4; i++) {
+            if((corners & PAIR_CORNERS[location][i]) == 0 && (edges & PAIR_EDGES[location][i]) == 0) {
+                pairs |= 1 << i;
+            }
+        }
+        return pairs;
+    }
+
+    /**
+     * Returns true if the first two layers, cross and all four pairs, are solved.
+     *
+     * @param cube
+     * @param color cross color.
+     * @return
+     */
+    public static boolean isF2LSolved(PackedCube cube, Color color) {
+        int location = location(color);
+        return ((cube.getCorners() ^ PackedCube.SOLVED_CORNERS) & F2L_CORNERS[location]) == 0
+            && ((cube.getEdges() ^ PackedCube.SOLVED_EDGES) & (F2L_EDGES[location] | CROSS_EDGES[location])) == 0;
+    }
+
+    /**
+     * Returns true if the first two layers are solved and the last layer side shows a single color.
+     *
+     * @param cube
+     * @param color cross color.
+     * @return
+     */
+    public static boolean isOLLSolved(PackedCube cube, Color color) {
+        if(!isF2LSolved(cube, color)) {
+            return false;
+        }
+        int last = CubeLayout.OPPOSITE[location(color)];
+        long corners = cube.getCorners();
+        long edges = cube.getEdges();
+        int oriented = 1;
+        for(int i=0; i<4; i++) {
+            oriented &= ORIENTED_CORNERS[last][i] >>> ((int) (corners >>> (5*LAST_CORNER_SLOTS[last][i])) & 31);
+            oriented &= ORIENTED_EDGES[last][i] >>> ((int) (edges >>> (5*LAST_EDGE_SLOTS[last][i])) & 31);
+        }
+        return oriented != 0;
+    }
+
+    /**
+     * Returns true if the last layer is permuted too, which is the whole cube being solved.
+     *
+     * @param cube
+     * @return
+     */
+    public static boolean isPLLSolved(PackedCube cube) {
+        return cube.isSolved();
+    }
+
+    /**
+     * Returns true if the edges of the cross on the side of given color are solved.
+     *
+     * @param cube
+     * @param color cross color.
+     * @return
+     */
+    public static boolean isCrossSolved(RubiksCube cube, Color color) {
+        return isCrossSolved(PackedCube.of(cube), color);
+    }
+
+    /**
+     * Returns the F2L pairs solved, see {@link #getSolvedPairs(PackedCube, Color)}.
+     *
+     * @param cube
+     * @param color cross color.
+     * @return
+     */
+    public static int getSolvedPairs(RubiksCube cube, Color color) {
+        return getSolvedPairs(PackedCube.of(cube), color);
+    }
+
+    /**
+     * Returns true if the first two layers, cross and all four pairs, are solved.
+     *
+     * @param cube
+     * @param color cross color.
+     * @return
+     */
+    public static boolean isF2LSolved(RubiksCube cube, Color color) {
+        return isF2LSolved(PackedCube.of(cube), color);
+    }
+
+    /**
+     * Returns true if the first two layers are solved and the last layer side shows a single color.
+     *
+     * @param cube
+     * @param color cross color.
+     * @return
+     */
+    public static boolean isOLLSolved(RubiksCube cube, Color color) {
+        return isOLLSolved(PackedCube.of(cube), color);
+    }
+
+    /**
+     * Returns true if the whole cube is solved.
+     *
+     * @param cube
+     * @return
+     */
+    public static boolean isPLLSolved(RubiksCube cube) {
+        return isPLLSolved(PackedCube.of(cube));
+    }
+
+    private static int location(Color color) {
+        return CubeLayout.REFERENCE_LOCATION[color.ordinal()];
+    }
+
+    //Index of the facelet lying on given location, -1 if none does.
+    private static int indexOn(byte[] facelets, int location) {
+        for(int k=0; k<facelets.length; k++) {
+            if(facelets[k] / 9 == location) {
+                return k;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,246 @@
+package org.viwa.Rubik;
+
+import java.util.Arrays;
+
+/**
+ * Reads and writes cubes as the standard 54 character facelet string used by most cube programs.
+ *
+ * The string has 9 letters for each face in the order U, R, F, D, L, B, each face read row by row: Up with Back
+ * at the top, Down with Front at the top, the other faces with Up at the top. Every letter names the face whose
+ * center has the color of that facelet, so a solved cube is "UUUUUUUUURRRRRRRRRFFFFFFFFFDDDDDDDDDLLLLLLLLLBBBBBBBBB".
+ * These are the faces of {@link CubeLayout} read in the order of its facelets.
+ *
+ * Read cubes get the reference colors, White front and Blue up. Parsing checks the string describes real pieces,
+ * but not that the cube can be solved. Parsing a slice of a CharSequence into an existing cube allocates nothing,
+ * apart from the pieces of a {@link RubiksCube} tracking them.
+ *
+ * @author Vishal Wakchaure
+ */
+public final class FaceletString {
+
+    public static final int LENGTH = CubeLayout.FACELETS;
+
+    public static final String SOLVED = "UUUUUUUUURRRRRRRRRFFFFFFFFFDDDDDDDDDLLLLLLLLLBBBBBBBBB";
+
+    //Location of each face of the string, in string order.
+    private static final byte[] FACE_LOCATION = {CubeLayout.UP, CubeLayout.RIGHT, CubeLayout.FRONT, CubeLayout.DOWN,
+        CubeLayout.LEFT, CubeLayout.BACK};
+
+    //Letter of each location, and location and reference Color ordinal of each letter (-1 for other characters).
+    private static final char[] LETTER = {'F', 'R', 'L', 'U', 'D', 'B'};
+    private static final byte[] LETTER_LOCATION = new byte[128];
+    private static final byte[] LETTER_COLOR = new byte[128];
+
+    //Facelet index of each position of the string.
+    private static final byte[] FACELET = new byte[LENGTH];
+
+    //Facelets being read or written, as Color ordinals.
+    private static final ThreadLocal<byte[]> FACELETS = ThreadLocal.withInitial(() -> new byte[CubeLayout.FACELETS]);
+
+    static {
+        Arrays.fill(LETTER_LOCATION, (byte) -1);
+        Arrays.fill(LETTER_COLOR, (byte) -1);
+        for(int location=0; location<6; location++) {
+            LETTER_LOCATION[LETTER[location]] = (byte) location;
+            LETTER_COLOR[LETTER[location]] = (byte) CubeLayout.REFERENCE_COLOR[location].ordinal();
+        }
+        for(int i=0; i<LENGTH; i++) {
+            FACELET[i] = (byte) (FACE_LOCATION[i / 9]*9 + i % 9);
+        }
+    }
+
+    private FaceletString() {
+    }
+
+    /**
+     * Returns a new cube of given facelet string.
+     *
+     * @param text
+     * @return
+     * @throws IllegalArgumentException if the text is not a facelet string of real pieces.
+     */
+    public static RubiksCube parse(CharSequence text) {
+        if(text.length() != LENGTH) {
+            throw new IllegalArgumentException("Facelet string must have " + LENGTH + " characters");
+        }
+        RubiksCube cube = new RubiksCube();
+        parse(text, 0, cube);
+        return cube;
+    }
+
+    /**
+     * Sets cube to the facelet string of 54 characters starting at given offset of text.
+     *
+     * @param text
+     * @param offset
+     * @param cube
+     * @throws IllegalArgumentException if the characters are not a facelet string of real pieces.
+     */
+    public static void parse(CharSequence text, int offset, RubiksCube cube) {
+        byte[] facelets = FACELETS.get();
+        parse(text, offset, facelets);
+        cube.setFacelets(facelets);
+    }
+
+    /**
+     * Sets cube to the facelet string of 54 characters starting at given offset of text.
+     *
+     * @param text
+     * @param offset
+     * @param cube
+     * @throws IllegalArgumentException if the characters are not a facelet string of real pieces.
+     */
+    public static void parse(CharSequence text, int offset, PackedCube cube) {
+        byte[] facelets = FACELETS.get();
+        parse(text, offset, facelets);
+        cube.setFacelets(facelets);
+    }
+
+    /**
+     * Reads the facelet string of 54 characters starting at given offset of text into Color ordinals,
+     * in the facelet order of {@link RubiksCube#getFacelets(byte[])}.
+     *
+     * @param text
+     * @param offset
+     * @param facelets
+     * @throws IllegalArgumentException if the characters are not a facelet string of real pieces.
+     */
+    public static void parse(CharSequence text, int offset, byte[] facelets) {
+        if(offset < 0 || text.length() - offset < LENGTH) {
+            throw new IllegalArgumentException("Facelet string must have " + LENGTH + " characters");
+        }
+        for(int i=0; i<LENGTH; i++) {
+            char letter = text.charAt(offset + i);
+            int color = color(letter);
+            if(color < 0) {
+                throw new IllegalArgumentException("Not a face letter: '" + letter + "' at " + i);
+            }
+            facelets[FACELET[i]] = (byte) color;
+        }
+
+        for(int location=0; location<6; location++) {
+            if(CubeLayout.REFERENCE_LOCATION[facelets[location*9 + 4]] != location) {
+                throw new IllegalArgumentException("Center of face " + LETTER[location] + " is not " + LETTER[location]);
+            }
+        }
+
+        //Every piece must be a real piece, with its colors in clockwise order, and be there once.
+        int seen = 0;
+        for(int slot=0; slot<CubeLayout.CORNERS; slot++) {
+            byte[] slotFacelets = CubeLayout.CORNER_FACELETS[slot];
+            int a = CubeLayout.REFERENCE_LOCATION[facelets[slotFacelets[0]]];
+            int b = CubeLayout.REFERENCE_LOCATION[facelets[slotFacelets[1]]];
+            int c = CubeLayout.REFERENCE_LOCATION[facelets[slotFacelets[2]]];
+            int sticker = CubeLayout.CORNER_STICKER[a*36 + b*6 + c];
+            if(sticker < 0 || CubeLayout.NEXT_STICKER[sticker] != CubeLayout.CORNER_STICKER[b*36 + c*6 + a]) {
+                throw new IllegalArgumentException("Not a corner: " + LETTER[a] + LETTER[b] + LETTER[c]);
+            }
+            int corner = CubeLayout.CORNER_BY_MASK[1 << a | 1 << b | 1 << c];
+            if((seen & 1 << corner) != 0) {
+                throw new IllegalArgumentException("Corner twice: " + LETTER[a] + LETTER[b] + LETTER[c]);
+            }
+            seen |= 1 << corner;
+        }
+        seen = 0;
+        for(int slot=0; slot<CubeLayout.EDGES; slot++) {
+            byte[] slotFacelets = CubeLayout.EDGE_FACELETS[slot];
+            int a = CubeLayout.REFERENCE_LOCATION[facelets[slotFacelets[0]]];
+            int b = CubeLayout.REFERENCE_LOCATION[facelets[slotFacelets[1]]];
+            int edge = CubeLayout.EDGE_BY_MASK[1 << a | 1 << b];
+            if(edge < 0) {
+                throw new IllegalArgumentException("Not an edge: " + LETTER[a] + LETTER[b]);
+            }
+            if((seen & 1 << edge) != 0) {
+                throw new IllegalArgumentException("Edge twice: " + LETTER[a] + LETTER[b]);
+            }
+            seen |= 1 << edge;
+        }
+    }
+
+    /**
+     * Returns facelet string of cube, as it is held.
+     *
+     * @param cube
+     * @return
+     */
+    public static String format(RubiksCube cube) {
+        StringBuilder text = new StringBuilder(LENGTH);
+        format(cube, text);
+        return text.toString();
+    }
+
+    /**
+     * Appends facelet string of cube, as it is held, to text.
+     *
+     * @param cube
+     * @param text
+     */
+    public static void format(RubiksCube cube, StringBuilder text) {
+        byte[] facelets = FACELETS.get();
+        cube.getFacelets(facelets);
+        format(facelets, text);
+    }
+
+    /**
+     * Returns facelet string of cube, as it is held.
+     *
+     * @param cube
+     * @return
+     */
+    public static String format(PackedCube cube) {
+        StringBuilder text = new StringBuilder(LENGTH);
+        format(cube, text);
+        return text.toString();
+    }
+
+    /**
+     * Appends facelet string of cube, as it is held, to text.
+     *
+     * @param cube
+     * @param text
+     */
+    public static void format(PackedCube cube, StringBuilder text) {
+        byte[] facelets = FACELETS.get();
+        cube.getFacelets(facelets);
+        format(facelets, text);
+    }
+
+    /**
+     * Appends facelet string of the cube of given facelets (Color ordinals, in the order of
+     * {@link RubiksCube#getFacelets(byte[])}) to text. Every color is named after the face of its center.
+     *
+     * @param facelets
+     * @param text
+     */
+    public static void format(byte[] facelets, StringBuilder text) {
+        //Letters by Color ordinal, packed 4 bits a color.
+        int letters = 0;
+        for(int location=0; location<6; location++) {
+            letters |= location << (4*facelets[location*9 + 4]);
+        }
+        for(int i=0; i<LENGTH; i++) {
+            int color = facelets[FACELET[i]];
+            text.append(LETTER[letters >>> (4*color) & 15]);
+        }
+    }
+
+    /**
+     * Returns reference Color ordinal of the face of given letter, -1 if it is not a face letter.
+     *
+     * @param letter
+     * @return
+     */
+    static int color(char letter) {
+        return letter < 128 ? LETTER_COLOR[letter] : -1;
+    }
+
+    /**
+     * Returns facelet index (see {@link CubeLayout}) of given position of a facelet string.
+     *
+     * @param position
+     * @return
+     */
+    static int facelet(int position) {
+        return FACELET[position];
+    }
+}
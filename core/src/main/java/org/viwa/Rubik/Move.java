@@ -0,0 +1,123 @@
+package org.viwa.Rubik;
+
+/**
+ * Turns of a single layer of the cube, in standard notation.
+ *
+ * Layers are the six sides, in the order of {@link RubiksCube.CubeSideLocation}, followed by the three middle slices:
+ * M (between Right and Left, turning like Left), E (between Up and Down, turning like Down)
+ * and S (between Front and Back, turning like Front). Every layer has a clockwise, a half and an anti clockwise turn,
+ * so the ordinal of a move is layer * 3 + (power - 1).
+ *
+ * @author Vishal Wakchaure
+ */
+public enum Move {
+    F("F"), F2("F2"), F_PRIME("F'"),
+    R("R"), R2("R2"), R_PRIME("R'"),
+    L("L"), L2("L2"), L_PRIME("L'"),
+    U("U"), U2("U2"), U_PRIME("U'"),
+    D("D"), D2("D2"), D_PRIME("D'"),
+    B("B"), B2("B2"), B_PRIME("B'"),
+    M("M"), M2("M2"), M_PRIME("M'"),
+    E("E"), E2("E2"), E_PRIME("E'"),
+    S("S"), S2("S2"), S_PRIME("S'");
+
+    //Number of side turns, which come first in the ordinal order.
+    public static final int SIDE_TURNS = 18;
+
+    //Number of all moves.
+    public static final int COUNT = 27;
+
+    private static final Move[] MOVES = values();
+
+    private final String notation;
+
+    private Move(String notation) {
+        this.notation = notation;
+    }
+
+    /**
+     * Returns the move of given ordinal, without copying the values array.
+     *
+     * @param ordinal
+     * @return
+     */
+    public static Move valueOf(int ordinal) {
+        return MOVES[ordinal];
+    }
+
+    /**
+     * Returns the move written in standard notation, like R, U2 or F'.
+     *
+     * @param notation
+     * @return
+     * @throws IllegalArgumentException if notation is not a move.
+     */
+    public static Move parse(String notation) {
+        for(Move move : MOVES) {
+            if(move.notation.equals(notation)) {
+                return move;
+            }
+        }
+        throw new IllegalArgumentException("Unknown move: " + notation);
+    }
+
+    /**
+     * Returns the move turning given layer clockwise 'power' times.
+     *
+     * @param layer 0 - 8, sides in CubeSideLocation order and then M, E, S.
+     * @param power 1 - 3 clockwise quarter turns.
+     * @return
+     */
+    public static Move of(int layer, int power) {
+        return MOVES[layer*3 + power - 1];
+    }
+
+    /**
+     * Returns layer of this move, 0 - 5 are sides in CubeSideLocation order, 6 - 8 are M, E and S slices.
+     *
+     * @return
+     */
+    public int getLayer() {
+        return ordinal() / 3;
+    }
+
+    /**
+     * Returns number of clockwise quarter turns of this move, 1 - 3.
+     *
+     * @return
+     */
+    public int getPower() {
+        return ordinal() % 3 + 1;
+    }
+
+    /**
+     * Returns true if this move turns a middle slice.
+     *
+     * @return
+     */
+    public boolean isSlice() {
+        return ordinal() >= SIDE_TURNS;
+    }
+
+    /**
+     * Returns the move undoing this move.
+     *
+     * @return
+     */
+    public Move inverse() {
+        return of(getLayer(), 4 - getPower());
+    }
+
+    /**
+     * Returns this move in standard notation, like R, U2 or F'.
+     *
+     * @return
+     */
+    public String getNotation() {
+        return notation;
+    }
+
+    public String toString() {
+        return notation;
+    }
+}
@@ -0,0 +1,158 @@
+package org.viwa.Rubik;
+
+import java.util.Arrays;
+
+/**
+ * Journal of the moves applied to a cube during a search, undone by applying their inverse moves.
+ *
+ * Moves are kept as Move ordinals in a byte array, which only grows when a search goes deeper than ever before,
+ * so trying a move and taking it back allocates nothing. The journal does not hold the cube: the same cube,
+ * a {@link RubiksCube} or a {@link PackedCube}, has to be passed to every call.
+ *
+ * @author Vishal Wakchaure
+ */
+public final class MoveJournal {
+
+    private byte moves[];
+    private int size;
+
+    /**
+     * Creates an empty journal, room for 32 moves.
+     */
+    public MoveJournal() {
+        this(32);
+    }
+
+    /**
+     * Creates an empty journal with room for given number of moves.
+     *
+     * @param capacity
+     */
+    public MoveJournal(int capacity) {
+        moves = new byte[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Applies move to cube and records it.
+     *
+     * @param cube
+     * @param move
+     */
+    public void apply(RubiksCube cube, Move move) {
+        cube.applyMove(move);
+        record(move);
+    }
+
+    /**
+     * Applies move to cube and records it.
+     *
+     * @param cube
+     * @param move
+     */
+    public void apply(PackedCube cube, Move move) {
+        cube.applyMove(move);
+        record(move);
+    }
+
+    /**
+     * Undoes the last recorded move on cube.
+     *
+     * @param cube
+     * @return the move undone.
+     * @throws IllegalStateException if the journal is empty.
+     */
+    public Move undo(RubiksCube cube) {
+        Move move = pop();
+        cube.applyMove(move.inverse());
+        return move;
+    }
+
+    /**
+     * Undoes the last recorded move on cube.
+     *
+     * @param cube
+     * @return the move undone.
+     * @throws IllegalStateException if the journal is empty.
+     */
+    public Move undo(PackedCube cube) {
+        Move move = pop();
+        cube.applyMove(move.inverse());
+        return move;
+    }
+
+    /**
+     * Undoes moves on cube until only 'mark' moves are recorded, like a mark taken from {@link #size()}.
+     *
+     * @param cube
+     * @param mark
+     */
+    public void rollback(RubiksCube cube, int mark) {
+        while(size > mark) {
+            undo(cube);
+        }
+    }
+
+    /**
+     * Undoes moves on cube until only 'mark' moves are recorded, like a mark taken from {@link #size()}.
+     *
+     * @param cube
+     * @param mark
+     */
+    public void rollback(PackedCube cube, int mark) {
+        while(size > mark) {
+            undo(cube);
+        }
+    }
+
+    /**
+     * Returns number of recorded moves.
+     *
+     * @return
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns recorded move at given index, 0 being the first one applied.
+     *
+     * @param index
+     * @return
+     */
+    public Move get(int index) {
+        if(index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return Move.valueOf(moves[index]);
+    }
+
+    /**
+     * Returns recorded moves, in the order they were applied.
+     *
+     * @return
+     */
+    public MoveSequence toSequence() {
+        return MoveSequence.of(moves, 0, size);
+    }
+
+    /**
+     * Forgets all recorded moves, without undoing them.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    private void record(Move move) {
+        if(size == moves.length) {
+            moves = Arrays.copyOf(moves, 2 * size);
+        }
+        moves[size++] = (byte) move.ordinal();
+    }
+
+    private Move pop() {
+        if(size == 0) {
+            throw new IllegalStateException("No move to undo");
+        }
+        return Move.valueOf(moves[--size]);
+    }
+}
@@ -0,0 +1,333 @@
+package org.viwa.Rubik;
+
+import java.util.Arrays;
+
+/**
+ * An immutable sequence of moves, stored at 5 bits per move (Move ordinal), 12 moves to a long.
+ *
+ * Sequences can be simplified into a canonical form: turns of the same layer are merged (R R R becomes R'),
+ * turns of parallel layers, which commute, are merged across each other and written in Move order
+ * (F before B before S, R before L before M, U before D before E), and whatever cancels is dropped. Two sequences
+ * doing the same turns in any commuting order so have the same canonical form, and compare with a few long compares.
+ *
+ * @author Vishal Wakchaure
+ */
+public final class MoveSequence {
+
+    private static final int BITS = 5;
+    private static final int PER_WORD = 12;
+    private static final long MASK = (1L << BITS) - 1;
+
+    //Axis of every layer and the position of the layer on its axis, indexed by layer.
+    private static final byte[] AXIS = {0, 1, 1, 2, 2, 0, 1, 2, 0};
+    private static final byte[] AXIS_POSITION = {0, 0, 1, 0, 1, 1, 2, 2, 2};
+
+    //Layers of every axis, in Move order.
+    private static final byte[][] AXIS_LAYERS = {{0, 5, 8}, {1, 2, 6}, {3, 4, 7}};
+
+    //Sequence of no moves.
+    public static final MoveSequence EMPTY = new MoveSequence(new long[0], 0);
+
+    private final long[] words;
+    private final int length;
+
+    private MoveSequence(long[] words, int length) {
+        this.words = words;
+        this.length = length;
+    }
+
+    /**
+     * Returns a sequence of given moves.
+     *
+     * @param moves
+     * @return
+     */
+    public static MoveSequence of(Move... moves) {
+        long[] words = new long[wordsFor(moves.length)];
+        for(int i=0; i<moves.length; i++) {
+            words[i / PER_WORD] |= (long) moves[i].ordinal() << (BITS * (i % PER_WORD));
+        }
+        return new MoveSequence(words, moves.length);
+    }
+
+    /**
+     * Returns a sequence of moves given by Move ordinals, like the scrambles of {@link Scrambler}.
+     *
+     * @param moves
+     * @param offset
+     * @param length
+     * @return
+     * @throws IllegalArgumentException if a byte is not a Move ordinal.
+     */
+    public static MoveSequence of(byte[] moves, int offset, int length) {
+        long[] words = new long[wordsFor(length)];
+        for(int i=0; i<length; i++) {
+            int move = moves[offset + i];
+            if(move < 0 || move >= Move.COUNT) {
+                throw new IllegalArgumentException("Not a move: " + move);
+            }
+            words[i / PER_WORD] |= (long) move << (BITS * (i % PER_WORD));
+        }
+        return new MoveSequence(words, length);
+    }
+
+    /**
+     * Returns the sequence written in standard notation, moves separated by spaces, like "R U R' U2".
+     *
+     * @param sequence
+     * @return
+     * @throws IllegalArgumentException if a move is not in standard notation.
+     */
+    public static MoveSequence parse(String sequence) {
+        String trimmed = sequence.trim();
+        if(trimmed.isEmpty()) {
+            return EMPTY;
+        }
+        String[] tokens = trimmed.split("\\s+");
+        Move[] moves = new Move[tokens.length];
+        for(int i=0; i<tokens.length; i++) {
+            moves[i] = Move.parse(tokens[i]);
+        }
+        return of(moves);
+    }
+
+    /**
+     * Returns the sequence written by {@link #toBytes()}.
+     *
+     * @param bytes
+     * @return
+     * @throws IllegalArgumentException if bytes are not a written sequence.
+     */
+    public static MoveSequence fromBytes(byte[] bytes) {
+        //Length as an unsigned varint, 7 bits a byte.
+        int length = 0;
+        int position = 0;
+        for(int shift=0; ; shift+=7) {
+            if(position == bytes.length || shift > 28) {
+                throw new IllegalArgumentException("Bad sequence length");
+            }
+            int b = bytes[position++];
+            length |= (b & 0x7F) << shift;
+            if(b >= 0) {
+                break;
+            }
+        }
+        if(length < 0 || bytes.length - position != ((long) length * BITS + 7) / 8) {
+            throw new IllegalArgumentException("Bad sequence length");
+        }
+
+        long[] words = new long[wordsFor(length)];
+        for(int i=0; i<length; i++) {
+            long move = 0;
+            for(int k=0; k<BITS; k++) {
+                int bit = i*BITS + k;
+                move |= (long) (bytes[position + bit / 8] >>> (bit % 8) & 1) << k;
+            }
+            if(move >= Move.COUNT) {
+                throw new IllegalArgumentException("Not a move: " + move);
+            }
+            words[i / PER_WORD] |= move << (BITS * (i % PER_WORD));
+        }
+        return new MoveSequence(words, length);
+    }
+
+    /**
+     * Returns this sequence as bytes, the number of moves as a varint and then the moves at 5 bits each.
+     *
+     * @return
+     */
+    public byte[] toBytes() {
+        int header = 1;
+        for(int n = length >>> 7; n != 0; n >>>= 7) {
+            header++;
+        }
+        byte[] bytes = new byte[header + (length * BITS + 7) / 8];
+        int n = length;
+        for(int i=0; i<header; i++) {
+            bytes[i] = (byte) (n & 0x7F | (i < header - 1 ? 0x80 : 0));
+            n >>>= 7;
+        }
+        for(int i=0; i<length; i++) {
+            int move = ordinal(i);
+            for(int k=0; k<BITS; k++) {
+                int bit = i*BITS + k;
+                bytes[header + bit / 8] |= (byte) ((move >>> k & 1) << (bit % 8));
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns number of moves.
+     *
+     * @return
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Returns move at given index.
+     *
+     * @param index
+     * @return
+     */
+    public Move get(int index) {
+        if(index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return Move.valueOf(ordinal(index));
+    }
+
+    /**
+     * Returns all moves, in order.
+     *
+     * @return
+     */
+    public Move[] toMoves() {
+        Move[] moves = new Move[length];
+        for(int i=0; i<length; i++) {
+            moves[i] = Move.valueOf(ordinal(i));
+        }
+        return moves;
+    }
+
+    /**
+     * Returns this sequence followed by given sequence, without simplifying.
+     *
+     * @param next
+     * @return
+     */
+    public MoveSequence then(MoveSequence next) {
+        long[] words = Arrays.copyOf(this.words, wordsFor(length + next.length));
+        for(int i=0; i<next.length; i++) {
+            int index = length + i;
+            words[index / PER_WORD] |= (long) next.ordinal(i) << (BITS * (index % PER_WORD));
+        }
+        return new MoveSequence(words, length + next.length);
+    }
+
+    /**
+     * Returns the sequence undoing this sequence, inverse moves in reverse order.
+     *
+     * @return
+     */
+    public MoveSequence inverse() {
+        long[] words = new long[this.words.length];
+        for(int i=0; i<length; i++) {
+            int move = ordinal(length - 1 - i);
+            int inverse = move - move % 3 + 2 - move % 3;
+            words[i / PER_WORD] |= (long) inverse << (BITS * (i % PER_WORD));
+        }
+        return new MoveSequence(words, length);
+    }
+
+    /**
+     * Returns the canonical form of this sequence: same layer turns merged, parallel layer turns merged and
+     * ordered, cancelled turns dropped. It does the same to a cube as this sequence.
+     *
+     * @return
+     */
+    public MoveSequence canonical() {
+        //Stack of groups of turns on one axis, quarter turns of each of its 3 layers in 2 bits each.
+        //A group cancelling to nothing is popped, so the groups around it can merge.
+        byte[] axes = new byte[length];
+        byte[] powers = new byte[length];
+        int groups = 0;
+        for(int i=0; i<length; i++) {
+            int move = ordinal(i);
+            int layer = move / 3;
+            int shift = 2 * AXIS_POSITION[layer];
+            int power = move % 3 + 1;
+            if(groups > 0 && axes[groups - 1] == AXIS[layer]) {
+                int turns = ((powers[groups - 1] >>> shift & 3) + power) & 3;
+                powers[groups - 1] = (byte) (powers[groups - 1] & ~(3 << shift) | turns << shift);
+                if(powers[groups - 1] == 0) {
+                    groups--;
+                }
+            } else {
+                axes[groups] = AXIS[layer];
+                powers[groups++] = (byte) (power << shift);
+            }
+        }
+
+        int count = 0;
+        long[] words = new long[wordsFor(3 * groups)];
+        for(int group=0; group<groups; group++) {
+            for(int position=0; position<3; position++) {
+                int power = powers[group] >>> (2*position) & 3;
+                if(power != 0) {
+                    int move = Move.of(AXIS_LAYERS[axes[group]][position], power).ordinal();
+                    words[count / PER_WORD] |= (long) move << (BITS * (count % PER_WORD));
+                    count++;
+                }
+            }
+        }
+        return new MoveSequence(Arrays.copyOf(words, wordsFor(count)), count);
+    }
+
+    /**
+     * Returns this sequence compiled into a single transform.
+     *
+     * @return
+     */
+    public CompiledSequence compile() {
+        return CompiledSequence.of(toMoves());
+    }
+
+    /**
+     * Applies all moves to given cube, one at a time.
+     *
+     * @param cube
+     */
+    public void applyTo(PackedCube cube) {
+        for(int i=0; i<length; i++) {
+            cube.applyMove(Move.valueOf(ordinal(i)));
+        }
+    }
+
+    /**
+     * Applies all moves to given cube, one at a time.
+     *
+     * @param cube
+     */
+    public void applyTo(RubiksCube cube) {
+        for(int i=0; i<length; i++) {
+            cube.applyMove(Move.valueOf(ordinal(i)));
+        }
+    }
+
+    public boolean equals(Object object) {
+        if(!(object instanceof MoveSequence)) {
+            return false;
+        }
+        MoveSequence sequence = (MoveSequence) object;
+        return length == sequence.length && Arrays.equals(words, sequence.words);
+    }
+
+    public int hashCode() {
+        return 31 * Arrays.hashCode(words) + length;
+    }
+
+    /**
+     * Returns moves in standard notation, separated by spaces.
+     */
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for(int i=0; i<length; i++) {
+            if(i > 0) {
+                builder.append(' ');
+            }
+            builder.append(Move.valueOf(ordinal(i)).getNotation());
+        }
+        return builder.toString();
+    }
+
+    private int ordinal(int index) {
+        return (int) (words[index / PER_WORD] >>> (BITS * (index % PER_WORD)) & MASK);
+    }
+
+    private static int wordsFor(int length) {
+        return (length + PER_WORD - 1) / PER_WORD;
+    }
+}
@@ -0,0 +1,206 @@
+package org.viwa.Rubik;
+import static org.viwa.Rubik.CubePiece.Color;
+
+import java.util.function.Consumer;
+
+/**
+ * Precomputed transition tables of every move and whole cube rotation.
+ *
+ * Tables are generated once, when the class is loaded, by running the turn and rotation code of
+ * {@link RubiksCube} and {@link CubeSide} on a cube whose facelets are labelled, so they always follow the
+ * semantics of the cube model. Facelet tables are gathers: after a move, facelet i holds what facelet
+ * SOURCE[i] held before it. Cubie tables use the same convention on the slots of {@link CubeLayout}.
+ *
+ * @author Vishal Wakchaure
+ */
+final class MoveTables {
+
+    //Facelet gather of every move, indexed by Move ordinal.
+    static final byte[][] FACELET_SOURCE = new byte[Move.COUNT][];
+
+    //Facelet gather of every whole cube rotation, in CubeFrames rotation order.
+    static final byte[][] ROTATION_SOURCE = new byte[6][];
+
+    //Facelet gather from the base orientation to every frame of CubeFrames.
+    static final byte[][] FRAME_SOURCE = new byte[CubeFrames.COUNT][];
+
+    //Inverse of FRAME_SOURCE, the facelet (as held) each facelet of the base orientation shows up at.
+    static final byte[][] FRAME_TARGET = new byte[CubeFrames.COUNT][CubeLayout.FACELETS];
+
+    //Facelets changed by every move, and the facelets they are taken from.
+    static final byte[][] MOVED_FACELETS = new byte[Move.COUNT][];
+    static final byte[][] MOVED_SOURCES = new byte[Move.COUNT][];
+
+    //Cubie tables of side turns, indexed by Move ordinal.
+    //New slot i gets the piece of slot PERM[move][i], its orientation increased by TWIST/FLIP[move][i].
+    static final byte[][] CORNER_PERM = new byte[Move.SIDE_TURNS][CubeLayout.CORNERS];
+    static final byte[][] CORNER_TWIST = new byte[Move.SIDE_TURNS][CubeLayout.CORNERS];
+    static final byte[][] EDGE_PERM = new byte[Move.SIDE_TURNS][CubeLayout.EDGES];
+    static final byte[][] EDGE_FLIP = new byte[Move.SIDE_TURNS][CubeLayout.EDGES];
+
+    //Every slice turn is two side turns and a whole cube rotation, like M = R L' x'.
+    //Indexed by Move ordinal - 18: first side turn, second side turn, rotation applied 'power' times.
+    static final byte[][] SLICE_TURNS = new byte[Move.COUNT - Move.SIDE_TURNS][3];
+
+    static {
+        ROTATION_SOURCE[CubeFrames.X_CLOCKWISE] = probe(cube -> cube.relayout(CubeFrames.X_CLOCKWISE));
+        ROTATION_SOURCE[CubeFrames.X_ANTI_CLOCKWISE] = probe(cube -> cube.relayout(CubeFrames.X_ANTI_CLOCKWISE));
+        ROTATION_SOURCE[CubeFrames.Y_CLOCKWISE] = probe(cube -> cube.relayout(CubeFrames.Y_CLOCKWISE));
+        ROTATION_SOURCE[CubeFrames.Y_ANTI_CLOCKWISE] = probe(cube -> cube.relayout(CubeFrames.Y_ANTI_CLOCKWISE));
+        ROTATION_SOURCE[CubeFrames.Z_CLOCKWISE] = probe(cube -> cube.relayout(CubeFrames.Z_CLOCKWISE));
+        ROTATION_SOURCE[CubeFrames.Z_ANTI_CLOCKWISE] = probe(cube -> cube.relayout(CubeFrames.Z_ANTI_CLOCKWISE));
+
+        for(int frame=0; frame<CubeFrames.COUNT; frame++) {
+            FRAME_SOURCE[frame] = identity();
+            for(byte rotation : CubeFrames.PATH[frame]) {
+                FRAME_SOURCE[frame] = compose(FRAME_SOURCE[frame], ROTATION_SOURCE[rotation]);
+            }
+            for(int i=0; i<CubeLayout.FACELETS; i++) {
+                FRAME_TARGET[frame][FRAME_SOURCE[frame][i]] = (byte) i;
+            }
+        }
+
+        //Only the front side can be turned by the cube model, other sides are turned by bringing them to front.
+        byte[] front = probe(cube -> cube.frontSide.rotateSideClockwise());
+        byte[][] toFront = {
+            {},
+            {CubeFrames.X_CLOCKWISE},
+            {CubeFrames.X_ANTI_CLOCKWISE},
+            {CubeFrames.Y_CLOCKWISE},
+            {CubeFrames.Y_ANTI_CLOCKWISE},
+            {CubeFrames.X_CLOCKWISE, CubeFrames.X_CLOCKWISE}
+        };
+        for(int side=0; side<6; side++) {
+            byte[] turn = identity();
+            for(byte rotation : toFront[side]) {
+                turn = compose(turn, ROTATION_SOURCE[rotation]);
+            }
+            turn = compose(turn, front);
+            for(int i=toFront[side].length-1; i>=0; i--) {
+                turn = compose(turn, ROTATION_SOURCE[toFront[side][i] ^ 1]);
+            }
+            FACELET_SOURCE[side*3] = turn;
+            FACELET_SOURCE[side*3 + 1] = compose(turn, turn);
+            FACELET_SOURCE[side*3 + 2] = compose(FACELET_SOURCE[side*3 + 1], turn);
+        }
+
+        int[][] slices = {
+            {CubeLayout.RIGHT, CubeLayout.LEFT, CubeFrames.Y_CLOCKWISE},
+            {CubeLayout.UP, CubeLayout.DOWN, CubeFrames.X_ANTI_CLOCKWISE},
+            {CubeLayout.BACK, CubeLayout.FRONT, CubeFrames.Z_CLOCKWISE}
+        };
+        for(int slice=0; slice<3; slice++) {
+            for(int power=1; power<=3; power++) {
+                byte[] turns = SLICE_TURNS[slice*3 + power - 1];
+                turns[0] = (byte) (slices[slice][0]*3 + power - 1);
+                turns[1] = (byte) (slices[slice][1]*3 + 3 - power);
+                turns[2] = (byte) slices[slice][2];
+
+                byte[] turn = compose(FACELET_SOURCE[turns[0]], FACELET_SOURCE[turns[1]]);
+                for(int i=0; i<power; i++) {
+                    turn = compose(turn, ROTATION_SOURCE[turns[2]]);
+                }
+                FACELET_SOURCE[Move.SIDE_TURNS + slice*3 + power - 1] = turn;
+            }
+        }
+
+        for(int move=0; move<Move.COUNT; move++) {
+            byte[] source = FACELET_SOURCE[move];
+            int count = 0;
+            for(int i=0; i<CubeLayout.FACELETS; i++) {
+                if(source[i] != i) {
+                    count++;
+                }
+            }
+            MOVED_FACELETS[move] = new byte[count];
+            MOVED_SOURCES[move] = new byte[count];
+            count = 0;
+            for(int i=0; i<CubeLayout.FACELETS; i++) {
+                if(source[i] != i) {
+                    MOVED_FACELETS[move][count] = (byte) i;
+                    MOVED_SOURCES[move][count++] = source[i];
+                }
+            }
+        }
+
+        byte[] solved = new byte[CubeLayout.FACELETS];
+        byte[] turned = new byte[CubeLayout.FACELETS];
+        new PackedCube().getFacelets(solved);
+        PackedCube cube = new PackedCube();
+        for(int move=0; move<Move.SIDE_TURNS; move++) {
+            for(int i=0; i<CubeLayout.FACELETS; i++) {
+                turned[i] = solved[FACELET_SOURCE[move][i]];
+            }
+            cube.setFacelets(turned);
+            for(int slot=0; slot<CubeLayout.CORNERS; slot++) {
+                int value = (int) (cube.getCorners() >>> (5*slot)) & 31;
+                CORNER_PERM[move][slot] = (byte) (value & 7);
+                CORNER_TWIST[move][slot] = (byte) (value >>> 3);
+            }
+            for(int slot=0; slot<CubeLayout.EDGES; slot++) {
+                int value = (int) (cube.getEdges() >>> (5*slot)) & 31;
+                EDGE_PERM[move][slot] = (byte) (value & 15);
+                EDGE_FLIP[move][slot] = (byte) (value >>> 4);
+            }
+        }
+    }
+
+    private MoveTables() {
+    }
+
+    /**
+     * Runs operation on a cube whose facelets carry their own index, written in base 6 over three passes,
+     * and returns where every facelet was taken from.
+     */
+    private static byte[] probe(Consumer<RubiksCube> operation) {
+        int sources[] = new int[CubeLayout.FACELETS];
+        byte facelets[] = new byte[CubeLayout.FACELETS];
+
+        for(int digit=0, weight=1; digit<3; digit++, weight*=6) {
+            RubiksCube cube = new RubiksCube();
+            for(int location=0; location<6; location++) {
+                Color[][] data = cube.sideAt(location).data;
+                for(int i=0; i<3; i++) {
+                    for(int j=0; j<3; j++) {
+                        data[i][j] = CubeLayout.COLORS[(location*9 + i*3 + j) / weight % 6];
+                    }
+                }
+            }
+            operation.accept(cube);
+            cube.getFacelets(facelets);
+            for(int i=0; i<CubeLayout.FACELETS; i++) {
+                sources[i] += facelets[i] * weight;
+            }
+        }
+
+        byte result[] = new byte[CubeLayout.FACELETS];
+        long seen = 0;
+        for(int i=0; i<CubeLayout.FACELETS; i++) {
+            result[i] = (byte) sources[i];
+            seen |= 1L << sources[i];
+        }
+        if(seen != (1L << CubeLayout.FACELETS) - 1) {
+            throw new IllegalStateException("Cube operation does not permute facelets");
+        }
+        return result;
+    }
+
+    static byte[] identity() {
+        byte result[] = new byte[CubeLayout.FACELETS];
+        for(int i=0; i<CubeLayout.FACELETS; i++) {
+            result[i] = (byte) i;
+        }
+        return result;
+    }
+
+    /**
+     * Returns gather of applying 'first' and then 'second'.
+     */
+    static byte[] compose(byte[] first, byte[] second) {
+        byte result[] = new byte[first.length];
+        for(int i=0; i<first.length; i++) {
+            result[i] = first[second[i]];
+        }
+        return result;
+    }
+}
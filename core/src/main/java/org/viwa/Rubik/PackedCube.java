@@ -0,0 +1,764 @@
+package org.viwa.Rubik;
+import static org.viwa.Rubik.CubePiece.Color;
+
+import org.viwa.Rubik.RubiksCube.CubeSideLocation;
+
+/**
+ * Compact representation of a full 3x3 Rubik's Cube held in two longs.
+ *
+ * Every corner slot is 5 bits (orientation * 8 + corner) and every edge slot is 5 bits
+ * (orientation * 16 + edge), see {@link CubeLayout} for the slot order. Pieces are stored with respect to
+ * the reference orientation (White front, Blue up), the orientation the cube is currently held in is one of
+ * the 24 frames of {@link CubeFrames} and is kept in the upper bits of the corners word.
+ * So a whole cube rotation only updates the frame, and a side turn is a gather of slots through {@link MoveTables}.
+ *
+ * @author Vishal Wakchaure
+ */
+public final class PackedCube {
+
+    static final int FRAME_SHIFT = 40;
+    private static final long CORNER_MASK = (1L << FRAME_SHIFT) - 1;
+
+    static final long SOLVED_CORNERS;
+    static final long SOLVED_EDGES;
+
+    static {
+        long corners = 0;
+        for(int slot=0; slot<CubeLayout.CORNERS; slot++) {
+            corners |= (long) slot << (5*slot);
+        }
+        long edges = 0;
+        for(int slot=0; slot<CubeLayout.EDGES; slot++) {
+            edges |= (long) slot << (5*slot);
+        }
+        SOLVED_CORNERS = corners;
+        SOLVED_EDGES = edges;
+    }
+
+    private long corners;
+    private long edges;
+
+    /**
+     * Constructs a solved cube held with WHITE side in front, like {@link RubiksCube#RubiksCube()}.
+     */
+    public PackedCube() {
+        this.corners = SOLVED_CORNERS;
+        this.edges = SOLVED_EDGES;
+    }
+
+    /**
+     * Constructs a solved cube held with specified color in front, like {@link RubiksCube#RubiksCube(Color)}.
+     *
+     * @param color
+     */
+    public PackedCube(Color color) {
+        this();
+        rotateToSide(color);
+    }
+
+    /**
+     * Constructs a cube from its packed words, as returned by {@link #getCorners()} and {@link #getEdges()}.
+     *
+     * @param corners
+     * @param edges
+     */
+    public PackedCube(long corners, long edges) {
+        this.corners = corners;
+        this.edges = edges;
+    }
+
+    /**
+     * Constructs a copy of given cube.
+     *
+     * @param cube
+     */
+    public PackedCube(PackedCube cube) {
+        this(cube.corners, cube.edges);
+    }
+
+    /**
+     * Returns packed state of the given Rubik's Cube.
+     *
+     * @param cube
+     * @return
+     */
+    public static PackedCube of(RubiksCube cube) {
+        byte[] facelets = new byte[CubeLayout.FACELETS];
+        cube.getFacelets(facelets);
+        PackedCube packed = new PackedCube();
+        packed.setFacelets(facelets);
+        return packed;
+    }
+
+    /**
+     * Returns a new Rubik's Cube in the state of this cube.
+     *
+     * @return
+     */
+    public RubiksCube toRubiksCube() {
+        RubiksCube cube = new RubiksCube();
+        copyTo(cube);
+        return cube;
+    }
+
+    /**
+     * Sets given Rubik's Cube to the state of this cube.
+     *
+     * @param cube
+     */
+    public void copyTo(RubiksCube cube) {
+        byte[] facelets = new byte[CubeLayout.FACELETS];
+        getFacelets(facelets);
+        cube.setFacelets(facelets);
+    }
+
+    /**
+     * Returns corners word, corner slots in the lower 40 bits and the frame above them.
+     *
+     * @return
+     */
+    public long getCorners() {
+        return corners;
+    }
+
+    /**
+     * Returns edges word, edge slots in the lower 60 bits.
+     *
+     * @return
+     */
+    public long getEdges() {
+        return edges;
+    }
+
+    /**
+     * Sets this cube to given packed words.
+     *
+     * @param corners
+     * @param edges
+     */
+    public void set(long corners, long edges) {
+        this.corners = corners;
+        this.edges = edges;
+    }
+
+    /**
+     * Returns the frame (0 - 23) this cube is currently held in.
+     *
+     * @return
+     */
+    int getFrame() {
+        return (int) (corners >>> FRAME_SHIFT);
+    }
+
+    void setFrame(int frame) {
+        corners = corners & CORNER_MASK | (long) frame << FRAME_SHIFT;
+    }
+
+    /**
+     * Returns location of the side of specified color.
+     *
+     * @param color
+     * @return
+     */
+    public CubeSideLocation getSideLocation(Color color) {
+        return CubeSideLocation.values()[CubeFrames.LOCATION_OF[getFrame()][CubeLayout.REFERENCE_LOCATION[color.ordinal()]]];
+    }
+
+    /**
+     * Returns color of the side at specified location.
+     *
+     * @param location
+     * @return
+     */
+    public Color getSideColor(CubeSideLocation location) {
+        return CubeLayout.REFERENCE_COLOR[CubeFrames.FACE_AT[getFrame()][location.ordinal()]];
+    }
+
+    /**
+     * Applies given move to the cube as it is currently held.
+     *
+     * @param move
+     */
+    public void applyMove(Move move) {
+        int frame = getFrame();
+        if(move.isSlice()) {
+            byte[] turns = MoveTables.SLICE_TURNS[move.ordinal() - Move.SIDE_TURNS];
+            turn(CubeFrames.FACE_AT[frame][turns[0] / 3]*3 + turns[0] % 3);
+            turn(CubeFrames.FACE_AT[frame][turns[1] / 3]*3 + turns[1] % 3);
+            rotate(turns[2], move.getPower());
+        } else {
+            turn(CubeFrames.FACE_AT[frame][move.getLayer()]*3 + move.ordinal() % 3);
+        }
+    }
+
+    /**
+     * Applies a compiled move sequence to the cube as it is currently held, at the cost of a single move.
+     *
+     * @param sequence
+     */
+    public void applySequence(CompiledSequence sequence) {
+        int frame = getFrame();
+        corners = permuteCorners(corners, sequence.cornerPerm[frame], sequence.cornerTwist[frame]);
+        edges = permuteEdges(edges, sequence.edgePerm[frame], sequence.edgeFlip[frame]);
+        setFrame(sequence.endFrame[frame]);
+    }
+
+    /**
+     * Rotates cube's current front side clockwise.
+     */
+    public void rotateFrontSideClockwise() {
+        applyMove(Move.F);
+    }
+
+    /**
+     * Rotates cube's current front side clockwise 'n' times.
+     *
+     * @param count number of rotations
+     */
+    public void rotateFrontSideClockwise(int count) {
+        if(count > 0 && (count & 3) != 0) {
+            applyMove(Move.of(CubeLayout.FRONT, count & 3));
+        }
+    }
+
+    /**
+     * Rotates cube's current front side anti clockwise.
+     */
+    public void rotateFrontSideAntiClockwise() {
+        applyMove(Move.F_PRIME);
+    }
+
+    /**
+     * Rotates cube's current right side clockwise.
+     */
+    public void rotateRightSideClockwise() {
+        applyMove(Move.R);
+    }
+
+    /**
+     * Rotates cube's current right side clockwise 'n' times.
+     *
+     * @param count number of rotations
+     */
+    public void rotateRightSideClockwise(int count) {
+        if(count > 0 && (count & 3) != 0) {
+            applyMove(Move.of(Move.R.getLayer(), count & 3));
+        }
+    }
+
+    /**
+     * Rotates cube's current right side anti clockwise.
+     */
+    public void rotateRightSideAntiClockwise() {
+        applyMove(Move.R_PRIME);
+    }
+
+    /**
+     * Rotates cube's current left side clockwise.
+     */
+    public void rotateLeftSideClockwise() {
+        applyMove(Move.L);
+    }
+
+    /**
+     * Rotates cube's current left side clockwise 'n' times.
+     *
+     * @param count number of rotations
+     */
+    public void rotateLeftSideClockwise(int count) {
+        if(count > 0 && (count & 3) != 0) {
+            applyMove(Move.of(Move.L.getLayer(), count & 3));
+        }
+    }
+
+    /**
+     * Rotates cube's current left side anti clockwise.
+     */
+    public void rotateLeftSideAntiClockwise() {
+        applyMove(Move.L_PRIME);
+    }
+
+    /**
+     * Rotates cube's current up side clockwise.
+     */
+    public void rotateUpSideClockwise() {
+        applyMove(Move.U);
+    }
+
+    /**
+     * Rotates cube's current up side clockwise 'n' times.
+     *
+     * @param count number of rotations
+     */
+    public void rotateUpSideClockwise(int count) {
+        if(count > 0 && (count & 3) != 0) {
+            applyMove(Move.of(Move.U.getLayer(), count & 3));
+        }
+    }
+
+    /**
+     * Rotates cube's current up side anti clockwise.
+     */
+    public void rotateUpSideAntiClockwise() {
+        applyMove(Move.U_PRIME);
+    }
+
+    /**
+     * Rotates cube's current down side clockwise.
+     */
+    public void rotateDownSideClockwise() {
+        applyMove(Move.D);
+    }
+
+    /**
+     * Rotates cube's current down side clockwise 'n' times.
+     *
+     * @param count number of rotations
+     */
+    public void rotateDownSideClockwise(int count) {
+        if(count > 0 && (count & 3) != 0) {
+            applyMove(Move.of(Move.D.getLayer(), count & 3));
+        }
+    }
+
+    /**
+     * Rotates cube's current down side anti clockwise.
+     */
+    public void rotateDownSideAntiClockwise() {
+        applyMove(Move.D_PRIME);
+    }
+
+    /**
+     * Rotates cube's current back side clockwise.
+     */
+    public void rotateBackSideClockwise() {
+        applyMove(Move.B);
+    }
+
+    /**
+     * Rotates cube's current back side clockwise 'n' times.
+     *
+     * @param count number of rotations
+     */
+    public void rotateBackSideClockwise(int count) {
+        if(count > 0 && (count & 3) != 0) {
+            applyMove(Move.of(Move.B.getLayer(), count & 3));
+        }
+    }
+
+    /**
+     * Rotates cube's current back side anti clockwise.
+     */
+    public void rotateBackSideAntiClockwise() {
+        applyMove(Move.B_PRIME);
+    }
+
+    /**
+     * Rotates cube's current middle slice (between right and left side, turning the way left side does) clockwise.
+     */
+    public void rotateMiddleSliceClockwise() {
+        applyMove(Move.M);
+    }
+
+    /**
+     * Rotates cube's current middle slice (between right and left side, turning the way left side does) clockwise 'n' times.
+     *
+     * @param count number of rotations
+     */
+    public void rotateMiddleSliceClockwise(int count) {
+        if(count > 0 && (count & 3) != 0) {
+            applyMove(Move.of(Move.M.getLayer(), count & 3));
+        }
+    }
+
+    /**
+     * Rotates cube's current middle slice (between right and left side, turning the way left side does) anti clockwise.
+     */
+    public void rotateMiddleSliceAntiClockwise() {
+        applyMove(Move.M_PRIME);
+    }
+
+    /**
+     * Rotates cube's current equator slice (between up and down side, turning the way down side does) clockwise.
+     */
+    public void rotateEquatorSliceClockwise() {
+        applyMove(Move.E);
+    }
+
+    /**
+     * Rotates cube's current equator slice (between up and down side, turning the way down side does) clockwise 'n' times.
+     *
+     * @param count number of rotations
+     */
+    public void rotateEquatorSliceClockwise(int count) {
+        if(count > 0 && (count & 3) != 0) {
+            applyMove(Move.of(Move.E.getLayer(), count & 3));
+        }
+    }
+
+    /**
+     * Rotates cube's current equator slice (between up and down side, turning the way down side does) anti clockwise.
+     */
+    public void rotateEquatorSliceAntiClockwise() {
+        applyMove(Move.E_PRIME);
+    }
+
+    /**
+     * Rotates cube's current standing slice (between front and back side, turning the way front side does) clockwise.
+     */
+    public void rotateStandingSliceClockwise() {
+        applyMove(Move.S);
+    }
+
+    /**
+     * Rotates cube's current standing slice (between front and back side, turning the way front side does) clockwise 'n' times.
+     *
+     * @param count number of rotations
+     */
+    public void rotateStandingSliceClockwise(int count) {
+        if(count > 0 && (count & 3) != 0) {
+            applyMove(Move.of(Move.S.getLayer(), count & 3));
+        }
+    }
+
+    /**
+     * Rotates cube's current standing slice (between front and back side, turning the way front side does) anti clockwise.
+     */
+    public void rotateStandingSliceAntiClockwise() {
+        applyMove(Move.S_PRIME);
+    }
+
+    /**
+     * Rotates cube clockwise on X axies (Rotation with respect to cube's Top side).
+     */
+    public void rotateCubeXClockwise() {
+        rotate(CubeFrames.X_CLOCKWISE, 1);
+    }
+
+    /**
+     * Rotates cube clockwise on X axies, 'n' times.
+     *
+     * @param count number of rotations.
+     */
+    public void rotateCubeXClockwise(int count) {
+        rotate(CubeFrames.X_CLOCKWISE, count);
+    }
+
+    /**
+     * Rotates cube anti clockwise on X axies (Rotation with respect to cube's Top side).
+     */
+    public void rotateCubeXAntiClockwise() {
+        rotate(CubeFrames.X_ANTI_CLOCKWISE, 1);
+    }
+
+    /**
+     * Rotates cube anti clockwise on X axies, 'n' times.
+     *
+     * @param count number of rotations
+     */
+    public void rotateCubeXAntiClockwise(int count) {
+        rotate(CubeFrames.X_ANTI_CLOCKWISE, count);
+    }
+
+    /**
+     * Rotates cube clockwise on Y Axies (Rotation with respect to cube's left side).
+     */
+    public void rotateCubeYClockwise() {
+        rotate(CubeFrames.Y_CLOCKWISE, 1);
+    }
+
+    /**
+     * Rotates cube clockwise on Y Axies, 'n' times.
+     *
+     * @param count number of rotations.
+     */
+    public void rotateCubeYClockwise(int count) {
+        rotate(CubeFrames.Y_CLOCKWISE, count);
+    }
+
+    /**
+     * Rotates cube anti clockwise on Y Axies (Rotation with respect to cube's left side).
+     */
+    public void rotateCubeYAntiClockwise() {
+        rotate(CubeFrames.Y_ANTI_CLOCKWISE, 1);
+    }
+
+    /**
+     * Rotates cube anti clockwise on Y Axies, 'n' times.
+     *
+     * @param count Number of times.
+     */
+    public void rotateCubeYAntiClockwise(int count) {
+        rotate(CubeFrames.Y_ANTI_CLOCKWISE, count);
+    }
+
+    /**
+     * Rotates cube clockwise on Z Axies (Rotation with respect to cube's front side).
+     */
+    public void rotateCubeZClockwise() {
+        rotate(CubeFrames.Z_CLOCKWISE, 1);
+    }
+
+    /**
+     * Rotates cube clockwise on Z Axies, 'n' times.
+     *
+     * @param count number of rotations.
+     */
+    public void rotateCubeZClockwise(int count) {
+        rotate(CubeFrames.Z_CLOCKWISE, count);
+    }
+
+    /**
+     * Rotates cube anti clockwise on Z Axies (Rotation with respect to cube's front side).
+     */
+    public void rotateCubeZAntiClockwise() {
+        rotate(CubeFrames.Z_ANTI_CLOCKWISE, 1);
+    }
+
+    /**
+     * Rotates cube anti clockwise on Z Axies, 'n' times.
+     *
+     * @param count number of rotations.
+     */
+    public void rotateCubeZAntiClockwise(int count) {
+        rotate(CubeFrames.Z_ANTI_CLOCKWISE, count);
+    }
+
+    /**
+     * Rotates the cube so that side of specified color is in front, the same way {@link RubiksCube#rotateToSide(Color)} does.
+     *
+     * @param color
+     */
+    public void rotateToSide(Color color) {
+        switch(getSideLocation(color)) {
+            case RIGHT:
+                rotateCubeXClockwise();
+                break;
+            case LEFT:
+                rotateCubeXAntiClockwise();
+                break;
+            case UP:
+                rotateCubeYClockwise();
+                break;
+            case DOWN:
+                rotateCubeYAntiClockwise();
+                break;
+            case BACK:
+                rotateCubeXClockwise(2);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Returns true if every side of this cube shows a single color.
+     *
+     * @return
+     */
+    public boolean isSolved() {
+        return (corners & CORNER_MASK) == SOLVED_CORNERS && edges == SOLVED_EDGES;
+    }
+
+    /**
+     * Returns a copy of this cube recolored as if it were held in the reference orientation, every side taking
+     * the reference color of the location it is at. A move turns the same pieces of both cubes, so the returned
+     * cube, always in the reference frame, is what solvers work on.
+     *
+     * @return
+     */
+    public PackedCube toReferenceOrientation() {
+        byte[] facelets = new byte[CubeLayout.FACELETS];
+        getFacelets(facelets);
+        byte[] recolor = new byte[6];
+        for(int location=0; location<6; location++) {
+            recolor[facelets[location*9 + 4]] = (byte) CubeLayout.REFERENCE_COLOR[location].ordinal();
+        }
+        for(int i=0; i<CubeLayout.FACELETS; i++) {
+            facelets[i] = recolor[facelets[i]];
+        }
+        PackedCube cube = new PackedCube();
+        cube.setFacelets(facelets);
+        return cube;
+    }
+
+    /**
+     * Returns 64 bit hash of this cube, a mix of both packed words.
+     *
+     * @return
+     */
+    public long hash64() {
+        return Zobrist.mix(corners ^ Zobrist.mix(edges));
+    }
+
+    public int hashCode() {
+        long hash = hash64();
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    /**
+     * Returns true if given object is a packed cube in the same state, held the same way.
+     */
+    public boolean equals(Object object) {
+        if(!(object instanceof PackedCube)) {
+            return false;
+        }
+        PackedCube cube = (PackedCube) object;
+        return corners == cube.corners && edges == cube.edges;
+    }
+
+    /**
+     * Rotates the whole cube 'count' times, nothing for a count below 1.
+     *
+     * @param rotation rotation of CubeFrames.
+     * @param count
+     */
+    void rotate(int rotation, int count) {
+        if(count > 0 && (count & 3) != 0) {
+            int frame = getFrame();
+            for(int i=0; i<(count & 3); i++) {
+                frame = CubeFrames.ROTATE[frame][rotation];
+            }
+            setFrame(frame);
+        }
+    }
+
+    /**
+     * Applies a side turn of the reference orientation.
+     *
+     * @param move Move ordinal of a side turn.
+     */
+    private void turn(int move) {
+        corners = permuteCorners(corners, MoveTables.CORNER_PERM[move], MoveTables.CORNER_TWIST[move]);
+        edges = permuteEdges(edges, MoveTables.EDGE_PERM[move], MoveTables.EDGE_FLIP[move]);
+    }
+
+    private static long permuteCorners(long corners, byte[] perm, byte[] twist) {
+        long result = corners & ~CORNER_MASK;
+        for(int slot=0; slot<CubeLayout.CORNERS; slot++) {
+            int value = (int) (corners >>> (5*perm[slot])) & 31;
+            int orientation = (value >>> 3) + twist[slot];
+            if(orientation >= 3) {
+                orientation -= 3;
+            }
+            result |= (long) (orientation << 3 | value & 7) << (5*slot);
+        }
+        return result;
+    }
+
+    private static long permuteEdges(long edges, byte[] perm, byte[] flip) {
+        long result = 0;
+        for(int slot=0; slot<CubeLayout.EDGES; slot++) {
+            long value = (edges >>> (5*perm[slot])) & 31;
+            result |= (value ^ flip[slot] << 4) << (5*slot);
+        }
+        return result;
+    }
+
+    /**
+     * Writes colors of all 54 facelets of this cube, as Color ordinals in the facelet order of {@link CubeLayout}.
+     *
+     * @param facelets
+     */
+    public void getFacelets(byte[] facelets) {
+        int frame = getFrame();
+        byte[] locationOf = CubeFrames.LOCATION_OF[frame];
+
+        for(int location=0; location<6; location++) {
+            facelets[location*9 + 4] = (byte) CubeLayout.REFERENCE_COLOR[CubeFrames.FACE_AT[frame][location]].ordinal();
+        }
+
+        for(int slot=0; slot<CubeLayout.CORNERS; slot++) {
+            int value = (int) (corners >>> (5*slot)) & 31;
+            byte[] pieceFacelets = CubeLayout.CORNER_FACELETS[value & 7];
+            int orientation = value >>> 3;
+            byte[] slotFacelets = CubeLayout.CORNER_FACELETS[slot];
+            int a = locationOf[slotFacelets[0] / 9];
+            int b = locationOf[slotFacelets[1] / 9];
+            int c = locationOf[slotFacelets[2] / 9];
+            facelets[CubeLayout.CORNER_STICKER[a*36 + b*6 + c]] = cornerColor(pieceFacelets, 3 - orientation);
+            facelets[CubeLayout.CORNER_STICKER[b*36 + c*6 + a]] = cornerColor(pieceFacelets, 4 - orientation);
+            facelets[CubeLayout.CORNER_STICKER[c*36 + a*6 + b]] = cornerColor(pieceFacelets, 5 - orientation);
+        }
+
+        for(int slot=0; slot<CubeLayout.EDGES; slot++) {
+            int value = (int) (edges >>> (5*slot)) & 31;
+            byte[] pieceFacelets = CubeLayout.EDGE_FACELETS[value & 15];
+            int orientation = value >>> 4;
+            byte[] slotFacelets = CubeLayout.EDGE_FACELETS[slot];
+            int a = locationOf[slotFacelets[0] / 9];
+            int b = locationOf[slotFacelets[1] / 9];
+            facelets[CubeLayout.EDGE_STICKER[a*6 + b]] = (byte) CubeLayout.REFERENCE_COLOR[pieceFacelets[orientation] / 9].ordinal();
+            facelets[CubeLayout.EDGE_STICKER[b*6 + a]] = (byte) CubeLayout.REFERENCE_COLOR[pieceFacelets[1 - orientation] / 9].ordinal();
+        }
+    }
+
+    /**
+     * Sets this cube from colors of all 54 facelets, as Color ordinals in the facelet order of {@link CubeLayout}.
+     *
+     * @param facelets
+     * @throws IllegalArgumentException if facelets do not describe pieces of a cube, or show a piece twice.
+     */
+    public void setFacelets(byte[] facelets) {
+        int frame = CubeFrames.of(CubeLayout.REFERENCE_LOCATION[facelets[CubeLayout.FRONT*9 + 4]],
+            CubeLayout.REFERENCE_LOCATION[facelets[CubeLayout.UP*9 + 4]]);
+        if(frame < 0) {
+            throw new IllegalArgumentException("Center facelets do not belong to a cube");
+        }
+        byte[] locationOf = CubeFrames.LOCATION_OF[frame];
+
+        //Every piece must be there once, pieces seen so far a bit each.
+        int seen = 0;
+        long corners = (long) frame << FRAME_SHIFT;
+        for(int slot=0; slot<CubeLayout.CORNERS; slot++) {
+            byte[] slotFacelets = CubeLayout.CORNER_FACELETS[slot];
+            int a = locationOf[slotFacelets[0] / 9];
+            int b = locationOf[slotFacelets[1] / 9];
+            int c = locationOf[slotFacelets[2] / 9];
+            int face0 = CubeLayout.REFERENCE_LOCATION[facelets[CubeLayout.CORNER_STICKER[a*36 + b*6 + c]]];
+            int face1 = CubeLayout.REFERENCE_LOCATION[facelets[CubeLayout.CORNER_STICKER[b*36 + c*6 + a]]];
+            int face2 = CubeLayout.REFERENCE_LOCATION[facelets[CubeLayout.CORNER_STICKER[c*36 + a*6 + b]]];
+            int corner = CubeLayout.CORNER_BY_MASK[1 << face0 | 1 << face1 | 1 << face2];
+            if(corner < 0) {
+                throw new IllegalArgumentException("Corner facelets do not belong to a corner piece");
+            }
+            if((seen & 1 << corner) != 0) {
+                throw new IllegalArgumentException("Corner piece is on the cube twice");
+            }
+            seen |= 1 << corner;
+            int orientation = isUpOrDown(face0) ? 0 : isUpOrDown(face1) ? 1 : 2;
+            corners |= (long) (orientation << 3 | corner) << (5*slot);
+        }
+
+        seen = 0;
+        long edges = 0;
+        for(int slot=0; slot<CubeLayout.EDGES; slot++) {
+            byte[] slotFacelets = CubeLayout.EDGE_FACELETS[slot];
+            int a = locationOf[slotFacelets[0] / 9];
+            int b = locationOf[slotFacelets[1] / 9];
+            int face0 = CubeLayout.REFERENCE_LOCATION[facelets[CubeLayout.EDGE_STICKER[a*6 + b]]];
+            int face1 = CubeLayout.REFERENCE_LOCATION[facelets[CubeLayout.EDGE_STICKER[b*6 + a]]];
+            int edge = CubeLayout.EDGE_BY_MASK[1 << face0 | 1 << face1];
+            if(edge < 0) {
+                throw new IllegalArgumentException("Edge facelets do not belong to an edge piece");
+            }
+            if((seen & 1 << edge) != 0) {
+                throw new IllegalArgumentException("Edge piece is on the cube twice");
+            }
+            seen |= 1 << edge;
+            int orientation = face0 == CubeLayout.EDGE_FACELETS[edge][0] / 9 ? 0 : 1;
+            edges |= (long) (orientation << 4 | edge) << (5*slot);
+        }
+
+        this.corners = corners;
+        this.edges = edges;
+    }
+
+    private static byte cornerColor(byte[] pieceFacelets, int index) {
+        return (byte) CubeLayout.REFERENCE_COLOR[pieceFacelets[index % 3] / 9].ordinal();
+    }
+
+    private static boolean isUpOrDown(int location) {
+        return location == CubeLayout.UP || location == CubeLayout.DOWN;
+    }
+}
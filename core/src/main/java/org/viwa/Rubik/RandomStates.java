@@ -0,0 +1,125 @@
+package org.viwa.Rubik;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Samples cube states uniformly from all reachable states.
+ *
+ * Instead of turning a solved cube, corners and edges are shuffled and oriented at random directly.
+ * A state is reachable when corner and edge permutations have the same parity, corner twists add up to a multiple
+ * of 3 and edge flips add up to a multiple of 2, so the last edge swap and the last orientations are fixed up
+ * to satisfy them. Every reachable state comes out with the same probability.
+ *
+ * A SplittableRandom must not be shared by threads, every worker should use its own, split from a common one.
+ *
+ * @author Vishal Wakchaure
+ */
+public final class RandomStates {
+
+    //Number of corner twists and edge flips of the freely chosen pieces, 3^7 and 2^11.
+    private static final int TWISTS = 2187;
+    private static final int FLIPS = 2048;
+
+    //Number of states filled by one parallel task of bulk sampling.
+    private static final int CHUNK = 4096;
+
+    private RandomStates() {
+    }
+
+    /**
+     * Returns a new cube in a uniformly random state, held with WHITE side in front.
+     *
+     * @param random
+     * @return
+     */
+    public static PackedCube randomState(SplittableRandom random) {
+        PackedCube cube = new PackedCube();
+        randomState(random, cube);
+        return cube;
+    }
+
+    /**
+     * Sets given cube to a uniformly random state, held with WHITE side in front.
+     *
+     * @param random
+     * @param cube
+     */
+    public static void randomState(SplittableRandom random, PackedCube cube) {
+        int parity = 0;
+
+        //Fisher-Yates shuffles of the solved words, swapping slots in place.
+        long corners = PackedCube.SOLVED_CORNERS;
+        for(int i=CubeLayout.CORNERS-1; i>0; i--) {
+            int j = random.nextInt(i + 1);
+            if(j != i) {
+                corners = swap(corners, i, j);
+                parity ^= 1;
+            }
+        }
+        long edges = PackedCube.SOLVED_EDGES;
+        for(int i=CubeLayout.EDGES-1; i>0; i--) {
+            int j = random.nextInt(i + 1);
+            if(j != i) {
+                edges = swap(edges, i, j);
+                parity ^= 1;
+            }
+        }
+        //Swapping two fixed slots maps odd permutations one to one onto even ones.
+        if(parity != 0) {
+            edges = swap(edges, CubeLayout.EDGES-2, CubeLayout.EDGES-1);
+        }
+
+        int twists = random.nextInt(TWISTS);
+        int sum = 0;
+        for(int slot=0; slot<CubeLayout.CORNERS-1; slot++) {
+            int twist = twists % 3;
+            twists /= 3;
+            sum += twist;
+            corners |= (long) twist << (5*slot + 3);
+        }
+        corners |= (long) ((3 - sum % 3) % 3) << (5*(CubeLayout.CORNERS-1) + 3);
+
+        int flips = random.nextInt(FLIPS);
+        for(int slot=0; slot<CubeLayout.EDGES-1; slot++) {
+            edges |= (long) (flips >>> slot & 1) << (5*slot + 4);
+        }
+        edges |= (long) (Integer.bitCount(flips) & 1) << (5*(CubeLayout.EDGES-1) + 4);
+
+        cube.set(corners, edges);
+    }
+
+    /**
+     * Fills states with 'count' uniformly random states, corners and edges words of state i at 2i and 2i + 1.
+     * Work is split over the common ForkJoinPool, and the result only depends on seed and count, not on threads.
+     *
+     * @param seed
+     * @param count number of states.
+     * @param states at least 2 * count longs.
+     */
+    public static void randomStates(long seed, int count, long[] states) {
+        int chunks = (count + CHUNK - 1) / CHUNK;
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom randoms[] = new SplittableRandom[chunks];
+        for(int i=0; i<chunks; i++) {
+            randoms[i] = root.split();
+        }
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            SplittableRandom random = randoms[chunk];
+            PackedCube cube = new PackedCube();
+            int end = Math.min(count, (chunk + 1) * CHUNK);
+            for(int i=chunk*CHUNK; i<end; i++) {
+                randomState(random, cube);
+                states[2*i] = cube.getCorners();
+                states[2*i + 1] = cube.getEdges();
+            }
+        });
+    }
+
+    private static long swap(long word, int i, int j) {
+        long a = word >>> (5*i) & 31;
+        long b = word >>> (5*j) & 31;
+        word &= ~(31L << (5*i) | 31L << (5*j));
+        return word | a << (5*j) | b << (5*i);
+    }
+}
@@ -0,0 +1,1226 @@
+package org.viwa.Rubik;
+import static org.viwa.Rubik.CubePiece.Color;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * This class represents a full 3x3 Rubik's Cube, which has 6 sides, and pieces.
+ * @author Vishal Wakchaure
+ */
+public class RubiksCube {
+    //6 sides of the Cube.
+    protected CubeSide frontSide;
+    protected CubeSide rightSide;
+    protected CubeSide leftSide;
+    protected CubeSide upSide;
+    protected CubeSide downSide;
+    protected CubeSide backSide;
+    
+    //Sides by the location of their fields, and location of the side of each color (by Color ordinal).
+    private final CubeSide sides[] = new CubeSide[6];
+    private final byte locations[] = new byte[6];
+
+    //Frame (of CubeFrames) the cube is held in, relative to the locations of the side fields.
+    private byte frame = CubeFrames.IDENTITY;
+
+    //64 bit hash of the facelets as the cube is held (see Zobrist), kept up to date by turns while valid.
+    //Rotations and direct changes to sides make it invalid, it is computed again when asked for.
+    private long hash;
+    private boolean hashValid;
+
+    //False if only facelet colors are kept, pieces are then derived from them when asked for.
+    private final boolean trackPieces;
+
+    //Piece index: sticker (see CubeLayout.STICKER) on each physical facelet and physical facelet of each sticker,
+    //-1 for stickers not on the cube. Kept up to date by turns while valid, direct changes to sides make it invalid.
+    private final byte stickers[] = new byte[CubeLayout.FACELETS];
+    private final byte stickerFacelets[] = new byte[CubeLayout.FACELETS];
+    private boolean indexValid;
+
+    //Facelets, pieces and stickers being moved by a turn.
+    private final Color colorBuffer[] = new Color[CubeLayout.FACELETS];
+    private final CubePiece pieceBuffer[] = new CubePiece[CubeLayout.FACELETS];
+    private final byte stickerBuffer[] = new byte[CubeLayout.FACELETS];
+    
+    //Enum representing a Cube Side's location
+    public enum CubeSideLocation {
+        FRONT, RIGHT, LEFT, UP, DOWN, BACK
+    }
+
+    private static final CubeSideLocation LOCATIONS[] = CubeSideLocation.values();
+
+    /**
+     * Saved state of a cube, see {@link RubiksCube#snapshot(Snapshot)}. A snapshot is preallocated once and
+     * reused, saving and restoring only copy references.
+     */
+    public static final class Snapshot {
+        private RubiksCube cube;
+        private final CubeSide sides[] = new CubeSide[6];
+        private final Color sideColors[] = new Color[6];
+        private final Color colors[] = new Color[CubeLayout.FACELETS];
+        private final CubePiece pieces[] = new CubePiece[CubeLayout.FACELETS];
+        private final byte stickers[] = new byte[CubeLayout.FACELETS];
+        private final byte stickerFacelets[] = new byte[CubeLayout.FACELETS];
+        private byte frame;
+        private long hash;
+        private boolean hashValid;
+        private boolean indexValid;
+
+        /**
+         * Returns the cube this snapshot was taken of, or null if it is not taken yet.
+         * 
+         * @return
+         */
+        public RubiksCube getCube() {
+            return cube;
+        }
+    }
+
+    /**
+     * Contructs a default Rubik's Cube with primary color as WHITE. Rubik Cube's algorithms are based on primary color selected.
+     */
+    public RubiksCube() {
+        this(Color.WHITE);
+    }
+
+    /**
+     * Construct a Rubik's Cube with specified primary color. Rubik Cube's algorithms are based on primary color selected.
+     * @param color
+     */
+    public RubiksCube(Color color) {
+        this(color, true);
+    }
+
+    /**
+     * Construct a Rubik's Cube with specified primary color, optionally keeping only the colors of its facelets.
+     * Without piece tracking, turns move colors only and pieces of a side are derived from the facelets when
+     * asked for, roughly halving the memory touched by a move.
+     * 
+     * @param color
+     * @param trackPieces false to keep only facelet colors.
+     */
+    public RubiksCube(Color color, boolean trackPieces) {
+        this.trackPieces = trackPieces;
+        frontSide = new CubeSide(color);
+        initCubeSides();
+    }
+
+    /**
+     * Setting cube sides in this order if we hold the cube - White side in front facing us.
+     * Left to white is Red Side, and to left is Orange. Up side is Blue and down side is Green. Back Side is Yellow.
+     * 
+     * All other sides are considered according to this initial configuration.
+     */
+    private void initCubeSides() {
+        
+        switch(frontSide.color) {
+            case WHITE:
+            {
+                rightSide = new CubeSide(Color.RED);
+                leftSide = new CubeSide(Color.ORANGE);   
+                upSide = new CubeSide(Color.BLUE);
+                downSide = new CubeSide(Color.GREEN);
+                backSide = new CubeSide(Color.YELLOW);
+            }
+            break;
+            case ORANGE:
+            {
+                rightSide = new CubeSide(Color.WHITE);
+                leftSide = new CubeSide(Color.YELLOW);
+                upSide = new CubeSide(Color.BLUE);
+                downSide = new CubeSide(Color.GREEN);
+                backSide = new CubeSide(Color.RED);
+            }
+            break;
+            case RED:
+            {
+                rightSide = new CubeSide(Color.YELLOW);
+                leftSide = new CubeSide(Color.WHITE);
+                upSide = new CubeSide(Color.BLUE);
+                downSide = new CubeSide(Color.GREEN);
+                backSide = new CubeSide(Color.ORANGE);
+            }
+            break;
+            case YELLOW:
+            {
+                rightSide = new CubeSide(Color.ORANGE);
+                leftSide = new CubeSide(Color.RED);
+                upSide = new CubeSide(Color.BLUE);
+                downSide = new CubeSide(Color.GREEN);
+                backSide = new CubeSide(Color.WHITE);
+            }
+            break;
+            case GREEN:
+            {
+                rightSide = new CubeSide(Color.RED);
+                leftSide = new CubeSide(Color.ORANGE);
+                upSide = new CubeSide(Color.WHITE);
+                downSide = new CubeSide(Color.YELLOW);
+                backSide = new CubeSide(Color.BLUE);
+            }
+            break;
+            case BLUE:
+            {
+                rightSide = new CubeSide(Color.RED);
+                leftSide = new CubeSide(Color.ORANGE);
+                upSide = new CubeSide(Color.YELLOW);
+                downSide = new CubeSide(Color.WHITE);
+                backSide = new CubeSide(Color.GREEN);
+            }
+            break;
+        }
+        frontSide.setParentCube(this);
+        rightSide.setParentCube(this);
+        leftSide.setParentCube(this);
+        upSide.setParentCube(this);
+        downSide.setParentCube(this);
+        backSide.setParentCube(this);
+        indexSides();
+
+        if(!trackPieces) {
+            for(CubeSide side : sides) {
+                side.pieces = null;
+            }
+            return;
+        }
+        frontSide.initCubeSidePieces();
+        rightSide.initCubeSidePieces();
+        leftSide.initCubeSidePieces();
+        upSide.initCubeSidePieces();
+        downSide.initCubeSidePieces();
+        backSide.initCubeSidePieces();
+    }
+
+    /**
+     * Returns true if this cube keeps pieces along with facelet colors.
+     * 
+     * @return
+     */
+    public boolean isTrackingPieces() {
+        return trackPieces;
+    }
+
+    /**
+     * Returns new pieces of given side, derived from the facelets of this cube.
+     * 
+     * @param side
+     * @return
+     */
+    CubePiece[][] derivePieces(CubeSide side) {
+        byte[] facelets = new byte[CubeLayout.FACELETS];
+        for(int i=0; i<CubeLayout.FACELETS; i++) {
+            facelets[i] = (byte) sideAt(i / 9).data[i % 9 / 3][i % 3].ordinal();
+        }
+        CubePiece pieces[][] = new CubePiece[3][3];
+        CubeSide.buildPieces(facelets, locations[side.color.ordinal()], pieces);
+        return pieces;
+    }
+
+    /**
+     * Rotates cube's current front side clockwise.
+     */
+    public void rotateFrontSideClockwise() {
+        turn(Move.F);
+    }
+
+    /**
+     * Rotates cube's current front side clockwise 'n' times.
+     * 
+     * @param count number of rotations
+     */
+    public void rotateFrontSideClockwise(int count) {
+        if(count > 0 && (count & 3) != 0) {
+            turn(Move.of(CubeLayout.FRONT, count & 3));
+        }
+    }
+
+
+    /**
+     * Rotates cube's current front side clockwise.
+     */
+    public void rotateFrontSideAntiClockwise() {
+        turn(Move.F_PRIME);
+    }
+
+    /**
+     * Rotates cube's current right side clockwise.
+     */
+    public void rotateRightSideClockwise() {
+        turn(Move.R);
+    }
+
+    /**
+     * Rotates cube's current right side clockwise 'n' times.
+     * 
+     * @param count number of rotations
+     */
+    public void rotateRightSideClockwise(int count) {
+        if(count > 0 && (count & 3) != 0) {
+            turn(Move.of(Move.R.getLayer(), count & 3));
+        }
+    }
+
+    /**
+     * Rotates cube's current right side anti clockwise.
+     */
+    public void rotateRightSideAntiClockwise() {
+        turn(Move.R_PRIME);
+    }
+
+    /**
+     * Rotates cube's current left side clockwise.
+     */
+    public void rotateLeftSideClockwise() {
+        turn(Move.L);
+    }
+
+    /**
+     * Rotates cube's current left side clockwise 'n' times.
+     * 
+     * @param count number of rotations
+     */
+    public void rotateLeftSideClockwise(int count) {
+        if(count > 0 && (count & 3) != 0) {
+            turn(Move.of(Move.L.getLayer(), count & 3));
+        }
+    }
+
+    /**
+     * Rotates cube's current left side anti clockwise.
+     */
+    public void rotateLeftSideAntiClockwise() {
+        turn(Move.L_PRIME);
+    }
+
+    /**
+     * Rotates cube's current up side clockwise.
+     */
+    public void rotateUpSideClockwise() {
+        turn(Move.U);
+    }
+
+    /**
+     * Rotates cube's current up side clockwise 'n' times.
+     * 
+     * @param count number of rotations
+     */
+    public void rotateUpSideClockwise(int count) {
+        if(count > 0 && (count & 3) != 0) {
+            turn(Move.of(Move.U.getLayer(), count & 3));
+        }
+    }
+
+    /**
+     * Rotates cube's current up side anti clockwise.
+     */
+    public void rotateUpSideAntiClockwise() {
+        turn(Move.U_PRIME);
+    }
+
+    /**
+     * Rotates cube's current down side clockwise.
+     */
+    public void rotateDownSideClockwise() {
+        turn(Move.D);
+    }
+
+    /**
+     * Rotates cube's current down side clockwise 'n' times.
+     * 
+     * @param count number of rotations
+     */
+    public void rotateDownSideClockwise(int count) {
+        if(count > 0 && (count & 3) != 0) {
+            turn(Move.of(Move.D.getLayer(), count & 3));
+        }
+    }
+
+    /**
+     * Rotates cube's current down side anti clockwise.
+     */
+    public void rotateDownSideAntiClockwise() {
+        turn(Move.D_PRIME);
+    }
+
+    /**
+     * Rotates cube's current back side clockwise.
+     */
+    public void rotateBackSideClockwise() {
+        turn(Move.B);
+    }
+
+    /**
+     * Rotates cube's current back side clockwise 'n' times.
+     * 
+     * @param count number of rotations
+     */
+    public void rotateBackSideClockwise(int count) {
+        if(count > 0 && (count & 3) != 0) {
+            turn(Move.of(Move.B.getLayer(), count & 3));
+        }
+    }
+
+    /**
+     * Rotates cube's current back side anti clockwise.
+     */
+    public void rotateBackSideAntiClockwise() {
+        turn(Move.B_PRIME);
+    }
+
+    /**
+     * Rotates cube's current middle slice (between right and left side, turning the way left side does) clockwise.
+     */
+    public void rotateMiddleSliceClockwise() {
+        turn(Move.M);
+    }
+
+    /**
+     * Rotates cube's current middle slice (between right and left side, turning the way left side does) clockwise 'n' times.
+     * 
+     * @param count number of rotations
+     */
+    public void rotateMiddleSliceClockwise(int count) {
+        if(count > 0 && (count & 3) != 0) {
+            turn(Move.of(Move.M.getLayer(), count & 3));
+        }
+    }
+
+    /**
+     * Rotates cube's current middle slice (between right and left side, turning the way left side does) anti clockwise.
+     */
+    public void rotateMiddleSliceAntiClockwise() {
+        turn(Move.M_PRIME);
+    }
+
+    /**
+     * Rotates cube's current equator slice (between up and down side, turning the way down side does) clockwise.
+     */
+    public void rotateEquatorSliceClockwise() {
+        turn(Move.E);
+    }
+
+    /**
+     * Rotates cube's current equator slice (between up and down side, turning the way down side does) clockwise 'n' times.
+     * 
+     * @param count number of rotations
+     */
+    public void rotateEquatorSliceClockwise(int count) {
+        if(count > 0 && (count & 3) != 0) {
+            turn(Move.of(Move.E.getLayer(), count & 3));
+        }
+    }
+
+    /**
+     * Rotates cube's current equator slice (between up and down side, turning the way down side does) anti clockwise.
+     */
+    public void rotateEquatorSliceAntiClockwise() {
+        turn(Move.E_PRIME);
+    }
+
+    /**
+     * Rotates cube's current standing slice (between front and back side, turning the way front side does) clockwise.
+     */
+    public void rotateStandingSliceClockwise() {
+        turn(Move.S);
+    }
+
+    /**
+     * Rotates cube's current standing slice (between front and back side, turning the way front side does) clockwise 'n' times.
+     * 
+     * @param count number of rotations
+     */
+    public void rotateStandingSliceClockwise(int count) {
+        if(count > 0 && (count & 3) != 0) {
+            turn(Move.of(Move.S.getLayer(), count & 3));
+        }
+    }
+
+    /**
+     * Rotates cube's current standing slice (between front and back side, turning the way front side does) anti clockwise.
+     */
+    public void rotateStandingSliceAntiClockwise() {
+        turn(Move.S_PRIME);
+    }
+
+    /**
+     * Applies given move to the cube. Only facelets and pieces of the turned layer are touched.
+     * 
+     * @param move
+     */
+    public void applyMove(Move move) {
+        turn(move);
+    }
+
+    /**
+     * Applies a compiled move sequence to the cube as it is currently held, as one gather of the facelets
+     * (and their pieces) it changes, followed by the whole cube rotations it contains.
+     * 
+     * @param sequence
+     */
+    public void applySequence(CompiledSequence sequence) {
+        permute(sequence.movedFacelets[frame], sequence.movedSources[frame], sequence.movesCenters[frame]);
+        if(sequence.faceletEndFrame[frame] != frame) {
+            hashValid = false;
+            frame = sequence.faceletEndFrame[frame];
+        }
+    }
+
+    /**
+     * Applies a move as one gather of the facelets (and their pieces) it changes, see {@link MoveTables}.
+     * The move is mapped through the frame to the side that is physically at the turned location.
+     * 
+     * @param move
+     */
+    private void turn(Move move) {
+        int physical = CubeFrames.FRAME_MOVE[frame][move.ordinal()];
+        permute(MoveTables.MOVED_FACELETS[physical], MoveTables.MOVED_SOURCES[physical], physical >= Move.SIDE_TURNS);
+    }
+
+    /**
+     * Physically moves facelets (and their pieces): facelet facelets[k] takes what facelet sources[k] held.
+     * 
+     * @param facelets
+     * @param sources
+     * @param movesCenters true if center facelets are moved, sides then take the color of their new center.
+     */
+    private void permute(byte[] facelets, byte[] sources, boolean movesCenters) {
+        for(int k=0; k<sources.length; k++) {
+            CubeSide side = sideAt(sources[k] / 9);
+            int i = sources[k] % 9 / 3;
+            int j = sources[k] % 3;
+            colorBuffer[k] = side.data[i][j];
+            if(trackPieces) {
+                pieceBuffer[k] = side.pieces[i][j];
+            }
+            if(indexValid) {
+                stickerBuffer[k] = stickers[sources[k]];
+            }
+        }
+        byte[] target = !hashValid || frame == CubeFrames.IDENTITY ? null : MoveTables.FRAME_TARGET[frame];
+        for(int k=0; k<facelets.length; k++) {
+            CubeSide side = sideAt(facelets[k] / 9);
+            int i = facelets[k] % 9 / 3;
+            int j = facelets[k] % 3;
+            if(hashValid) {
+                int facelet = target == null ? facelets[k] : target[facelets[k]];
+                hash ^= Zobrist.key(facelet, side.data[i][j].ordinal()) ^ Zobrist.key(facelet, colorBuffer[k].ordinal());
+            }
+            side.data[i][j] = colorBuffer[k];
+            if(trackPieces) {
+                side.pieces[i][j] = pieceBuffer[k];
+            }
+            if(indexValid) {
+                stickers[facelets[k]] = stickerBuffer[k];
+                stickerFacelets[stickerBuffer[k]] = facelets[k];
+            }
+        }
+
+        //A slice moves center pieces, so sides take the color of their new center.
+        if(movesCenters) {
+            for(int location=0; location<6; location++) {
+                CubeSide side = sides[location];
+                side.color = side.data[1][1];
+                locations[side.color.ordinal()] = (byte) location;
+            }
+        }
+    }
+
+    /**
+     * Rotates cube clockwise on X axies (Rotation with respect to cube's Top side).
+     */
+    public void rotateCubeXClockwise() {
+        hashValid = false;
+        frame = CubeFrames.ROTATE[frame][CubeFrames.X_CLOCKWISE];
+    }
+
+    /**
+     * Rotates cube clockwise on X axies (Rotation with respect to cube's Top side), 'n' times.
+     * 
+     * @param count number of rotations.
+     */
+    public void rotateCubeXClockwise(int count) {
+        for(int i=0;i<count;i++) {
+            rotateCubeXClockwise();
+        }
+    }
+
+    /**
+     * Rotates cube anti clockwise on X axies (Rotation with respect to cube's Top side).
+     */
+    public void rotateCubeXAntiClockwise() {
+        hashValid = false;
+        frame = CubeFrames.ROTATE[frame][CubeFrames.X_ANTI_CLOCKWISE];
+    }
+
+    /**
+     * Rotates cube anti clockwise on X axies (Rotation with respect to cube's Top side), 'n' times.
+     * 
+     * @param count number of rotations
+     */
+    public void rotateCubeXAntiClockwise(int count) {
+        for(int i=0;i<count;i++) {
+            rotateCubeXAntiClockwise();
+        }
+    }
+
+    /**
+     * Rotates cube clockwise on Y Axies (Rotation with respect to cube's left side).
+     */
+    public void rotateCubeYClockwise() {
+        hashValid = false;
+        frame = CubeFrames.ROTATE[frame][CubeFrames.Y_CLOCKWISE];
+    }
+
+    /**
+     * Rotates cube clockwise on Y Axies (Rotation with respect to cube's left side), 'n' times.
+     * 
+     * @param count number of rotations.
+     */
+    public void rotateCubeYClockwise(int count) {
+        for(int i=0;i<count;i++) {
+            rotateCubeYClockwise();
+        }
+    }
+
+    /**
+     * Rotates cube anti clockwise on Y Axies (Rotation with respect to cube's left side).
+     */
+    public void rotateCubeYAntiClockwise() {
+        hashValid = false;
+        frame = CubeFrames.ROTATE[frame][CubeFrames.Y_ANTI_CLOCKWISE];
+    }
+
+    /**
+     * Rotates cube anti clockwise on Y Axies (Rotation with respect to cube's left side), 'n' times.
+     * 
+     * @param count Number of times.
+     */
+    public void rotateCubeYAntiClockwise(int count) {
+        for(int i=0;i<count;i++) {
+            rotateCubeYAntiClockwise();
+        }
+    }
+
+    /**
+     * Rotates cube anti clockwise on Z Axies (Vertically).
+     * 
+     */
+    public void rotateCubeZClockwise() {
+        hashValid = false;
+        frame = CubeFrames.ROTATE[frame][CubeFrames.Z_CLOCKWISE];
+    }
+
+    /**
+     * Rotates cube clockwise on Z Axies (Rotation with respect to cube's front side).
+     */
+    public void rotateCubeZClockwise(int count) {
+        for(int i=0;i<count;i++) {
+            rotateCubeZClockwise();
+        }
+    }
+
+    /**
+     * Rotates cube anti clockwise on Z Axies (Rotation with respect to cube's front side).
+     */
+    public void rotateCubeZAntiClockwise() {
+        hashValid = false;
+        frame = CubeFrames.ROTATE[frame][CubeFrames.Z_ANTI_CLOCKWISE];
+    }
+
+    public void rotateCubeZAntiClockwise(int count) {
+        for(int i=0;i<count;i++) {
+            rotateCubeZAntiClockwise();
+        }
+    }
+
+    /**
+     * Moves sides to the locations of the current frame, so that side fields and data matrices show the cube
+     * as it is held. Rotations only record the frame, this is done once sides are actually read.
+     * Subclasses must call this before reading the side fields.
+     */
+    protected void materialize() {
+        if(frame != CubeFrames.IDENTITY) {
+            //Facelets as held do not change, neither does the hash.
+            boolean valid = hashValid;
+            for(byte rotation : CubeFrames.PATH[frame]) {
+                relayout(rotation);
+            }
+            frame = CubeFrames.IDENTITY;
+            hashValid = valid;
+        }
+    }
+
+    /**
+     * Physically rotates the whole cube, rotating side matrices and moving sides to their new locations.
+     * 
+     * @param rotation rotation of CubeFrames.
+     */
+    void relayout(int rotation) {
+        CubeSide side;
+        switch(rotation) {
+            case CubeFrames.X_CLOCKWISE:
+            {
+                upSide.rotateMatrixClockwise();
+                downSide.rotateMatrixAntiClockwise();
+
+                side = rightSide;
+                rightSide = backSide;
+                backSide = leftSide;
+                leftSide = frontSide;
+                frontSide = side;
+            }
+            break;
+            case CubeFrames.X_ANTI_CLOCKWISE:
+            {
+                upSide.rotateMatrixAntiClockwise();
+                downSide.rotateMatrixClockwise();
+
+                side = rightSide;
+                rightSide = frontSide;
+                frontSide = leftSide;
+                leftSide = backSide;
+                backSide = side;
+            }
+            break;
+            case CubeFrames.Y_CLOCKWISE:
+            {
+                leftSide.rotateMatrixClockwise();
+                rightSide.rotateMatrixAntiClockwise();
+                backSide.rotateMatrixClockwise(2);
+                downSide.rotateMatrixClockwise(2);  
+
+                side = frontSide;
+                frontSide = upSide;
+                upSide = backSide;
+                backSide = downSide;
+                downSide = side;
+            }
+            break;
+            case CubeFrames.Y_ANTI_CLOCKWISE:
+            {
+                rightSide.rotateMatrixClockwise();
+                leftSide.rotateMatrixAntiClockwise();
+                backSide.rotateMatrixClockwise(2);
+                upSide.rotateMatrixClockwise(2);
+
+                side = frontSide;
+                frontSide = downSide;
+                downSide = backSide;
+                backSide = upSide;
+                upSide = side;
+            }
+            break;
+            case CubeFrames.Z_CLOCKWISE:
+            {
+                rightSide.rotateMatrixClockwise();
+                upSide.rotateMatrixClockwise();
+                leftSide.rotateMatrixClockwise();
+                downSide.rotateMatrixClockwise();
+                backSide.rotateMatrixAntiClockwise();
+                frontSide.rotateMatrixClockwise();
+
+                side = upSide;
+                upSide = leftSide;
+                leftSide = downSide;
+                downSide = rightSide;
+                rightSide = side;
+            }
+            break;
+            case CubeFrames.Z_ANTI_CLOCKWISE:
+            {
+                rightSide.rotateMatrixAntiClockwise();
+                upSide.rotateMatrixAntiClockwise();
+                leftSide.rotateMatrixAntiClockwise();
+                downSide.rotateMatrixAntiClockwise();
+                backSide.rotateMatrixClockwise();
+                frontSide.rotateMatrixAntiClockwise();
+
+                side = upSide;
+                upSide = rightSide;
+                rightSide = downSide;
+                downSide = leftSide;
+                leftSide = side;
+            }
+            break;
+        }
+        indexSides();
+        //Every facelet moved, pieces are indexed again when asked for.
+        indexValid = false;
+    }
+
+    /**
+     * Rebuilds the index of sides by location and of locations by color, after side fields were changed.
+     */
+    private void indexSides() {
+        sides[CubeLayout.FRONT] = frontSide;
+        sides[CubeLayout.RIGHT] = rightSide;
+        sides[CubeLayout.LEFT] = leftSide;
+        sides[CubeLayout.UP] = upSide;
+        sides[CubeLayout.DOWN] = downSide;
+        sides[CubeLayout.BACK] = backSide;
+        for(int location=0; location<6; location++) {
+            locations[sides[location].color.ordinal()] = (byte) location;
+        }
+    }
+
+    /**
+     * Returns the side next to the side of given color in specified direction, as the cube is held.
+     * 
+     * @param color color of the side.
+     * @param direction direction from the side, FRONT returns the side itself.
+     * @return
+     */
+    CubeSide getNeighbourSide(Color color, CubeSideLocation direction) {
+        materialize();
+        return sides[CubeLayout.NEIGHBOUR[locations[color.ordinal()]][direction.ordinal()]];
+    }
+
+    public void rotateToSide(Color color) {
+        switch(getSideLocation(color)) {
+            case RIGHT:
+                rotateCubeXClockwise();
+                break;
+            case LEFT:
+                rotateCubeXAntiClockwise();
+                break;
+            case UP:
+                rotateCubeYClockwise();
+                break;
+            case DOWN:
+                rotateCubeYAntiClockwise();
+                break;
+            case BACK:
+                rotateCubeXClockwise(2);
+                break;
+            default:
+                break;
+        }
+    }
+
+    public CubeSide getSide(Color color) {
+        materialize();
+        return sides[locations[color.ordinal()]];
+    }
+
+    public CubeSideLocation getSideLocation(Color color) {
+        return LOCATIONS[CubeFrames.LOCATION_OF[frame][locations[color.ordinal()]]];
+    }
+
+    /**
+     * Scrambles the cube with a random scramble of {@link Scrambler#DEFAULT_LENGTH} moves.
+     * 
+     * @return applied moves, as Move ordinals.
+     */
+    public byte[] scrambleCube() {
+        return scrambleCube(ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Scrambles the cube with the scramble of {@link Scrambler#DEFAULT_LENGTH} moves of given seed.
+     * 
+     * @param seed
+     * @return applied moves, as Move ordinals.
+     */
+    public byte[] scrambleCube(long seed) {
+        return scrambleCube(seed, Scrambler.DEFAULT_LENGTH);
+    }
+
+    /**
+     * Scrambles the cube with the scramble of given seed and length, see {@link Scrambler}.
+     * The same seed always gives the same moves.
+     * 
+     * @param seed
+     * @param length number of moves.
+     * @return applied moves, as Move ordinals.
+     */
+    public byte[] scrambleCube(long seed, int length) {
+        byte moves[] = Scrambler.scramble(seed, length);
+        for(byte move : moves) {
+            turn(Move.valueOf(move));
+        }
+        return moves;
+    }
+
+    /**
+     * Sets the cube to a uniformly random state, held with WHITE side in front.
+     */
+    public void randomizeCube() {
+        randomizeCube(new SplittableRandom(ThreadLocalRandom.current().nextLong()));
+    }
+
+    /**
+     * Sets the cube to a uniformly random state drawn from given generator, see {@link RandomStates}.
+     * 
+     * @param random
+     */
+    public void randomizeCube(SplittableRandom random) {
+        RandomStates.randomState(random).copyTo(this);
+    }
+
+    /**
+     * Returns the side at specified location.
+     * 
+     * @param location CubeSideLocation ordinal.
+     * @return
+     */
+    CubeSide sideAt(int location) {
+        return sides[location];
+    }
+
+    /**
+     * Writes colors of all 54 facelets of this cube, as Color ordinals.
+     * Facelet index is (CubeSideLocation ordinal * 9) + (row * 3) + column of the side's data matrix,
+     * as the cube is currently held.
+     * 
+     * @param facelets array of at least 54 entries.
+     */
+    public void getFacelets(byte[] facelets) {
+        byte[] source = frame == CubeFrames.IDENTITY ? null : MoveTables.FRAME_SOURCE[frame];
+        for(int i=0; i<CubeLayout.FACELETS; i++) {
+            int facelet = source == null ? i : source[i];
+            facelets[i] = (byte) sideAt(facelet / 9).data[facelet % 9 / 3][facelet % 3].ordinal();
+        }
+    }
+
+    /**
+     * Sets this cube from colors of all 54 facelets, in the order of {@link #getFacelets(byte[])}.
+     * Sides are arranged by the colors of center facelets, and pieces are rebuilt from the facelets.
+     * 
+     * @param facelets
+     * @throws IllegalArgumentException if center facelets are not arranged like a cube, or other facelets do not
+     * show every corner and edge piece once.
+     */
+    public void setFacelets(byte[] facelets) {
+        int frame = CubeFrames.of(CubeLayout.REFERENCE_LOCATION[facelets[CubeLayout.FRONT*9 + 4]],
+            CubeLayout.REFERENCE_LOCATION[facelets[CubeLayout.UP*9 + 4]]);
+        for(int location=0; location<6; location++) {
+            if(frame < 0 || CubeFrames.FACE_AT[frame][location] != CubeLayout.REFERENCE_LOCATION[facelets[location*9 + 4]]) {
+                throw new IllegalArgumentException("Center facelets are not arranged like a cube");
+            }
+        }
+        CubeLayout.checkPieces(facelets);
+
+        //Sides by color are read from the side index, which is only rebuilt once all fields are set.
+        this.frame = CubeFrames.IDENTITY;
+        hashValid = false;
+        indexValid = false;
+        frontSide = sides[locations[facelets[CubeLayout.FRONT*9 + 4]]];
+        rightSide = sides[locations[facelets[CubeLayout.RIGHT*9 + 4]]];
+        leftSide = sides[locations[facelets[CubeLayout.LEFT*9 + 4]]];
+        upSide = sides[locations[facelets[CubeLayout.UP*9 + 4]]];
+        downSide = sides[locations[facelets[CubeLayout.DOWN*9 + 4]]];
+        backSide = sides[locations[facelets[CubeLayout.BACK*9 + 4]]];
+        indexSides();
+
+        for(int location=0; location<6; location++) {
+            sideAt(location).setFacelets(facelets, location);
+        }
+    }
+
+    /**
+     * Marks the hash and the piece index out of date, after sides were changed other than by a turn of this cube.
+     */
+    void invalidateHash() {
+        hashValid = false;
+        indexValid = false;
+    }
+
+    /**
+     * Returns where the corner of given colors is, as the cube is held: slot * 3 + orientation.
+     * Slots are numbered URF, UFL, ULB, UBR, DFR, DLF, DBL, DRB and the orientation is the facelet of the slot,
+     * counted clockwise from its Up/Down facelet, showing the sticker of the corner's Blue or Green color.
+     * 
+     * @param color1
+     * @param color2
+     * @param color3
+     * @return
+     * @throws IllegalArgumentException if there is no corner of given colors.
+     */
+    public int getCornerPosition(Color color1, Color color2, Color color3) {
+        int sticker = CubeLayout.sticker(color1, color2, color3);
+        if(sticker < 0) {
+            throw new IllegalArgumentException("No corner " + color1 + " " + color2 + " " + color3);
+        }
+        return CubeLayout.STICKER[locate(sticker - sticker % 3)];
+    }
+
+    /**
+     * Returns where the edge of given colors is, as the cube is held: slot * 2 + orientation.
+     * Slots are numbered UR, UF, UL, UB, DR, DF, DL, DB, FR, FL, BL, BR and the orientation is 0 if the slot's
+     * Up/Down facelet (Front/Back facelet for the middle layer) shows the sticker of the edge's Blue or Green color
+     * (White or Yellow color for middle layer edges), 1 otherwise.
+     * 
+     * @param color1
+     * @param color2
+     * @return
+     * @throws IllegalArgumentException if there is no edge of given colors.
+     */
+    public int getEdgePosition(Color color1, Color color2) {
+        int sticker = CubeLayout.sticker(color1, color2, null);
+        if(sticker < 0) {
+            throw new IllegalArgumentException("No edge " + color1 + " " + color2);
+        }
+        return CubeLayout.STICKER[locate(sticker - sticker % 2)] - CubeLayout.EDGE_STICKERS;
+    }
+
+    /**
+     * Returns the facelet, as the cube is held, showing given color of the edge of given colors.
+     * The location of the facelet is facelet / 9, see {@link #getFacelets(byte[])}.
+     * 
+     * @param color
+     * @param other
+     * @return
+     * @throws IllegalArgumentException if there is no edge of given colors.
+     */
+    public int getStickerFacelet(Color color, Color other) {
+        int sticker = CubeLayout.sticker(color, other, null);
+        if(sticker < 0) {
+            throw new IllegalArgumentException("No edge " + color + " " + other);
+        }
+        return locate(sticker);
+    }
+
+    /**
+     * Returns the facelet, as the cube is held, showing given color of the corner of given colors.
+     * The location of the facelet is facelet / 9, see {@link #getFacelets(byte[])}.
+     * 
+     * @param color
+     * @param other1
+     * @param other2
+     * @return
+     * @throws IllegalArgumentException if there is no corner of given colors.
+     */
+    public int getStickerFacelet(Color color, Color other1, Color other2) {
+        int sticker = CubeLayout.sticker(color, other1, other2);
+        if(sticker < 0) {
+            throw new IllegalArgumentException("No corner " + color + " " + other1 + " " + other2);
+        }
+        return locate(sticker);
+    }
+
+    /**
+     * Returns the facelet, as the cube is held, showing given sticker.
+     * 
+     * @throws IllegalStateException if the sticker is not on the cube, which was set from facelets of no real cube.
+     */
+    private int locate(int sticker) {
+        if(!indexValid) {
+            indexPieces();
+        }
+        int facelet = stickerFacelets[sticker];
+        if(facelet < 0) {
+            throw new IllegalStateException("Piece is not on the cube");
+        }
+        return frame == CubeFrames.IDENTITY ? facelet : MoveTables.FRAME_TARGET[frame][facelet];
+    }
+
+    /**
+     * Rebuilds the piece index from the colors of every piece.
+     */
+    private void indexPieces() {
+        Arrays.fill(stickerFacelets, (byte) -1);
+        for(int facelet=0; facelet<CubeLayout.FACELETS; facelet++) {
+            int next = CubeLayout.NEXT_STICKER[facelet];
+            int last = CubeLayout.NEXT_STICKER[next];
+            Color other1 = next == facelet ? null : physicalColor(next);
+            Color other2 = last == facelet ? null : physicalColor(last);
+            int sticker = CubeLayout.sticker(physicalColor(facelet), other1, other2);
+            stickers[facelet] = (byte) sticker;
+            if(sticker >= 0) {
+                stickerFacelets[sticker] = (byte) facelet;
+            }
+        }
+        indexValid = true;
+    }
+
+    /**
+     * Returns color of a facelet, as the side fields are laid out.
+     */
+    private Color physicalColor(int facelet) {
+        return sideAt(facelet / 9).data[facelet % 9 / 3][facelet % 3];
+    }
+
+    /**
+     * Returns 64 bit hash of the facelets as the cube is held. Turns keep it up to date with a few XORs,
+     * after a whole cube rotation it is computed again from all facelets.
+     * Equal cubes have equal hashes.
+     * 
+     * @return
+     */
+    public long hash64() {
+        if(!hashValid) {
+            long hash = 0;
+            for(int i=0; i<CubeLayout.FACELETS; i++) {
+                hash ^= Zobrist.key(i, faceletColor(i).ordinal());
+            }
+            this.hash = hash;
+            hashValid = true;
+        }
+        return hash;
+    }
+
+    public int hashCode() {
+        long hash = hash64();
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    /**
+     * Returns true if given object is a cube showing the same colors on every facelet, as both cubes are held.
+     */
+    public boolean equals(Object object) {
+        if(this == object) {
+            return true;
+        }
+        if(!(object instanceof RubiksCube)) {
+            return false;
+        }
+        RubiksCube cube = (RubiksCube) object;
+        if(hash64() != cube.hash64()) {
+            return false;
+        }
+        for(int i=0; i<CubeLayout.FACELETS; i++) {
+            if(faceletColor(i) != cube.faceletColor(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns color of a facelet, as the cube is held.
+     */
+    private Color faceletColor(int facelet) {
+        if(frame != CubeFrames.IDENTITY) {
+            facelet = MoveTables.FRAME_SOURCE[frame][facelet];
+        }
+        return physicalColor(facelet);
+    }
+
+    /**
+     * Returns a new snapshot of the state of this cube.
+     * 
+     * @return
+     */
+    public Snapshot snapshot() {
+        Snapshot snapshot = new Snapshot();
+        snapshot(snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Saves the state of this cube into given snapshot, overwriting what it held. Nothing is allocated.
+     * 
+     * @param snapshot
+     */
+    public void snapshot(Snapshot snapshot) {
+        snapshot.cube = this;
+        for(int location=0; location<6; location++) {
+            CubeSide side = sides[location];
+            snapshot.sides[location] = side;
+            snapshot.sideColors[location] = side.color;
+            for(int i=0; i<3; i++) {
+                Color[] colors = side.data[i];
+                for(int j=0; j<3; j++) {
+                    snapshot.colors[location*9 + i*3 + j] = colors[j];
+                }
+                if(trackPieces) {
+                    CubePiece[] pieces = side.pieces[i];
+                    for(int j=0; j<3; j++) {
+                        snapshot.pieces[location*9 + i*3 + j] = pieces[j];
+                    }
+                }
+            }
+        }
+        if(indexValid) {
+            for(int i=0; i<CubeLayout.FACELETS; i++) {
+                snapshot.stickers[i] = stickers[i];
+                snapshot.stickerFacelets[i] = stickerFacelets[i];
+            }
+        }
+        snapshot.frame = frame;
+        snapshot.hash = hash;
+        snapshot.hashValid = hashValid;
+        snapshot.indexValid = indexValid;
+    }
+
+    /**
+     * Restores this cube to the state saved in given snapshot. Nothing is allocated.
+     * 
+     * @param snapshot
+     * @throws IllegalArgumentException if the snapshot was not taken of this cube.
+     */
+    public void restore(Snapshot snapshot) {
+        if(snapshot.cube != this) {
+            throw new IllegalArgumentException("Snapshot was not taken of this cube");
+        }
+        frontSide = snapshot.sides[CubeLayout.FRONT];
+        rightSide = snapshot.sides[CubeLayout.RIGHT];
+        leftSide = snapshot.sides[CubeLayout.LEFT];
+        upSide = snapshot.sides[CubeLayout.UP];
+        downSide = snapshot.sides[CubeLayout.DOWN];
+        backSide = snapshot.sides[CubeLayout.BACK];
+        for(int location=0; location<6; location++) {
+            CubeSide side = snapshot.sides[location];
+            side.color = snapshot.sideColors[location];
+            for(int i=0; i<3; i++) {
+                Color[] colors = side.data[i];
+                for(int j=0; j<3; j++) {
+                    colors[j] = snapshot.colors[location*9 + i*3 + j];
+                }
+                if(trackPieces) {
+                    CubePiece[] pieces = side.pieces[i];
+                    for(int j=0; j<3; j++) {
+                        pieces[j] = snapshot.pieces[location*9 + i*3 + j];
+                    }
+                }
+            }
+        }
+        if(snapshot.indexValid) {
+            for(int i=0; i<CubeLayout.FACELETS; i++) {
+                stickers[i] = snapshot.stickers[i];
+                stickerFacelets[i] = snapshot.stickerFacelets[i];
+            }
+        }
+        indexSides();
+        frame = snapshot.frame;
+        hash = snapshot.hash;
+        hashValid = snapshot.hashValid;
+        indexValid = snapshot.indexValid;
+    }
+
+    public String toString() {
+        materialize();
+        StringBuilder outString = new StringBuilder();
+        outString.append("=====================RUBIK'S CUBE======================\n\n");
+        outString.append("Front Side:\n");
+        outString.append(frontSide);
+        outString.append("Right Side:\n");
+        outString.append(rightSide);
+        outString.append("Left Side:\n");
+        outString.append(leftSide);
+        outString.append("Up Side:\n");
+        outString.append(upSide);
+        outString.append("Down Side:\n");
+        outString.append(downSide);
+        outString.append("Back Side:\n");
+        outString.append(backSide);
+        return outString.toString();
+    }
+
+    public static void main(String args[]) {
+        RubiksCube rubik = new RubiksCube();
+
+        System.out.println("=============This is a demostration of Rubik Cube's representation implementation.=============");
+        System.out.println("=============Cube is initialized to solved state.==============================================\n");
+        System.out.println("\n=============After scrambling the cube it maintains its state properly.========================\n");
+        System.out.println(rubik);
+        
+        System.out.println("=============Now we scramble the cube.==============");
+        byte moves[] = rubik.scrambleCube();
+        System.out.println(" - -" + Scrambler.toNotation(moves, 0, moves.length));
+        System.out.println("=============Cube after scrambling it randomly======");
+        System.out.println(rubik);
+        System.out.println("=========If we follow reverse order of scrambling operations, we get a solved cube=============");
+    }
+}
@@ -0,0 +1,134 @@
+package org.viwa.Rubik;
+
+/**
+ * Generates reproducible random move scrambles from a seed.
+ *
+ * Scrambles are side turns (Move ordinals 0 - 17) written as bytes. A turn never follows a turn of the same side,
+ * and two turns of opposite sides always come in Move order (F before B, R before L, U before D), so no scramble
+ * move is cancelled or commuted away by its neighbours. Nothing is allocated or printed while generating, the random
+ * generator (SplitMix64) lives in a local long.
+ *
+ * @author Vishal Wakchaure
+ */
+public final class Scrambler {
+
+    //Default number of moves of a scramble.
+    public static final int DEFAULT_LENGTH = 25;
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    //Axis of each side, sides on the same axis commute.
+    private static final byte[] AXIS = {0, 1, 1, 2, 2, 0};
+
+    private Scrambler() {
+    }
+
+    /**
+     * Returns a new scramble of given length.
+     *
+     * @param seed
+     * @param length number of moves.
+     * @return Move ordinals.
+     */
+    public static byte[] scramble(long seed, int length) {
+        byte moves[] = new byte[length];
+        scramble(seed, moves, 0, length);
+        return moves;
+    }
+
+    /**
+     * Writes a scramble of given length into moves, starting at offset.
+     *
+     * @param seed
+     * @param moves
+     * @param offset
+     * @param length number of moves.
+     */
+    public static void scramble(long seed, byte[] moves, int offset, int length) {
+        long state = seed;
+        int previous = -1;
+        for(int i=0; i<length; i++) {
+            int move;
+            do {
+                state += GOLDEN_GAMMA;
+                move = (int) ((mix(state) >>> 32) * Move.SIDE_TURNS >>> 32);
+            } while(previous >= 0 && (move/3 == previous || AXIS[move/3] == AXIS[previous] && move/3 < previous));
+            moves[offset + i] = (byte) move;
+            previous = move / 3;
+        }
+    }
+
+    /**
+     * Writes 'count' scrambles of given length one after another into buffer.
+     * Scramble i is the same as scramble(seedOf(seed, i), length).
+     *
+     * @param seed
+     * @param count number of scrambles.
+     * @param length number of moves of every scramble.
+     * @param buffer at least count * length bytes.
+     */
+    public static void scrambles(long seed, int count, int length, byte[] buffer) {
+        for(int i=0; i<count; i++) {
+            scramble(seedOf(seed, i), buffer, i*length, length);
+        }
+    }
+
+    /**
+     * Writes 'count' scrambles into buffer like {@link #scrambles(long, int, int, byte[])}, and the packed states
+     * they lead to from a solved cube into states, corners and edges words of scramble i at 2i and 2i + 1.
+     *
+     * @param seed
+     * @param count number of scrambles.
+     * @param length number of moves of every scramble.
+     * @param buffer at least count * length bytes.
+     * @param states at least 2 * count longs.
+     */
+    public static void scrambles(long seed, int count, int length, byte[] buffer, long[] states) {
+        PackedCube cube = new PackedCube();
+        for(int i=0; i<count; i++) {
+            scramble(seedOf(seed, i), buffer, i*length, length);
+            cube.set(PackedCube.SOLVED_CORNERS, PackedCube.SOLVED_EDGES);
+            for(int j=0; j<length; j++) {
+                cube.applyMove(Move.valueOf(buffer[i*length + j]));
+            }
+            states[2*i] = cube.getCorners();
+            states[2*i + 1] = cube.getEdges();
+        }
+    }
+
+    /**
+     * Returns seed of scramble 'index' of a bulk generation.
+     *
+     * @param seed
+     * @param index
+     * @return
+     */
+    public static long seedOf(long seed, int index) {
+        return mix(seed + (index + 1) * GOLDEN_GAMMA);
+    }
+
+    /**
+     * Returns moves in standard notation, separated by spaces.
+     *
+     * @param moves Move ordinals.
+     * @param offset
+     * @param length
+     * @return
+     */
+    public static String toNotation(byte[] moves, int offset, int length) {
+        StringBuilder notation = new StringBuilder(length * 3);
+        for(int i=0; i<length; i++) {
+            if(i > 0) {
+                notation.append(' ');
+            }
+            notation.append(Move.valueOf(moves[offset + i]).getNotation());
+        }
+        return notation.toString();
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,277 @@
+package org.viwa.Rubik;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary files of cube states, 16 bytes a state: the corners and edges words of {@link PackedCube}.
+ *
+ * A file starts with a header of 32 big endian bytes: magic "RBKS", format version, record size,
+ * 4 reserved bytes, number of states and 8 reserved bytes, followed by the states, corners word first.
+ * The number of states is written when the writer is closed, a file whose writer was not closed has -1 there
+ * and is not read.
+ *
+ * The reader maps the file read only, so states are read in place, by index or in bulk, without an object per state.
+ * Mappings are released once the reader is no longer used.
+ *
+ * @author Vishal Wakchaure
+ */
+public final class StateFile {
+
+    private static final int MAGIC = 0x52424B53;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int RECORD_SIZE = 16;
+
+    //States in one mapped region, a mapping being at most 2 GB.
+    private static final int REGION_SHIFT = 26;
+    private static final long REGION_STATES = 1L << REGION_SHIFT;
+
+    private StateFile() {
+    }
+
+    /**
+     * Receives states read from a file, see {@link Reader#forEach(Visitor)}.
+     */
+    public interface Visitor {
+
+        /**
+         * @param index index of the state in the file.
+         * @param corners corners word.
+         * @param edges edges word.
+         */
+        void visit(long index, long corners, long edges);
+    }
+
+    /**
+     * Writes states to a new file, through a buffer.
+     */
+    public static final class Writer implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE << 12);
+        private long count;
+
+        /**
+         * Creates or replaces given file.
+         *
+         * @param path
+         * @throws IOException
+         */
+        public Writer(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+            buffer.put(header(-1));
+        }
+
+        /**
+         * Appends state of given cube.
+         *
+         * @param cube
+         * @throws IOException
+         */
+        public void write(PackedCube cube) throws IOException {
+            write(cube.getCorners(), cube.getEdges());
+        }
+
+        /**
+         * Appends a state given by its packed words.
+         *
+         * @param corners
+         * @param edges
+         * @throws IOException
+         */
+        public void write(long corners, long edges) throws IOException {
+            if(buffer.remaining() < RECORD_SIZE) {
+                flush();
+            }
+            buffer.putLong(corners).putLong(edges);
+            count++;
+        }
+
+        /**
+         * Appends 'count' states given as packed words, corners and edges words of state i at 2i and 2i + 1,
+         * like {@link RandomStates#randomStates(long, int, long[])} writes them.
+         *
+         * @param states
+         * @param count
+         * @throws IOException
+         */
+        public void write(long[] states, int count) throws IOException {
+            for(int i=0; i<count; i++) {
+                write(states[2*i], states[2*i + 1]);
+            }
+        }
+
+        /**
+         * Returns number of states written.
+         *
+         * @return
+         */
+        public long size() {
+            return count;
+        }
+
+        /**
+         * Writes the remaining states and the number of states, and closes the file.
+         */
+        public void close() throws IOException {
+            try {
+                flush();
+                ByteBuffer header = header(count);
+                while(header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+            } finally {
+                channel.close();
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while(buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private static ByteBuffer header(long count) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(RECORD_SIZE).putInt(0);
+            header.putLong(count).putLong(0);
+            header.flip();
+            return header;
+        }
+    }
+
+    /**
+     * Reads states of a file mapped into memory.
+     */
+    public static final class Reader {
+        private final ByteBuffer[] regions;
+        private final long count;
+
+        /**
+         * Maps given file.
+         *
+         * @param path
+         * @throws IOException if the file can not be read or is not a complete state file.
+         */
+        public Reader(Path path) throws IOException {
+            try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                while(header.hasRemaining()) {
+                    if(channel.read(header) < 0) {
+                        break;
+                    }
+                }
+                header.flip();
+                if(header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+                    throw new IOException("Not a state file: " + path);
+                }
+                if(header.getInt() != FORMAT_VERSION || header.getInt() != RECORD_SIZE) {
+                    throw new IOException("Unsupported state file version: " + path);
+                }
+                header.getInt();
+                count = header.getLong();
+                if(count < 0 || channel.size() != HEADER_SIZE + count * RECORD_SIZE) {
+                    throw new IOException("Incomplete state file: " + path);
+                }
+
+                regions = new ByteBuffer[(int) ((count + REGION_STATES - 1) >>> REGION_SHIFT)];
+                for(int region=0; region<regions.length; region++) {
+                    long first = region * REGION_STATES;
+                    long states = Math.min(REGION_STATES, count - first);
+                    regions[region] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + first * RECORD_SIZE,
+                        states * RECORD_SIZE);
+                }
+            }
+        }
+
+        /**
+         * Returns number of states.
+         *
+         * @return
+         */
+        public long size() {
+            return count;
+        }
+
+        /**
+         * Returns corners word of the state at given index.
+         *
+         * @param index
+         * @return
+         */
+        public long getCorners(long index) {
+            checkIndex(index);
+            return regions[(int) (index >>> REGION_SHIFT)].getLong((int) (index & (REGION_STATES - 1)) * RECORD_SIZE);
+        }
+
+        /**
+         * Returns edges word of the state at given index.
+         *
+         * @param index
+         * @return
+         */
+        public long getEdges(long index) {
+            checkIndex(index);
+            return regions[(int) (index >>> REGION_SHIFT)].getLong((int) (index & (REGION_STATES - 1)) * RECORD_SIZE + 8);
+        }
+
+        /**
+         * Sets given cube to the state at given index.
+         *
+         * @param index
+         * @param cube
+         */
+        public void read(long index, PackedCube cube) {
+            cube.set(getCorners(index), getEdges(index));
+        }
+
+        /**
+         * Reads 'count' states from given index as packed words, in the layout of {@link Writer#write(long[], int)}.
+         *
+         * @param index
+         * @param states
+         * @param count
+         */
+        public void read(long index, long[] states, int count) {
+            if(count > 0) {
+                checkIndex(index);
+                checkIndex(index + count - 1);
+            }
+            for(int i=0; i<count; i++) {
+                long state = index + i;
+                ByteBuffer region = regions[(int) (state >>> REGION_SHIFT)];
+                int offset = (int) (state & (REGION_STATES - 1)) * RECORD_SIZE;
+                states[2*i] = region.getLong(offset);
+                states[2*i + 1] = region.getLong(offset + 8);
+            }
+        }
+
+        /**
+         * Passes every state to given visitor, in file order.
+         *
+         * @param visitor
+         */
+        public void forEach(Visitor visitor) {
+            long index = 0;
+            for(ByteBuffer region : regions) {
+                int end = region.limit();
+                for(int offset=0; offset<end; offset+=RECORD_SIZE) {
+                    visitor.visit(index++, region.getLong(offset), region.getLong(offset + 8));
+                }
+            }
+        }
+
+        private void checkIndex(long index) {
+            if(index < 0 || index >= count) {
+                throw new IndexOutOfBoundsException("State " + index + " of " + count);
+            }
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package org.viwa.Rubik;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Tells whether a cube state can be reached by turning a solved cube, and if not, which rule it breaks.
+ *
+ * States are checked in the order of {@link Verdict}: the colors, the centers, the pieces, and then the three
+ * invariants of turns: corner twists add up to a multiple of 3, edge flips to a multiple of 2, and corner and edge
+ * permutations have the same parity. The first rule broken is the verdict. A check reads every facelet or slot
+ * once and allocates nothing, so whole files can be screened before they reach a solver.
+ *
+ * @author Vishal Wakchaure
+ */
+public final class StateValidator {
+
+    /**
+     * Verdict on a state, VALID or the first rule it breaks.
+     */
+    public static enum Verdict {
+        //The state can be solved.
+        VALID,
+        //Fewer than 54 facelets, or a facelet string line of another length.
+        BAD_LENGTH,
+        //A facelet is not a color (or face letter) of the cube.
+        BAD_COLOR,
+        //A color is not on exactly 9 facelets.
+        BAD_COLOR_COUNT,
+        //Centers are not arranged like on a cube (or the frame of packed words is not a frame).
+        BAD_CENTERS,
+        //Facelets of a corner slot are not the colors of a corner, in clockwise order.
+        BAD_CORNER,
+        //Facelets of an edge slot are not the colors of an edge.
+        BAD_EDGE,
+        //A corner is in two slots.
+        DUPLICATE_CORNER,
+        //An edge is in two slots.
+        DUPLICATE_EDGE,
+        //Corner twists do not add up to a multiple of 3, a single corner is twisted.
+        TWISTED_CORNER,
+        //Edge flips do not add up to a multiple of 2, a single edge is flipped.
+        FLIPPED_EDGE,
+        //Corner and edge permutations differ in parity, two pieces are swapped.
+        PARITY
+    }
+
+    private static final Verdict[] VERDICTS = Verdict.values();
+
+    //Color counts of a cube, 9 for each of the 6 colors at 6 bits a color.
+    private static final long NINE_OF_EACH = 9 * 0b000001_000001_000001_000001_000001_000001L;
+
+    //Facelets of a facelet string being checked.
+    private static final ThreadLocal<byte[]> FACELETS = ThreadLocal.withInitial(() -> new byte[CubeLayout.FACELETS]);
+
+    private StateValidator() {
+    }
+
+    /**
+     * Checks colors of all 54 facelets, Color ordinals in the order of {@link RubiksCube#getFacelets(byte[])}.
+     *
+     * @param facelets
+     * @return
+     */
+    public static Verdict validate(byte[] facelets) {
+        if(facelets.length < CubeLayout.FACELETS) {
+            return Verdict.BAD_LENGTH;
+        }
+        //Facelets of each color, counted 6 bits a color.
+        long counts = 0;
+        for(int i=0; i<CubeLayout.FACELETS; i++) {
+            int color = facelets[i];
+            if(color < 0 || color >= 6) {
+                return Verdict.BAD_COLOR;
+            }
+            counts += 1L << (6*color);
+        }
+        if(counts != NINE_OF_EACH) {
+            return Verdict.BAD_COLOR_COUNT;
+        }
+
+        //Location of the center of each color.
+        int frame = CubeFrames.of(CubeLayout.REFERENCE_LOCATION[facelets[CubeLayout.FRONT*9 + 4]],
+            CubeLayout.REFERENCE_LOCATION[facelets[CubeLayout.UP*9 + 4]]);
+        if(frame < 0) {
+            return Verdict.BAD_CENTERS;
+        }
+        int locations = 0;
+        for(int location=0; location<6; location++) {
+            int color = facelets[location*9 + 4];
+            if(CubeFrames.FACE_AT[frame][location] != CubeLayout.REFERENCE_LOCATION[color]) {
+                return Verdict.BAD_CENTERS;
+            }
+            locations |= location << (3*color);
+        }
+
+        int corners = 0;
+        int twist = 0;
+        int cornerInversions = 0;
+        for(int slot=0; slot<CubeLayout.CORNERS; slot++) {
+            byte[] slotFacelets = CubeLayout.CORNER_FACELETS[slot];
+            int a = locations >>> (3*facelets[slotFacelets[0]]) & 7;
+            int b = locations >>> (3*facelets[slotFacelets[1]]) & 7;
+            int c = locations >>> (3*facelets[slotFacelets[2]]) & 7;
+            int sticker = CubeLayout.CORNER_STICKER[a*36 + b*6 + c];
+            if(sticker < 0 || CubeLayout.NEXT_STICKER[sticker] != CubeLayout.CORNER_STICKER[b*36 + c*6 + a]) {
+                return Verdict.BAD_CORNER;
+            }
+            int corner = CubeLayout.CORNER_BY_MASK[1 << a | 1 << b | 1 << c];
+            if((corners & 1 << corner) != 0) {
+                return Verdict.DUPLICATE_CORNER;
+            }
+            //Corners seen before in higher slots, a bit each.
+            cornerInversions += Integer.bitCount(corners >>> corner);
+            corners |= 1 << corner;
+            twist += isUpOrDown(a) ? 0 : isUpOrDown(b) ? 1 : 2;
+        }
+
+        int edges = 0;
+        int flip = 0;
+        int edgeInversions = 0;
+        for(int slot=0; slot<CubeLayout.EDGES; slot++) {
+            byte[] slotFacelets = CubeLayout.EDGE_FACELETS[slot];
+            int a = locations >>> (3*facelets[slotFacelets[0]]) & 7;
+            int b = locations >>> (3*facelets[slotFacelets[1]]) & 7;
+            int edge = CubeLayout.EDGE_BY_MASK[1 << a | 1 << b];
+            if(edge < 0) {
+                return Verdict.BAD_EDGE;
+            }
+            if((edges & 1 << edge) != 0) {
+                return Verdict.DUPLICATE_EDGE;
+            }
+            edgeInversions += Integer.bitCount(edges >>> edge);
+            edges |= 1 << edge;
+            flip += a == CubeLayout.EDGE_FACELETS[edge][0] / 9 ? 0 : 1;
+        }
+        return invariants(twist, flip, cornerInversions, edgeInversions);
+    }
+
+    /**
+     * Checks the facelet string of 54 characters starting at given offset of text, see {@link FaceletString}.
+     *
+     * @param text
+     * @param offset
+     * @return
+     */
+    public static Verdict validate(CharSequence text, int offset) {
+        if(offset < 0 || text.length() - offset < FaceletString.LENGTH) {
+            return Verdict.BAD_LENGTH;
+        }
+        byte[] facelets = FACELETS.get();
+        for(int i=0; i<FaceletString.LENGTH; i++) {
+            int color = FaceletString.color(text.charAt(offset + i));
+            if(color < 0) {
+                return Verdict.BAD_COLOR;
+            }
+            facelets[FaceletString.facelet(i)] = (byte) color;
+        }
+        return validate(facelets);
+    }
+
+    /**
+     * Checks the state of given cube, as it is held.
+     *
+     * @param cube
+     * @return
+     */
+    public static Verdict validate(RubiksCube cube) {
+        byte[] facelets = FACELETS.get();
+        cube.getFacelets(facelets);
+        return validate(facelets);
+    }
+
+    /**
+     * Checks the state of given cube.
+     *
+     * @param cube
+     * @return
+     */
+    public static Verdict validate(PackedCube cube) {
+        return validate(cube.getCorners(), cube.getEdges());
+    }
+
+    /**
+     * Checks the state of given packed words, see {@link PackedCube#getCorners()} and {@link PackedCube#getEdges()}.
+     *
+     * @param cornersWord
+     * @param edgesWord
+     * @return
+     */
+    public static Verdict validate(long cornersWord, long edgesWord) {
+        if(cornersWord >>> PackedCube.FRAME_SHIFT >= CubeFrames.COUNT) {
+            return Verdict.BAD_CENTERS;
+        }
+        if(edgesWord >>> (5*CubeLayout.EDGES) != 0) {
+            return Verdict.BAD_EDGE;
+        }
+        int corners = 0;
+        int twist = 0;
+        int cornerInversions = 0;
+        for(int slot=0; slot<CubeLayout.CORNERS; slot++) {
+            int value = (int) (cornersWord >>> (5*slot)) & 31;
+            int corner = value & 7;
+            if(value >>> 3 >= 3) {
+                return Verdict.BAD_CORNER;
+            }
+            if((corners & 1 << corner) != 0) {
+                return Verdict.DUPLICATE_CORNER;
+            }
+            //Corners seen before in higher slots, a bit each.
+            cornerInversions += Integer.bitCount(corners >>> corner);
+            corners |= 1 << corner;
+            twist += value >>> 3;
+        }
+
+        int edges = 0;
+        int flip = 0;
+        int edgeInversions = 0;
+        for(int slot=0; slot<CubeLayout.EDGES; slot++) {
+            int value = (int) (edgesWord >>> (5*slot)) & 31;
+            int edge = value & 15;
+            if(edge >= CubeLayout.EDGES) {
+                return Verdict.BAD_EDGE;
+            }
+            if((edges & 1 << edge) != 0) {
+                return Verdict.DUPLICATE_EDGE;
+            }
+            edgeInversions += Integer.bitCount(edges >>> edge);
+            edges |= 1 << edge;
+            flip += value >>> 4;
+        }
+        return invariants(twist, flip, cornerInversions, edgeInversions);
+    }
+
+    /**
+     * Checks 'count' states given as packed words, corners and edges words of state i at 2i and 2i + 1, like
+     * {@link RandomStates#randomStates(long, int, long[])} writes them.
+     *
+     * @param states
+     * @param count
+     * @param verdicts receives the Verdict ordinal of every state, may be null.
+     * @return number of valid states.
+     */
+    public static int validate(long[] states, int count, byte[] verdicts) {
+        int valid = 0;
+        for(int i=0; i<count; i++) {
+            Verdict verdict = validate(states[2*i], states[2*i + 1]);
+            if(verdict == Verdict.VALID) {
+                valid++;
+            }
+            if(verdicts != null) {
+                verdicts[i] = (byte) verdict.ordinal();
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * Returns the verdict of given ordinal, as written by {@link #validate(long[], int, byte[])}.
+     *
+     * @param ordinal
+     * @return
+     */
+    public static Verdict verdict(int ordinal) {
+        return VERDICTS[ordinal];
+    }
+
+    /**
+     * Checks every state of a state file.
+     *
+     * @param reader
+     * @return number of states of each verdict, by Verdict ordinal.
+     */
+    public static long[] screen(StateFile.Reader reader) {
+        long[] counts = new long[VERDICTS.length];
+        reader.forEach((index, corners, edges) -> counts[validate(corners, edges).ordinal()]++);
+        return counts;
+    }
+
+    /**
+     * Checks every line of a text file of facelet strings, one per line. Blank lines are skipped.
+     *
+     * @param path
+     * @return number of lines of each verdict, by Verdict ordinal.
+     * @throws IOException
+     */
+    public static long[] screen(Path path) throws IOException {
+        long[] counts = new long[VERDICTS.length];
+        try(BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.US_ASCII)) {
+            String line;
+            while((line = reader.readLine()) != null) {
+                int length = line.length();
+                while(length > 0 && line.charAt(length - 1) <= ' ') {
+                    length--;
+                }
+                if(length == 0) {
+                    continue;
+                }
+                Verdict verdict = length == FaceletString.LENGTH ? validate(line, 0) : Verdict.BAD_LENGTH;
+                counts[verdict.ordinal()]++;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the verdict of the invariants of turns, once every piece is known to be there once.
+     * Permutation parity is the parity of the number of inversions, pairs of pieces out of order.
+     */
+    private static Verdict invariants(int twist, int flip, int cornerInversions, int edgeInversions) {
+        if(twist % 3 != 0) {
+            return Verdict.TWISTED_CORNER;
+        }
+        if(flip % 2 != 0) {
+            return Verdict.FLIPPED_EDGE;
+        }
+        if(((cornerInversions ^ edgeInversions) & 1) != 0) {
+            return Verdict.PARITY;
+        }
+        return Verdict.VALID;
+    }
+
+    private static boolean isUpOrDown(int location) {
+        return location == CubeLayout.UP || location == CubeLayout.DOWN;
+    }
+}
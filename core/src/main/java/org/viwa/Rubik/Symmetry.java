@@ -0,0 +1,313 @@
+package org.viwa.Rubik;
+
+import java.util.Arrays;
+
+/**
+ * The 48 symmetries of the cube, and the canonical form of a state under them.
+ *
+ * Symmetries 0 - 23 hold the cube in one of the 24 frames of {@link CubeFrames}, the orientations reached by
+ * RubiksCube's rotateCubeX/Y/Z methods, symmetry 0 being the cube as held. Symmetries 24 - 47 do the same and
+ * then mirror the cube left to right. The conjugate of a cube by a symmetry is what the transformed cube looks
+ * like, recolored so that it is held in the reference orientation (White front, Blue up). Conjugates of a state
+ * are solved by the same number of moves, so tables of states only need to keep one of them: the canonical form,
+ * the conjugate with the smallest packed words.
+ *
+ * Conjugation works on packed cubes with one table lookup per corner and edge slot.
+ *
+ * @author Vishal Wakchaure
+ */
+public final class Symmetry {
+
+    public static final int COUNT = 48;
+
+    //Facelet gather of every symmetry, like MoveTables.FRAME_SOURCE.
+    private static final byte[][] SOURCE = new byte[COUNT][];
+
+    //Symmetry doing symmetry a and then b, indexed by a * 48 + b.
+    private static final byte[] MULTIPLY = new byte[COUNT * COUNT];
+
+    private static final byte[] INVERSE = new byte[COUNT];
+
+    //Conjugation tables: slot i of the conjugate by s is made from the value (orientation and piece) of slot
+    //SLOT[s * slots + i] of the cube, its new value is CONJUGATE[(s * slots + i) * 32 + value].
+    private static final byte[] CORNER_SLOT = new byte[COUNT * CubeLayout.CORNERS];
+    private static final byte[] CORNER_CONJUGATE = new byte[COUNT * CubeLayout.CORNERS * 32];
+    private static final byte[] EDGE_SLOT = new byte[COUNT * CubeLayout.EDGES];
+    private static final byte[] EDGE_CONJUGATE = new byte[COUNT * CubeLayout.EDGES * 32];
+
+    //Smallest value the highest corner slot of a conjugate gets from value v in slot q of the cube, and the
+    //symmetries giving it, indexed by q * 32 + v.
+    private static final byte[] TOP_VALUE = new byte[CubeLayout.CORNERS * 32];
+    private static final long[] TOP_SYMMETRIES = new long[CubeLayout.CORNERS * 32];
+
+    static {
+        //Left to right mirror: Right and Left sides swap, every side's columns are reversed.
+        byte[] mirror = new byte[CubeLayout.FACELETS];
+        byte[] mirrored = {CubeLayout.FRONT, CubeLayout.LEFT, CubeLayout.RIGHT, CubeLayout.UP, CubeLayout.DOWN, CubeLayout.BACK};
+        for(int location=0; location<6; location++) {
+            for(int row=0; row<3; row++) {
+                for(int column=0; column<3; column++) {
+                    mirror[CubeLayout.facelet(location, row, column)] = CubeLayout.facelet(mirrored[location], row, 2 - column);
+                }
+            }
+        }
+        for(int frame=0; frame<CubeFrames.COUNT; frame++) {
+            SOURCE[frame] = MoveTables.FRAME_SOURCE[frame];
+            SOURCE[CubeFrames.COUNT + frame] = MoveTables.compose(MoveTables.FRAME_SOURCE[frame], mirror);
+        }
+
+        for(int a=0; a<COUNT; a++) {
+            for(int b=0; b<COUNT; b++) {
+                MULTIPLY[a*COUNT + b] = (byte) indexOf(MoveTables.compose(SOURCE[a], SOURCE[b]));
+                if(MULTIPLY[a*COUNT + b] == 0) {
+                    INVERSE[a] = (byte) b;
+                }
+            }
+        }
+
+        //Cubie form of every symmetry: piece and orientation taken into each slot, mirrored orientations are 3 - 5.
+        byte[][] cp = new byte[COUNT][CubeLayout.CORNERS];
+        byte[][] co = new byte[COUNT][CubeLayout.CORNERS];
+        byte[][] ep = new byte[COUNT][CubeLayout.EDGES];
+        byte[][] eo = new byte[COUNT][CubeLayout.EDGES];
+        for(int s=0; s<COUNT; s++) {
+            for(int slot=0; slot<CubeLayout.CORNERS; slot++) {
+                byte[] facelets = CubeLayout.CORNER_FACELETS[slot];
+                byte[] sources = {SOURCE[s][facelets[0]], SOURCE[s][facelets[1]], SOURCE[s][facelets[2]]};
+                int corner = CubeLayout.CORNER_BY_MASK[CubeLayout.mask(sources)];
+                byte[] pieceFacelets = CubeLayout.CORNER_FACELETS[corner];
+                int k = sources[0] == pieceFacelets[0] ? 0 : sources[1] == pieceFacelets[0] ? 1 : 2;
+                boolean reversed = sources[(k + 1) % 3] != pieceFacelets[1];
+                cp[s][slot] = (byte) corner;
+                co[s][slot] = (byte) (reversed ? (3 - k) % 3 + 3 : k);
+            }
+            for(int slot=0; slot<CubeLayout.EDGES; slot++) {
+                byte[] facelets = CubeLayout.EDGE_FACELETS[slot];
+                byte[] sources = {SOURCE[s][facelets[0]], SOURCE[s][facelets[1]]};
+                int edge = CubeLayout.EDGE_BY_MASK[CubeLayout.mask(sources)];
+                ep[s][slot] = (byte) edge;
+                eo[s][slot] = (byte) (sources[0] == CubeLayout.EDGE_FACELETS[edge][0] ? 0 : 1);
+            }
+        }
+
+        //Conjugate of cube C by s is S^-1 * C * S, multiplying like moves: new slot i takes slot S[i] of C.
+        for(int s=0; s<COUNT; s++) {
+            int inverse = INVERSE[s];
+            for(int slot=0; slot<CubeLayout.CORNERS; slot++) {
+                int index = s*CubeLayout.CORNERS + slot;
+                CORNER_SLOT[index] = cp[s][slot];
+                for(int piece=0; piece<CubeLayout.CORNERS; piece++) {
+                    for(int orientation=0; orientation<3; orientation++) {
+                        int result = twist(twist(co[inverse][piece], orientation), co[s][slot]);
+                        CORNER_CONJUGATE[index*32 + (orientation << 3 | piece)] = (byte) (result << 3 | cp[inverse][piece]);
+                    }
+                }
+            }
+            for(int slot=0; slot<CubeLayout.EDGES; slot++) {
+                int index = s*CubeLayout.EDGES + slot;
+                EDGE_SLOT[index] = ep[s][slot];
+                for(int piece=0; piece<CubeLayout.EDGES; piece++) {
+                    for(int orientation=0; orientation<2; orientation++) {
+                        int result = eo[inverse][piece] ^ orientation ^ eo[s][slot];
+                        EDGE_CONJUGATE[index*32 + (orientation << 4 | piece)] = (byte) (result << 4 | ep[inverse][piece]);
+                    }
+                }
+            }
+        }
+
+        int top = CubeLayout.CORNERS - 1;
+        Arrays.fill(TOP_VALUE, (byte) 32);
+        for(int s=0; s<COUNT; s++) {
+            int index = s*CubeLayout.CORNERS + top;
+            for(int value=0; value<3 << 3; value++) {
+                int q = CORNER_SLOT[index]*32 + value;
+                int conjugate = CORNER_CONJUGATE[index*32 + value];
+                if(conjugate < TOP_VALUE[q]) {
+                    TOP_VALUE[q] = (byte) conjugate;
+                    TOP_SYMMETRIES[q] = 0;
+                }
+                if(conjugate == TOP_VALUE[q]) {
+                    TOP_SYMMETRIES[q] |= 1L << s;
+                }
+            }
+        }
+    }
+
+    private Symmetry() {
+    }
+
+    /**
+     * Returns the symmetry undoing given symmetry.
+     *
+     * @param symmetry
+     * @return
+     */
+    public static int inverse(int symmetry) {
+        return INVERSE[symmetry];
+    }
+
+    /**
+     * Returns the symmetry doing symmetry a and then b.
+     *
+     * @param a
+     * @param b
+     * @return
+     */
+    public static int multiply(int a, int b) {
+        return MULTIPLY[a*COUNT + b];
+    }
+
+    /**
+     * Returns true if given symmetry mirrors the cube.
+     *
+     * @param symmetry
+     * @return
+     */
+    public static boolean isMirror(int symmetry) {
+        return symmetry >= CubeFrames.COUNT;
+    }
+
+    /**
+     * Sets cube to its conjugate by given symmetry, held in the reference orientation.
+     *
+     * @param cube
+     * @param symmetry
+     */
+    public static void conjugate(PackedCube cube, int symmetry) {
+        int s = multiply(cube.getFrame(), symmetry);
+        cube.set(conjugateCorners(cube.getCorners(), s), conjugateEdges(cube.getEdges(), s));
+    }
+
+    /**
+     * Sets cube to its conjugate by given symmetry, held in the reference orientation.
+     *
+     * @param cube
+     * @param symmetry
+     */
+    public static void conjugate(RubiksCube cube, int symmetry) {
+        PackedCube packed = PackedCube.of(cube);
+        conjugate(packed, symmetry);
+        packed.copyTo(cube);
+    }
+
+    /**
+     * Sets cube to its canonical form, the conjugate with the smallest packed words, and returns the symmetry
+     * it is conjugated by. Conjugating the canonical form by the inverse of that symmetry gives back the cube,
+     * held in the reference orientation.
+     *
+     * @param cube
+     * @return symmetry, 0 - 47.
+     */
+    public static int canonicalize(PackedCube cube) {
+        int frame = cube.getFrame();
+        long corners = cube.getCorners();
+        long edges = cube.getEdges();
+
+        //First pass keeps the symmetries giving the smallest value in the highest corner slot, usually one or two.
+        int smallest = 32;
+        long candidates = 0;
+        for(int slot=0; slot<CubeLayout.CORNERS; slot++) {
+            int q = slot*32 + ((int) (corners >>> (5*slot)) & 31);
+            int value = TOP_VALUE[q];
+            if(value < smallest) {
+                smallest = value;
+                candidates = 0;
+            }
+            if(value == smallest) {
+                candidates |= TOP_SYMMETRIES[q];
+            }
+        }
+
+        int best = Long.numberOfTrailingZeros(candidates);
+        long bestCorners = conjugateCorners(corners, best);
+        long bestEdges = -1;
+        for(candidates &= candidates - 1; candidates != 0; candidates &= candidates - 1) {
+            int s = Long.numberOfTrailingZeros(candidates);
+            long c = conjugateCorners(corners, s);
+            if(c > bestCorners) {
+                continue;
+            }
+            //Edges are only needed to break ties, which symmetric states have.
+            if(c == bestCorners) {
+                if(bestEdges < 0) {
+                    bestEdges = conjugateEdges(edges, best);
+                }
+                long e = conjugateEdges(edges, s);
+                if(e >= bestEdges) {
+                    continue;
+                }
+                bestEdges = e;
+            } else {
+                bestEdges = -1;
+            }
+            bestCorners = c;
+            best = s;
+        }
+        if(bestEdges < 0) {
+            bestEdges = conjugateEdges(edges, best);
+        }
+        cube.set(bestCorners, bestEdges);
+        return multiply(inverse(frame), best);
+    }
+
+    /**
+     * Sets cube to its canonical form, see {@link #canonicalize(PackedCube)}, and returns the symmetry used.
+     *
+     * @param cube
+     * @return symmetry, 0 - 47.
+     */
+    public static int canonicalize(RubiksCube cube) {
+        PackedCube packed = PackedCube.of(cube);
+        int symmetry = canonicalize(packed);
+        packed.copyTo(cube);
+        return symmetry;
+    }
+
+    /**
+     * Returns corners word of the conjugate of the pieces (not the frame) of corners, by given symmetry.
+     */
+    private static long conjugateCorners(long corners, int symmetry) {
+        int base = symmetry*CubeLayout.CORNERS;
+        long result = 0;
+        for(int slot=0; slot<CubeLayout.CORNERS; slot++) {
+            int value = (int) (corners >>> (5*CORNER_SLOT[base + slot])) & 31;
+            result |= (long) CORNER_CONJUGATE[(base + slot)*32 + value] << (5*slot);
+        }
+        return result;
+    }
+
+    private static long conjugateEdges(long edges, int symmetry) {
+        int base = symmetry*CubeLayout.EDGES;
+        long result = 0;
+        for(int slot=0; slot<CubeLayout.EDGES; slot++) {
+            int value = (int) (edges >>> (5*EDGE_SLOT[base + slot])) & 31;
+            result |= (long) EDGE_CONJUGATE[(base + slot)*32 + value] << (5*slot);
+        }
+        return result;
+    }
+
+    /**
+     * Adds corner orientation b to a, either being mirrored (3 - 5) or not (0 - 2).
+     */
+    private static int twist(int a, int b) {
+        if(a < 3 && b < 3) {
+            return (a + b) % 3;
+        }
+        if(a < 3) {
+            return (a + b) % 3 + 3;
+        }
+        if(b < 3) {
+            return (a - b + 3) % 3 + 3;
+        }
+        return (a - b + 3) % 3;
+    }
+
+    private static int indexOf(byte[] source) {
+        for(int s=0; s<COUNT; s++) {
+            if(Arrays.equals(SOURCE[s], source)) {
+                return s;
+            }
+        }
+        throw new IllegalStateException("Facelet gather is not a symmetry");
+    }
+}
@@ -0,0 +1,51 @@
+package org.viwa.Rubik;
+
+/**
+ * Random keys of the 64 bit state hashes.
+ *
+ * The hash of a cube is the XOR of the keys of every facelet and its color, so a move changes it by the keys
+ * of the facelets it changes only. Keys come from a fixed seed, so hashes are the same in every run.
+ *
+ * @author Vishal Wakchaure
+ */
+final class Zobrist {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    //Key of each facelet and color, indexed by facelet * 6 + Color ordinal.
+    static final long[] KEYS = new long[CubeLayout.FACELETS * 6];
+
+    static {
+        long state = 0x5275626973437562L;
+        for(int i=0; i<KEYS.length; i++) {
+            state += GOLDEN_GAMMA;
+            KEYS[i] = mix(state);
+        }
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * Returns key of given facelet having given color.
+     *
+     * @param facelet
+     * @param color Color ordinal.
+     * @return
+     */
+    static long key(int facelet, int color) {
+        return KEYS[facelet*6 + color];
+    }
+
+    /**
+     * SplitMix64 finalizer, spreads every input bit over the whole result.
+     *
+     * @param z
+     * @return
+     */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,151 @@
+package org.viwa.Rubik.solver;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.viwa.Rubik.Move;
+import org.viwa.Rubik.PackedCube;
+import org.viwa.Rubik.StateValidator;
+
+/**
+ * Solves many cubes at once, spread over the threads of a ForkJoinPool.
+ *
+ * The cubes are split in halves down to single cubes, so idle threads steal work from busy ones and a few
+ * slow solves do not hold up a whole share of the batch. Every thread solves with a solver of its own, created
+ * the first time the thread takes part, which holds the search state; the tables are shared read-only by all
+ * solvers. Solutions come back in the order of the cubes, each with its nodes and solving time.
+ *
+ * @author Vishal Wakchaure
+ */
+public final class BatchSolver {
+
+    //Solver of each thread, as a function from cube to solution.
+    private final ThreadLocal<Function<PackedCube, Solution>> solvers;
+
+    private BatchSolver(Supplier<Function<PackedCube, Solution>> factory) {
+        this.solvers = ThreadLocal.withInitial(factory);
+    }
+
+    /**
+     * Returns a batch solver using {@link TwoPhaseSolver} with its default target length and time budget.
+     *
+     * @return
+     */
+    public static BatchSolver twoPhase() {
+        return twoPhase(TwoPhaseSolver.DEFAULT_TARGET_LENGTH, TwoPhaseSolver.DEFAULT_TIME_BUDGET);
+    }
+
+    /**
+     * Returns a batch solver using {@link TwoPhaseSolver}, see {@link TwoPhaseSolver#solve(PackedCube, int, long)}.
+     *
+     * @param targetLength number of moves good enough to stop searching.
+     * @param timeBudget milliseconds for every cube.
+     * @return
+     */
+    public static BatchSolver twoPhase(int targetLength, long timeBudget) {
+        return new BatchSolver(() -> {
+            TwoPhaseSolver solver = new TwoPhaseSolver();
+            //Builds or loads the tables now, so they are not part of the time of the first solve.
+            solver.solve(new PackedCube(), targetLength, timeBudget);
+            return cube -> {
+                long begin = System.nanoTime();
+                Move[] moves = solver.solve(cube, targetLength, timeBudget);
+                return new Solution(moves, solver.getNodes(), System.nanoTime() - begin);
+            };
+        });
+    }
+
+    /**
+     * Returns a batch solver using {@link OptimalSolver}.
+     *
+     * @return
+     */
+    public static BatchSolver optimal() {
+        return new BatchSolver(() -> new OptimalSolver()::solve);
+    }
+
+    /**
+     * Solves given cube on the calling thread, with the solver of that thread. The cube is checked with
+     * {@link StateValidator} first, so only a state which can not be solved gives null and any other failure
+     * of the solver is thrown.
+     *
+     * @param cube
+     * @return the solution, null if the cube can not be solved.
+     */
+    public Solution solve(PackedCube cube) {
+        if(StateValidator.validate(cube) != StateValidator.Verdict.VALID) {
+            return null;
+        }
+        return solvers.get().apply(cube);
+    }
+
+    /**
+     * Solves given cubes over the common ForkJoinPool.
+     *
+     * @param cubes
+     * @return solution of every cube, in the same order, null for cubes which can not be solved.
+     */
+    public Solution[] solve(PackedCube[] cubes) {
+        return solve(cubes, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Solves given cubes over the threads of given pool.
+     *
+     * @param cubes
+     * @param pool
+     * @return solution of every cube, in the same order, null for cubes which can not be solved.
+     */
+    public Solution[] solve(PackedCube[] cubes, ForkJoinPool pool) {
+        Solution[] solutions = new Solution[cubes.length];
+        pool.invoke(new SolveTask(cubes, solutions, 0, cubes.length));
+        return solutions;
+    }
+
+    /**
+     * Solves 'count' cubes given as packed words, corners and edges words of cube i at 2i and 2i + 1,
+     * like {@link org.viwa.Rubik.RandomStates#randomStates(long, int, long[])} writes them. Every state is
+     * checked like {@link #solve(PackedCube)} does, words which are not a cube give null too.
+     *
+     * @param states
+     * @param count
+     * @return solution of every cube, in the same order, null for cubes which can not be solved.
+     */
+    public Solution[] solve(long[] states, int count) {
+        PackedCube[] cubes = new PackedCube[count];
+        for(int i=0; i<count; i++) {
+            cubes[i] = new PackedCube(states[2*i], states[2*i + 1]);
+        }
+        return solve(cubes);
+    }
+
+    /**
+     * Solves cubes from 'from' to 'to', splitting them in halves while there is more than one.
+     */
+    private final class SolveTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final PackedCube[] cubes;
+        private final Solution[] solutions;
+        private final int from;
+        private final int to;
+
+        SolveTask(PackedCube[] cubes, Solution[] solutions, int from, int to) {
+            this.cubes = cubes;
+            this.solutions = solutions;
+            this.from = from;
+            this.to = to;
+        }
+
+        protected void compute() {
+            if(to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new SolveTask(cubes, solutions, from, middle), new SolveTask(cubes, solutions, middle, to));
+            } else if(to > from) {
+                solutions[from] = solve(cubes[from]);
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package org.viwa.Rubik.solver;
+
+import java.nio.ByteBuffer;
+
+import org.viwa.Rubik.Move;
+
+/**
+ * Move and pruning tables of the two-phase solver, generated once when the class is loaded.
+ * Pruning tables are mapped from files instead when {@link TableFile} keeps them.
+ *
+ * Phase 1 brings the cube into the group generated by U, D, R2, L2, F2 and B2 using twist, flip and slice
+ * coordinates and all 18 side turns. Phase 2 solves the cube within that group using corner permutation,
+ * edge permutation and slice permutation coordinates and only the 10 moves of the group.
+ * A move table entry is the coordinate after a move, at coordinate * moves + move. A pruning table entry is the
+ * number of moves needed to solve a pair of coordinates, a lower bound of the moves needed to solve the phase.
+ *
+ * @author Vishal Wakchaure
+ */
+final class CoordinateTables {
+
+    static final int MOVES = Move.SIDE_TURNS;
+
+    //Moves of phase 2, as Move ordinals.
+    static final byte[] PHASE2_MOVES = {
+        (byte) Move.U.ordinal(), (byte) Move.U2.ordinal(), (byte) Move.U_PRIME.ordinal(),
+        (byte) Move.D.ordinal(), (byte) Move.D2.ordinal(), (byte) Move.D_PRIME.ordinal(),
+        (byte) Move.R2.ordinal(), (byte) Move.L2.ordinal(), (byte) Move.F2.ordinal(), (byte) Move.B2.ordinal()
+    };
+
+    static final int PHASE2_MOVE_COUNT = PHASE2_MOVES.length;
+
+    //Phase 1 move tables, for all 18 side turns.
+    static final char[] TWIST_MOVE = new char[CubieCube.TWISTS * MOVES];
+    static final char[] FLIP_MOVE = new char[CubieCube.FLIPS * MOVES];
+    static final char[] SLICE_MOVE = new char[CubieCube.SLICES * MOVES];
+
+    //Phase 2 move tables, for the moves of PHASE2_MOVES.
+    static final char[] CORNER_PERM_MOVE = new char[CubieCube.CORNER_PERMS * PHASE2_MOVE_COUNT];
+    static final char[] EDGE_PERM_MOVE = new char[CubieCube.EDGE_PERMS * PHASE2_MOVE_COUNT];
+    static final char[] SLICE_PERM_MOVE = new char[CubieCube.SLICE_PERMS * PHASE2_MOVE_COUNT];
+
+    //Pruning tables, indexed by slice coordinate * size of the other coordinate + other coordinate.
+    //Kept in files by TableFile when a table directory is set.
+    static final ByteBuffer SLICE_TWIST_PRUNE;
+    static final ByteBuffer SLICE_FLIP_PRUNE;
+    static final ByteBuffer SLICE_CORNER_PRUNE;
+    static final ByteBuffer SLICE_EDGE_PRUNE;
+
+    //Version of the pruning tables, see TableFile.
+    private static final int VERSION = 1;
+
+    static {
+        CubieCube cube = new CubieCube();
+        for(int twist=0; twist<CubieCube.TWISTS; twist++) {
+            cube.setTwist(twist);
+            for(int side=0; side<6; side++) {
+                //Four quarter turns bring the cube back to the coordinate.
+                for(int power=0; power<4; power++) {
+                    cube.move(side*3);
+                    if(power < 3) {
+                        TWIST_MOVE[twist*MOVES + side*3 + power] = (char) cube.getTwist();
+                    }
+                }
+            }
+        }
+
+        cube = new CubieCube();
+        for(int flip=0; flip<CubieCube.FLIPS; flip++) {
+            cube.setFlip(flip);
+            for(int side=0; side<6; side++) {
+                for(int power=0; power<4; power++) {
+                    cube.move(side*3);
+                    if(power < 3) {
+                        FLIP_MOVE[flip*MOVES + side*3 + power] = (char) cube.getFlip();
+                    }
+                }
+            }
+        }
+
+        cube = new CubieCube();
+        for(int slice=0; slice<CubieCube.SLICES; slice++) {
+            cube.setSlice(slice);
+            for(int side=0; side<6; side++) {
+                for(int power=0; power<4; power++) {
+                    cube.move(side*3);
+                    if(power < 3) {
+                        SLICE_MOVE[slice*MOVES + side*3 + power] = (char) cube.getSlice();
+                    }
+                }
+            }
+        }
+
+        CubieCube base = new CubieCube();
+        cube = new CubieCube();
+        for(int perm=0; perm<CubieCube.CORNER_PERMS; perm++) {
+            base.setCornerPerm(perm);
+            base.setEdgePerm(perm);
+            for(int i=0; i<PHASE2_MOVE_COUNT; i++) {
+                cube.set(base);
+                cube.move(PHASE2_MOVES[i]);
+                CORNER_PERM_MOVE[perm*PHASE2_MOVE_COUNT + i] = (char) cube.getCornerPerm();
+                EDGE_PERM_MOVE[perm*PHASE2_MOVE_COUNT + i] = (char) cube.getEdgePerm();
+            }
+        }
+
+        base = new CubieCube();
+        for(int perm=0; perm<CubieCube.SLICE_PERMS; perm++) {
+            base.setSlicePerm(perm);
+            for(int i=0; i<PHASE2_MOVE_COUNT; i++) {
+                cube.set(base);
+                cube.move(PHASE2_MOVES[i]);
+                SLICE_PERM_MOVE[perm*PHASE2_MOVE_COUNT + i] = (char) cube.getSlicePerm();
+            }
+        }
+
+        SLICE_TWIST_PRUNE = TableFile.load("slice-twist", VERSION, CubieCube.SLICES * CubieCube.TWISTS,
+            table -> prune(table, SLICE_MOVE, TWIST_MOVE, CubieCube.TWISTS, MOVES));
+        SLICE_FLIP_PRUNE = TableFile.load("slice-flip", VERSION, CubieCube.SLICES * CubieCube.FLIPS,
+            table -> prune(table, SLICE_MOVE, FLIP_MOVE, CubieCube.FLIPS, MOVES));
+        SLICE_CORNER_PRUNE = TableFile.load("slice-corner-perm", VERSION, CubieCube.SLICE_PERMS * CubieCube.CORNER_PERMS,
+            table -> prune(table, SLICE_PERM_MOVE, CORNER_PERM_MOVE, CubieCube.CORNER_PERMS, PHASE2_MOVE_COUNT));
+        SLICE_EDGE_PRUNE = TableFile.load("slice-edge-perm", VERSION, CubieCube.SLICE_PERMS * CubieCube.EDGE_PERMS,
+            table -> prune(table, SLICE_PERM_MOVE, EDGE_PERM_MOVE, CubieCube.EDGE_PERMS, PHASE2_MOVE_COUNT));
+    }
+
+    private CoordinateTables() {
+    }
+
+    /**
+     * Fills table with distances from the solved pair (0, 0) of two coordinates, by breadth first search over their
+     * move tables.
+     */
+    private static void prune(byte[] table, char[] sliceMove, char[] otherMove, int others, int moves) {
+        java.util.Arrays.fill(table, (byte) -1);
+        table[0] = 0;
+        int done = 1;
+        for(int depth=0; done<table.length; depth++) {
+            for(int i=0; i<table.length; i++) {
+                if(table[i] != depth) {
+                    continue;
+                }
+                int slice = i / others;
+                int other = i % others;
+                for(int move=0; move<moves; move++) {
+                    int next = sliceMove[slice*moves + move]*others + otherMove[other*moves + move];
+                    if(table[next] < 0) {
+                        table[next] = (byte) (depth + 1);
+                        done++;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package org.viwa.Rubik.solver;
+
+import org.viwa.Rubik.Move;
+import org.viwa.Rubik.PackedCube;
+
+/**
+ * Cube at the cubie level, permutation and orientation of every corner and edge slot, with the coordinates
+ * the two-phase solver works on.
+ *
+ * Slots and orientations are those of {@link PackedCube}: corners URF, UFL, ULB, UBR, DFR, DLF, DBL, DRB and edges
+ * UR, UF, UL, UB, DR, DF, DL, DB, FR, FL, BL, BR, the last four being the edges of the middle (UD slice) layer.
+ *
+ * @author Vishal Wakchaure
+ */
+final class CubieCube {
+
+    static final int CORNERS = 8;
+    static final int EDGES = 12;
+
+    //Sizes of the coordinates.
+    static final int TWISTS = 2187;
+    static final int FLIPS = 2048;
+    static final int SLICES = 495;
+    static final int CORNER_PERMS = 40320;
+    static final int EDGE_PERMS = 40320;
+    static final int SLICE_PERMS = 24;
+
+    //First edge of the UD slice.
+    private static final int SLICE_EDGE = 8;
+
+    //Cubie tables of the side turns, indexed by Move ordinal, read from turns of a solved PackedCube.
+    //New slot i gets the piece of slot PERM[move][i], its orientation increased by TWIST/FLIP[move][i].
+    private static final byte[][] CORNER_PERM = new byte[Move.SIDE_TURNS][CORNERS];
+    private static final byte[][] CORNER_TWIST = new byte[Move.SIDE_TURNS][CORNERS];
+    private static final byte[][] EDGE_PERM = new byte[Move.SIDE_TURNS][EDGES];
+    private static final byte[][] EDGE_FLIP = new byte[Move.SIDE_TURNS][EDGES];
+
+    //Binomial coefficients C(n, k), n up to 12 and k up to 4.
+    private static final int[][] BINOMIAL = new int[EDGES + 1][5];
+
+    static {
+        for(int move=0; move<Move.SIDE_TURNS; move++) {
+            PackedCube cube = new PackedCube();
+            cube.applyMove(Move.valueOf(move));
+            for(int slot=0; slot<CORNERS; slot++) {
+                int value = (int) (cube.getCorners() >>> (5*slot)) & 31;
+                CORNER_PERM[move][slot] = (byte) (value & 7);
+                CORNER_TWIST[move][slot] = (byte) (value >>> 3);
+            }
+            for(int slot=0; slot<EDGES; slot++) {
+                int value = (int) (cube.getEdges() >>> (5*slot)) & 31;
+                EDGE_PERM[move][slot] = (byte) (value & 15);
+                EDGE_FLIP[move][slot] = (byte) (value >>> 4);
+            }
+        }
+        for(int n=0; n<=EDGES; n++) {
+            BINOMIAL[n][0] = 1;
+            for(int k=1; k<5 && k<=n; k++) {
+                BINOMIAL[n][k] = BINOMIAL[n-1][k-1] + (k < n ? BINOMIAL[n-1][k] : 0);
+            }
+        }
+    }
+
+    final byte[] cp = new byte[CORNERS];
+    final byte[] co = new byte[CORNERS];
+    final byte[] ep = new byte[EDGES];
+    final byte[] eo = new byte[EDGES];
+
+    private final byte[] corners = new byte[CORNERS];
+    private final byte[] edges = new byte[EDGES];
+
+    /**
+     * Constructs a solved cube.
+     */
+    CubieCube() {
+        for(int i=0; i<CORNERS; i++) {
+            cp[i] = (byte) i;
+        }
+        for(int i=0; i<EDGES; i++) {
+            ep[i] = (byte) i;
+        }
+    }
+
+    /**
+     * Sets this cube from the packed words of a cube held in the reference orientation.
+     *
+     * @param cube
+     */
+    void set(PackedCube cube) {
+        for(int slot=0; slot<CORNERS; slot++) {
+            int value = (int) (cube.getCorners() >>> (5*slot)) & 31;
+            cp[slot] = (byte) (value & 7);
+            co[slot] = (byte) (value >>> 3);
+        }
+        for(int slot=0; slot<EDGES; slot++) {
+            int value = (int) (cube.getEdges() >>> (5*slot)) & 31;
+            ep[slot] = (byte) (value & 15);
+            eo[slot] = (byte) (value >>> 4);
+        }
+    }
+
+    void set(CubieCube cube) {
+        System.arraycopy(cube.cp, 0, cp, 0, CORNERS);
+        System.arraycopy(cube.co, 0, co, 0, CORNERS);
+        System.arraycopy(cube.ep, 0, ep, 0, EDGES);
+        System.arraycopy(cube.eo, 0, eo, 0, EDGES);
+    }
+
+    /**
+     * Applies a side turn.
+     *
+     * @param move Move ordinal, 0 - 17.
+     */
+    void move(int move) {
+        byte[] perm = CORNER_PERM[move];
+        byte[] twist = CORNER_TWIST[move];
+        for(int i=0; i<CORNERS; i++) {
+            corners[i] = (byte) (co[perm[i]] + twist[i]);
+        }
+        for(int i=0; i<CORNERS; i++) {
+            co[i] = (byte) (corners[i] % 3);
+            corners[i] = cp[perm[i]];
+        }
+        System.arraycopy(corners, 0, cp, 0, CORNERS);
+
+        perm = EDGE_PERM[move];
+        byte[] flip = EDGE_FLIP[move];
+        for(int i=0; i<EDGES; i++) {
+            edges[i] = (byte) (eo[perm[i]] ^ flip[i]);
+        }
+        System.arraycopy(edges, 0, eo, 0, EDGES);
+        for(int i=0; i<EDGES; i++) {
+            edges[i] = ep[perm[i]];
+        }
+        System.arraycopy(edges, 0, ep, 0, EDGES);
+    }
+
+    /**
+     * Returns true if this cube can be solved: every corner and edge is in one slot with a valid orientation,
+     * corner twists add up to a multiple of 3, edge flips to a multiple of 2 and both permutations have the same
+     * parity.
+     *
+     * @return
+     */
+    boolean isSolvable() {
+        //Pieces seen, a bit each.
+        int corners = 0;
+        int twist = 0;
+        for(int i=0; i<CORNERS; i++) {
+            if(co[i] > 2) {
+                return false;
+            }
+            corners |= 1 << cp[i];
+            twist += co[i];
+        }
+        int edges = 0;
+        int flip = 0;
+        for(int i=0; i<EDGES; i++) {
+            edges |= 1 << ep[i];
+            flip += eo[i];
+        }
+        return corners == (1 << CORNERS) - 1 && edges == (1 << EDGES) - 1
+            && twist % 3 == 0 && flip % 2 == 0 && parity(cp) == parity(ep);
+    }
+
+    /**
+     * Returns twists of the first seven corners as a number 0 - 2186, the last one follows from them.
+     *
+     * @return
+     */
+    int getTwist() {
+        int twist = 0;
+        for(int i=0; i<CORNERS-1; i++) {
+            twist = twist*3 + co[i];
+        }
+        return twist;
+    }
+
+    void setTwist(int twist) {
+        int sum = 0;
+        for(int i=CORNERS-2; i>=0; i--) {
+            co[i] = (byte) (twist % 3);
+            sum += co[i];
+            twist /= 3;
+        }
+        co[CORNERS-1] = (byte) ((3 - sum % 3) % 3);
+    }
+
+    /**
+     * Returns flips of the first eleven edges as a number 0 - 2047, the last one follows from them.
+     *
+     * @return
+     */
+    int getFlip() {
+        int flip = 0;
+        for(int i=0; i<EDGES-1; i++) {
+            flip = flip*2 + eo[i];
+        }
+        return flip;
+    }
+
+    void setFlip(int flip) {
+        int sum = 0;
+        for(int i=EDGES-2; i>=0; i--) {
+            eo[i] = (byte) (flip & 1);
+            sum += eo[i];
+            flip >>>= 1;
+        }
+        eo[EDGES-1] = (byte) (sum & 1);
+    }
+
+    /**
+     * Returns the slots of the four UD slice edges, regardless of their order, as a number 0 - 494.
+     * It is 0 when they are all in the middle layer.
+     *
+     * @return
+     */
+    int getSlice() {
+        int slice = 0;
+        for(int j=EDGES-1, x=0; j>=0; j--) {
+            if(ep[j] >= SLICE_EDGE) {
+                slice += BINOMIAL[EDGES-1 - j][x+1];
+                x++;
+            }
+        }
+        return slice;
+    }
+
+    void setSlice(int slice) {
+        java.util.Arrays.fill(ep, (byte) -1);
+        for(int j=0, x=4; j<EDGES; j++) {
+            if(x > 0 && slice >= BINOMIAL[EDGES-1 - j][x]) {
+                slice -= BINOMIAL[EDGES-1 - j][x];
+                ep[j] = (byte) (SLICE_EDGE + 4 - x);
+                x--;
+            }
+        }
+        for(int j=0, x=0; j<EDGES; j++) {
+            if(ep[j] < 0) {
+                ep[j] = (byte) x++;
+            }
+        }
+    }
+
+    /**
+     * Returns permutation of the corners, 0 - 40319.
+     *
+     * @return
+     */
+    int getCornerPerm() {
+        return rank(cp, 0, CORNERS);
+    }
+
+    void setCornerPerm(int perm) {
+        unrank(perm, cp, 0, CORNERS);
+    }
+
+    /**
+     * Returns permutation of the eight Up and Down layer edges, 0 - 40319, when they are all in those layers.
+     *
+     * @return
+     */
+    int getEdgePerm() {
+        return rank(ep, 0, SLICE_EDGE);
+    }
+
+    void setEdgePerm(int perm) {
+        unrank(perm, ep, 0, SLICE_EDGE);
+    }
+
+    /**
+     * Returns permutation of the four UD slice edges, 0 - 23, when they are all in the middle layer.
+     *
+     * @return
+     */
+    int getSlicePerm() {
+        return rank(ep, SLICE_EDGE, 4);
+    }
+
+    void setSlicePerm(int perm) {
+        unrank(perm, ep, SLICE_EDGE, 4);
+    }
+
+    /**
+     * Returns the lexicographic rank of a permutation of the values offset .. offset + n - 1,
+     * stored at the same positions.
+     */
+    private static int rank(byte[] perm, int offset, int n) {
+        int rank = 0;
+        for(int i=0; i<n; i++) {
+            int smaller = 0;
+            for(int j=i+1; j<n; j++) {
+                if(perm[offset + j] < perm[offset + i]) {
+                    smaller++;
+                }
+            }
+            rank = rank*(n - i) + smaller;
+        }
+        return rank;
+    }
+
+    private static void unrank(int rank, byte[] perm, int offset, int n) {
+        int used = 0;
+        int factorial = 1;
+        for(int i=2; i<n; i++) {
+            factorial *= i;
+        }
+        for(int i=0; i<n; i++) {
+            int smaller = rank / factorial;
+            rank %= factorial;
+            if(i < n-1) {
+                factorial /= n-1 - i;
+            }
+            //Take the unused value having 'smaller' unused values below it.
+            int value = Integer.numberOfTrailingZeros(~used);
+            for(; smaller>0; smaller--) {
+                value = Integer.numberOfTrailingZeros(~used & -2 << value);
+            }
+            used |= 1 << value;
+            perm[offset + i] = (byte) (offset + value);
+        }
+    }
+
+    private static int parity(byte[] perm) {
+        int parity = 0;
+        for(int i=0; i<perm.length; i++) {
+            for(int j=i+1; j<perm.length; j++) {
+                if(perm[j] < perm[i]) {
+                    parity ^= 1;
+                }
+            }
+        }
+        return parity;
+    }
+}
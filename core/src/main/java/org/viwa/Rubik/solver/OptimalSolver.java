@@ -0,0 +1,140 @@
+package org.viwa.Rubik.solver;
+
+import org.viwa.Rubik.Move;
+import org.viwa.Rubik.PackedCube;
+import org.viwa.Rubik.RubiksCube;
+
+/**
+ * Optimal solver, an IDA* search using the largest of three pattern databases as heuristic:
+ * corner permutation and twist, and slots and flips of two sets of six edges.
+ *
+ * The search keeps the corner coordinates and where every edge is for each depth, so the heuristic of a node is
+ * two move table reads, two index computations and three nibble reads. The databases take about 86 MB and are
+ * built the first time an optimal solver is used, or mapped from files kept by {@link TableFile}. Random states need about 18 moves and may take long to solve.
+ * A solver keeps its search state in the instance, so every thread needs its own solver; the databases are shared.
+ *
+ * @author Vishal Wakchaure
+ */
+public final class OptimalSolver {
+
+    //Longest optimal solution of any cube.
+    private static final int MAX_DEPTH = 20;
+
+    //Axis of each side, sides on the same axis commute.
+    private static final byte[] AXIS = {0, 1, 1, 2, 2, 0};
+
+    private static final class Databases {
+        static final PatternDatabase.Corners CORNERS = new PatternDatabase.Corners();
+        static final PatternDatabase.Edges FIRST_EDGES = new PatternDatabase.Edges(0);
+        static final PatternDatabase.Edges LAST_EDGES = new PatternDatabase.Edges(PatternDatabase.Edges.TRACKED);
+
+        static {
+            CORNERS.load("corners");
+            FIRST_EDGES.load("edges-0");
+            LAST_EDGES.load("edges-6");
+        }
+    }
+
+    //Search state of each depth: corner permutation, twist and code (slot * 2 + flip) of every edge.
+    private final int[] cornerPerm = new int[MAX_DEPTH + 1];
+    private final int[] twist = new int[MAX_DEPTH + 1];
+    private final byte[][] edges = new byte[MAX_DEPTH + 1][CubieCube.EDGES];
+    private final byte[] moves = new byte[MAX_DEPTH];
+    private long nodes;
+
+    /**
+     * Constructs a solver, building the pattern databases if they are not built yet.
+     */
+    public OptimalSolver() {
+        Databases.CORNERS.get(0);
+    }
+
+    /**
+     * Returns a shortest solution of the cube.
+     *
+     * @param cube
+     * @return
+     * @throws IllegalArgumentException if the cube can not be solved.
+     */
+    public Solution solve(RubiksCube cube) {
+        return solve(PackedCube.of(cube));
+    }
+
+    /**
+     * Returns a shortest solution of the cube.
+     *
+     * @param cube
+     * @return
+     * @throws IllegalArgumentException if the cube can not be solved.
+     */
+    public Solution solve(PackedCube cube) {
+        CubieCube start = new CubieCube();
+        //Checked before recoloring, like TwoPhaseSolver does.
+        start.set(cube);
+        if(!start.isSolvable()) {
+            throw new IllegalArgumentException("Cube can not be solved, it has a twisted corner, a flipped edge or two swapped pieces");
+        }
+        start.set(cube.toReferenceOrientation());
+        cornerPerm[0] = start.getCornerPerm();
+        twist[0] = start.getTwist();
+        for(int slot=0; slot<CubieCube.EDGES; slot++) {
+            edges[0][start.ep[slot]] = (byte) (slot*2 + start.eo[slot]);
+        }
+
+        long begin = System.nanoTime();
+        nodes = 0;
+        int length = -1;
+        for(int bound=heuristic(0); length<0; bound++) {
+            length = search(0, bound, -1);
+        }
+
+        Move result[] = new Move[length];
+        for(int i=0; i<length; i++) {
+            result[i] = Move.valueOf(moves[i]);
+        }
+        return new Solution(result, nodes, System.nanoTime() - begin);
+    }
+
+    /**
+     * Searches from the state of given depth for solutions not longer than bound, returns the solution length or -1.
+     */
+    private int search(int depth, int bound, int lastSide) {
+        nodes++;
+        int distance = heuristic(depth);
+        if(distance == 0) {
+            return depth;
+        }
+        if(depth + distance > bound) {
+            return -1;
+        }
+        byte[] codes = edges[depth];
+        byte[] next = edges[depth + 1];
+        for(int move=0; move<Move.SIDE_TURNS; move++) {
+            int side = move / 3;
+            if(lastSide >= 0 && (side == lastSide || AXIS[side] == AXIS[lastSide] && side < lastSide)) {
+                continue;
+            }
+            cornerPerm[depth + 1] = PatternDatabase.Corners.PERM_MOVE[cornerPerm[depth]*Move.SIDE_TURNS + move];
+            twist[depth + 1] = PatternDatabase.Corners.TWIST_MOVE[twist[depth]*Move.SIDE_TURNS + move];
+            for(int edge=0; edge<CubieCube.EDGES; edge++) {
+                next[edge] = PatternDatabase.Edges.CODE_MOVE[codes[edge]*Move.SIDE_TURNS + move];
+            }
+            moves[depth] = (byte) move;
+            int length = search(depth + 1, bound, side);
+            if(length >= 0) {
+                return length;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the largest number of moves the pattern databases need for the state of given depth,
+     * 0 only when the cube is solved.
+     */
+    private int heuristic(int depth) {
+        int distance = Databases.CORNERS.get(cornerPerm[depth]*CubieCube.TWISTS + twist[depth]);
+        distance = Math.max(distance, Databases.FIRST_EDGES.get(Databases.FIRST_EDGES.indexOf(edges[depth])));
+        return Math.max(distance, Databases.LAST_EDGES.get(Databases.LAST_EDGES.indexOf(edges[depth])));
+    }
+}
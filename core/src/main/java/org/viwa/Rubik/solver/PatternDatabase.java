@@ -0,0 +1,289 @@
+package org.viwa.Rubik.solver;
+
+import java.nio.ByteBuffer;
+import java.util.stream.IntStream;
+
+import org.viwa.Rubik.Move;
+
+/**
+ * Number of moves needed to solve a part of the cube, for every state of that part, stored in 4 bits per state.
+ *
+ * Tables are mapped from their files when there are any, see {@link TableFile}, and filled otherwise,
+ * by breadth first search from the solved state. While less than half of the states are known
+ * the search expands the states of the last depth, after that it checks every unknown state for a neighbour of
+ * the last depth, which is done in parallel.
+ *
+ * @author Vishal Wakchaure
+ */
+abstract class PatternDatabase {
+
+    //Value of states not reached yet.
+    private static final int UNKNOWN = 15;
+
+    //States checked by one parallel task, even so tasks never write to the same byte.
+    private static final int CHUNK = 1 << 16;
+
+    //Version of the table contents, see TableFile.
+    private static final int VERSION = 1;
+
+    final int size;
+
+    //Index of the solved state.
+    private final int solved;
+
+    private ByteBuffer table;
+
+    PatternDatabase(int size, int solved) {
+        this.size = size;
+        this.solved = solved;
+    }
+
+    /**
+     * Writes indexes of the 18 states one side turn away from state 'index'.
+     *
+     * @param index
+     * @param neighbours at least 18 entries.
+     */
+    abstract void neighbours(int index, int[] neighbours);
+
+    /**
+     * Returns number of moves needed to solve state 'index'.
+     *
+     * @param index
+     * @return
+     */
+    final int get(int index) {
+        return table.get(index >>> 1) >>> ((index & 1) << 2) & 15;
+    }
+
+    /**
+     * Maps the table from its file, see {@link TableFile}, or builds it.
+     *
+     * @param name file name of the table.
+     */
+    final void load(String name) {
+        table = TableFile.load(name, VERSION, (size + 1) / 2, this::build);
+    }
+
+    private static int get(byte[] table, int index) {
+        return table[index >>> 1] >>> ((index & 1) << 2) & 15;
+    }
+
+    private static void set(byte[] table, int index, int value) {
+        int shift = (index & 1) << 2;
+        table[index >>> 1] = (byte) (table[index >>> 1] & ~(15 << shift) | value << shift);
+    }
+
+    /**
+     * Fills the table.
+     */
+    private void build(byte[] table) {
+        java.util.Arrays.fill(table, (byte) -1);
+        set(table, solved, 0);
+        long known = 1;
+        int neighbours[] = new int[Move.SIDE_TURNS];
+        for(int depth=0; known<size; depth++) {
+            long found = 0;
+            if(known < size / 2) {
+                for(int i=0; i<size; i++) {
+                    if(get(table, i) != depth) {
+                        continue;
+                    }
+                    neighbours(i, neighbours);
+                    for(int neighbour : neighbours) {
+                        if(get(table, neighbour) == UNKNOWN) {
+                            set(table, neighbour, depth + 1);
+                            found++;
+                        }
+                    }
+                }
+            } else {
+                int last = depth;
+                found = IntStream.range(0, (size + CHUNK - 1) / CHUNK).parallel()
+                    .mapToLong(chunk -> pull(table, chunk*CHUNK, Math.min(size, (chunk + 1)*CHUNK), last))
+                    .sum();
+            }
+            if(found == 0) {
+                throw new IllegalStateException("Pattern database has unreachable states");
+            }
+            known += found;
+        }
+    }
+
+    /**
+     * Sets unknown states of the range having a neighbour of given depth, returns how many were set.
+     */
+    private long pull(byte[] table, int from, int to, int depth) {
+        int neighbours[] = new int[Move.SIDE_TURNS];
+        long found = 0;
+        for(int i=from; i<to; i++) {
+            if(get(table, i) != UNKNOWN) {
+                continue;
+            }
+            neighbours(i, neighbours);
+            for(int neighbour : neighbours) {
+                if(get(table, neighbour) == depth) {
+                    set(table, i, depth + 1);
+                    found++;
+                    break;
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Corner permutation and twist, index cornerPerm * 2187 + twist, 88179840 states.
+     */
+    static final class Corners extends PatternDatabase {
+
+        static final int SIZE = CubieCube.CORNER_PERMS * CubieCube.TWISTS;
+
+        //Move tables of corner permutation and twist for all side turns, at coordinate * 18 + move.
+        static final char[] PERM_MOVE = new char[CubieCube.CORNER_PERMS * Move.SIDE_TURNS];
+        static final char[] TWIST_MOVE = new char[CubieCube.TWISTS * Move.SIDE_TURNS];
+
+        static {
+            CubieCube cube = new CubieCube();
+            for(int perm=0; perm<CubieCube.CORNER_PERMS; perm++) {
+                cube.setCornerPerm(perm);
+                for(int side=0; side<6; side++) {
+                    //Four quarter turns bring the cube back to the coordinate.
+                    for(int power=0; power<4; power++) {
+                        cube.move(side*3);
+                        if(power < 3) {
+                            PERM_MOVE[perm*Move.SIDE_TURNS + side*3 + power] = (char) cube.getCornerPerm();
+                        }
+                    }
+                }
+            }
+            for(int twist=0; twist<CubieCube.TWISTS; twist++) {
+                cube.setTwist(twist);
+                for(int side=0; side<6; side++) {
+                    for(int power=0; power<4; power++) {
+                        cube.move(side*3);
+                        if(power < 3) {
+                            TWIST_MOVE[twist*Move.SIDE_TURNS + side*3 + power] = (char) cube.getTwist();
+                        }
+                    }
+                }
+            }
+        }
+
+        Corners() {
+            super(SIZE, 0);
+        }
+
+        void neighbours(int index, int[] neighbours) {
+            int perm = index / CubieCube.TWISTS * Move.SIDE_TURNS;
+            int twist = index % CubieCube.TWISTS * Move.SIDE_TURNS;
+            for(int move=0; move<Move.SIDE_TURNS; move++) {
+                neighbours[move] = PERM_MOVE[perm + move]*CubieCube.TWISTS + TWIST_MOVE[twist + move];
+            }
+        }
+    }
+
+    /**
+     * Slots and flips of six edges, 42577920 states.
+     *
+     * Edges are followed by where they are: code slot * 2 + flip of every edge, indexed by edge.
+     * The index ranks the slots of the six edges, in edge order, among the 12 slots, times 64, plus their flips.
+     */
+    static final class Edges extends PatternDatabase {
+
+        static final int TRACKED = 6;
+        static final int SIZE = 665280 * 64;
+
+        //Code of an edge after a side turn, at code * 18 + move.
+        static final byte[] CODE_MOVE = new byte[CubieCube.EDGES * 2 * Move.SIDE_TURNS];
+
+        static {
+            for(int move=0; move<Move.SIDE_TURNS; move++) {
+                CubieCube cube = new CubieCube();
+                cube.move(move);
+                for(int slot=0; slot<CubieCube.EDGES; slot++) {
+                    //Edge of slot ep[slot] moved to slot, flipped by eo[slot].
+                    for(int flip=0; flip<2; flip++) {
+                        CODE_MOVE[(cube.ep[slot]*2 + flip)*Move.SIDE_TURNS + move] = (byte) (slot*2 + (flip ^ cube.eo[slot]));
+                    }
+                }
+            }
+        }
+
+        //First tracked edge.
+        private final int first;
+
+        Edges(int first) {
+            super(SIZE, solvedIndex(first));
+            this.first = first;
+        }
+
+        private static int solvedIndex(int first) {
+            byte codes[] = new byte[TRACKED];
+            for(int k=0; k<TRACKED; k++) {
+                codes[k] = (byte) ((first + k)*2);
+            }
+            return index(codes, 0);
+        }
+
+        /**
+         * Returns index of the six edges of codes[offset .. offset + 5].
+         *
+         * @param codes
+         * @param offset
+         * @return
+         */
+        static int index(byte[] codes, int offset) {
+            int index = 0;
+            int used = 0;
+            int flips = 0;
+            for(int k=0; k<TRACKED; k++) {
+                int code = codes[offset + k];
+                int slot = code >>> 1;
+                index = index*(CubieCube.EDGES - k) + slot - Integer.bitCount(used & ((1 << slot) - 1));
+                used |= 1 << slot;
+                flips = flips << 1 | code & 1;
+            }
+            return index << TRACKED | flips;
+        }
+
+        void neighbours(int index, int[] neighbours) {
+            byte codes[] = new byte[TRACKED];
+            int flips = index & (1 << TRACKED) - 1;
+            index >>>= TRACKED;
+            int digits[] = new int[TRACKED];
+            for(int k=TRACKED-1; k>=0; k--) {
+                digits[k] = index % (CubieCube.EDGES - k);
+                index /= CubieCube.EDGES - k;
+            }
+            int used = 0;
+            for(int k=0; k<TRACKED; k++) {
+                //Take the free slot having digits[k] free slots below it.
+                int slot = Integer.numberOfTrailingZeros(~used);
+                for(int d=digits[k]; d>0; d--) {
+                    slot = Integer.numberOfTrailingZeros(~used & -2 << slot);
+                }
+                used |= 1 << slot;
+                codes[k] = (byte) (slot*2 + (flips >>> (TRACKED-1 - k) & 1));
+            }
+
+            byte moved[] = new byte[TRACKED];
+            for(int move=0; move<Move.SIDE_TURNS; move++) {
+                for(int k=0; k<TRACKED; k++) {
+                    moved[k] = CODE_MOVE[codes[k]*Move.SIDE_TURNS + move];
+                }
+                neighbours[move] = index(moved, 0);
+            }
+        }
+
+        /**
+         * Returns index of the tracked edges of the given codes of all 12 edges.
+         *
+         * @param codes
+         * @return
+         */
+        int indexOf(byte[] codes) {
+            return index(codes, first);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.viwa.Rubik.solver;
+
+import org.viwa.Rubik.Move;
+
+/**
+ * Moves solving a cube along with statistics of the search that found them.
+ *
+ * @author Vishal Wakchaure
+ */
+public final class Solution {
+
+    private final Move[] moves;
+    private final long nodes;
+    private final long time;
+
+    Solution(Move[] moves, long nodes, long time) {
+        this.moves = moves;
+        this.nodes = nodes;
+        this.time = time;
+    }
+
+    /**
+     * Returns side turns solving the cube, as the cube is held.
+     *
+     * @return
+     */
+    public Move[] getMoves() {
+        return moves.clone();
+    }
+
+    /**
+     * Returns number of moves, which is the depth the search found the solution at.
+     *
+     * @return
+     */
+    public int getLength() {
+        return moves.length;
+    }
+
+    /**
+     * Returns number of search nodes expanded.
+     *
+     * @return
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns time spent searching, in nanoseconds.
+     *
+     * @return
+     */
+    public long getTime() {
+        return time;
+    }
+
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        for(Move move : moves) {
+            result.append(move.getNotation()).append(' ');
+        }
+        result.append('(').append(moves.length).append(" moves, ").append(nodes).append(" nodes, ")
+            .append(time / 1000000).append(" ms)");
+        return result.toString();
+    }
+}
@@ -0,0 +1,261 @@
+package org.viwa.Rubik.solver;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import org.viwa.Rubik.MoveSequence;
+import org.viwa.Rubik.PackedCube;
+
+/**
+ * Streams scrambles from a channel to their solutions on another one, one line each.
+ *
+ * Every input line is a scramble in standard notation (like "R U R' U2"), applied to a solved cube held with
+ * WHITE side in front. Every output line is the solution of the scramble on the same input line, or "ERROR" and
+ * the reason if the line is not a scramble or is longer than 4096 bytes. Lines are read through a buffer as they are
+ * needed and solved by a {@link BatchSolver} over a ForkJoinPool, with at most 'window' lines in flight: once the
+ * window is full the next line is only read after the oldest one is written. So memory does not grow with the input,
+ * and solutions are written in input order.
+ *
+ * @author Vishal Wakchaure
+ */
+public final class SolvePipeline {
+
+    /**
+     * Receives progress of a running pipeline, about once a second and once at the end.
+     */
+    public interface Listener {
+
+        /**
+         * @param lines number of solutions written.
+         * @param bytes number of input bytes read.
+         * @param nanos time since the pipeline started.
+         */
+        void progress(long lines, long bytes, long nanos);
+    }
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    //Longest line read, longer ones are skipped and answered with an error.
+    private static final int MAX_LINE = 1 << 12;
+
+    private static final long REPORT_INTERVAL = 1000000000L;
+
+    private final BatchSolver solver;
+    private final int window;
+    private final ForkJoinPool pool;
+    private Listener listener;
+
+    /**
+     * Constructs a pipeline solving over the common ForkJoinPool.
+     *
+     * @param solver
+     * @param window most lines being solved at once.
+     */
+    public SolvePipeline(BatchSolver solver, int window) {
+        this(solver, window, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a pipeline solving over given pool.
+     *
+     * @param solver
+     * @param window most lines being solved at once.
+     * @param pool
+     */
+    public SolvePipeline(BatchSolver solver, int window, ForkJoinPool pool) {
+        if(window < 1) {
+            throw new IllegalArgumentException("Window must be at least 1");
+        }
+        this.solver = solver;
+        this.window = window;
+        this.pool = pool;
+    }
+
+    /**
+     * Sets the listener receiving progress, null for none.
+     *
+     * @param listener
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Solves scrambles of input file into output file, which is created or replaced.
+     *
+     * @param input
+     * @param output
+     * @return number of lines solved.
+     * @throws IOException
+     */
+    public long run(Path input, Path output) throws IOException {
+        try(FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+            FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            return run(in, out);
+        }
+    }
+
+    /**
+     * Solves scrambles read from input until its end, writing solutions to output. Channels are not closed.
+     *
+     * @param input
+     * @param output
+     * @return number of lines solved.
+     * @throws IOException
+     */
+    public long run(ReadableByteChannel input, WritableByteChannel output) throws IOException {
+        long begin = System.nanoTime();
+        long nextReport = begin + REPORT_INTERVAL;
+        LineReader reader = new LineReader(input);
+        ByteBuffer out = ByteBuffer.allocate(BUFFER_SIZE);
+        ArrayDeque<ForkJoinTask<String>> inFlight = new ArrayDeque<>(window);
+        long lines = 0;
+
+        String line;
+        while((line = reader.readLine()) != null) {
+            if(inFlight.size() == window) {
+                write(inFlight.poll().join(), out, output);
+                lines++;
+                long now = System.nanoTime();
+                if(listener != null && now >= nextReport) {
+                    listener.progress(lines, reader.bytes, now - begin);
+                    nextReport = now + REPORT_INTERVAL;
+                }
+            }
+            String scramble = line;
+            boolean tooLong = reader.tooLong;
+            inFlight.add(pool.submit(() -> tooLong ? "ERROR line too long" : solveLine(scramble)));
+        }
+        while(!inFlight.isEmpty()) {
+            write(inFlight.poll().join(), out, output);
+            lines++;
+        }
+        out.flip();
+        while(out.hasRemaining()) {
+            output.write(out);
+        }
+        if(listener != null) {
+            listener.progress(lines, reader.bytes, System.nanoTime() - begin);
+        }
+        return lines;
+    }
+
+    /**
+     * Returns output line of an input line.
+     */
+    private String solveLine(String line) {
+        try {
+            PackedCube cube = new PackedCube();
+            MoveSequence.parse(line).applyTo(cube);
+            Solution solution = solver.solve(cube);
+            if(solution == null) {
+                return "ERROR Cube can not be solved";
+            }
+            return MoveSequence.of(solution.getMoves()).toString();
+        } catch(IllegalArgumentException e) {
+            return "ERROR " + e.getMessage();
+        }
+    }
+
+    /**
+     * Appends a line to the output buffer, writing the buffer out when it is full.
+     */
+    private static void write(String line, ByteBuffer out, WritableByteChannel output) throws IOException {
+        byte[] bytes = (line + '\n').getBytes(StandardCharsets.US_ASCII);
+        int offset = 0;
+        while(offset < bytes.length) {
+            if(!out.hasRemaining()) {
+                out.flip();
+                while(out.hasRemaining()) {
+                    output.write(out);
+                }
+                out.clear();
+            }
+            int length = Math.min(out.remaining(), bytes.length - offset);
+            out.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    /**
+     * Reads lines of a channel through a buffer, ending with "\n" or "\r\n".
+     */
+    private static final class LineReader {
+        private final ReadableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        //One more byte than the longest line, for its "\r".
+        private final byte[] line = new byte[MAX_LINE + 1];
+        private boolean ended;
+        private long bytes;
+
+        //Whether the last line read was longer than MAX_LINE, only its start is returned then.
+        private boolean tooLong;
+
+        LineReader(ReadableByteChannel channel) {
+            this.channel = channel;
+            buffer.flip();
+        }
+
+        /**
+         * Returns next line, null at the end of the channel.
+         */
+        String readLine() throws IOException {
+            int length = 0;
+            tooLong = false;
+            boolean read = false;
+            while(true) {
+                if(!buffer.hasRemaining()) {
+                    if(ended || !fill()) {
+                        return read ? text(length) : null;
+                    }
+                }
+                read = true;
+                byte b = buffer.get();
+                if(b == '\n') {
+                    return text(length);
+                }
+                if(length < line.length) {
+                    line[length++] = b;
+                } else {
+                    tooLong = true;
+                }
+            }
+        }
+
+        private boolean fill() throws IOException {
+            buffer.clear();
+            int count;
+            do {
+                count = channel.read(buffer);
+            } while(count == 0);
+            buffer.flip();
+            if(count < 0) {
+                ended = true;
+                return false;
+            }
+            bytes += count;
+            return true;
+        }
+
+        private String text(int length) {
+            if(length > 0 && line[length - 1] == '\r') {
+                length--;
+            }
+            if(length > MAX_LINE) {
+                tooLong = true;
+                length = MAX_LINE;
+            }
+            return new String(line, 0, length, StandardCharsets.US_ASCII);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package org.viwa.Rubik.solver;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Solver tables kept in files, so they are generated once and later mapped into memory read only.
+ *
+ * Tables are written to the directory given by the system property {@value #DIRECTORY_PROPERTY}, one file
+ * 'name.tbl' per table. When the property is not set tables are generated in memory on every start.
+ * A file starts with a header of 32 big endian bytes: magic "RBKT", file format version, table version,
+ * 4 reserved bytes, table length in bytes and the CRC32 of the table, followed by the table itself.
+ *
+ * Mapping a file only checks the header, so start up does not read the table. The CRC32 is checked too when the
+ * system property {@value #VERIFY_PROPERTY} is true. Files not matching the expected header are generated again.
+ * Mapped pages are shared by every process mapping the same file.
+ *
+ * @author Vishal Wakchaure
+ */
+final class TableFile {
+
+    static final String DIRECTORY_PROPERTY = "org.viwa.Rubik.tables";
+    static final String VERIFY_PROPERTY = "org.viwa.Rubik.tables.verify";
+
+    private static final int MAGIC = 0x52424B54;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+
+    private static final System.Logger LOGGER = System.getLogger(TableFile.class.getName());
+
+    private TableFile() {
+    }
+
+    /**
+     * Returns the table of given name, mapped from its file if there is a valid one, generated otherwise.
+     * A generated table is written to its file when a table directory is set. A table which can not be written
+     * is still returned, and generated again on the next start.
+     *
+     * @param name file name of the table, without extension.
+     * @param version version of the table contents, files of other versions are generated again.
+     * @param length length of the table in bytes.
+     * @param generator fills the table.
+     * @return read only table.
+     */
+    static ByteBuffer load(String name, int version, int length, Consumer<byte[]> generator) {
+        String directory = System.getProperty(DIRECTORY_PROPERTY);
+        Path path = directory == null ? null : Paths.get(directory, name + ".tbl");
+        if(path != null && Files.isRegularFile(path)) {
+            try {
+                ByteBuffer table = map(path, version, length);
+                if(table != null) {
+                    return table;
+                }
+            } catch(IOException e) {
+                //Unreadable file, generated and written again below.
+                LOGGER.log(System.Logger.Level.WARNING, "Can not read table file " + path + ", generating it again", e);
+            }
+        }
+
+        byte table[] = new byte[length];
+        generator.accept(table);
+        if(path != null) {
+            try {
+                write(path, version, table);
+            } catch(IOException e) {
+                //Directory not writable, the table is only kept in memory.
+                LOGGER.log(System.Logger.Level.WARNING, "Can not write table file " + path + ", keeping the table in memory only", e);
+            }
+        }
+        return ByteBuffer.wrap(table).asReadOnlyBuffer();
+    }
+
+    /**
+     * Maps table of the given file, returns null if the header does not match.
+     *
+     * @param path
+     * @param version
+     * @param length
+     * @return
+     * @throws IOException
+     */
+    static ByteBuffer map(Path path, int version, int length) throws IOException {
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while(header.hasRemaining()) {
+                if(channel.read(header) < 0) {
+                    break;
+                }
+            }
+            header.flip();
+            if(header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != FORMAT_VERSION
+                || header.getInt() != version) {
+                return null;
+            }
+            header.getInt();
+            long fileLength = header.getLong();
+            long checksum = header.getLong();
+            if(fileLength != length || channel.size() != HEADER_SIZE + (long) length) {
+                return null;
+            }
+            ByteBuffer table = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, length);
+            if(Boolean.getBoolean(VERIFY_PROPERTY) && checksum(table) != checksum) {
+                return null;
+            }
+            return table;
+        }
+    }
+
+    /**
+     * Writes table to the given file, through a temporary file so other processes never see a partial table.
+     *
+     * @param path
+     * @param version
+     * @param table
+     * @throws IOException
+     */
+    static void write(Path path, int version, byte[] table) throws IOException {
+        ByteBuffer data = ByteBuffer.wrap(table);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(version).putInt(0);
+        header.putLong(table.length).putLong(checksum(data));
+        header.flip();
+
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try(FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                while(header.hasRemaining()) {
+                    channel.write(header);
+                }
+                while(data.hasRemaining()) {
+                    channel.write(data);
+                }
+                channel.force(true);
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static long checksum(ByteBuffer table) {
+        CRC32 crc = new CRC32();
+        crc.update(table.duplicate());
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,229 @@
+package org.viwa.Rubik.solver;
+
+import org.viwa.Rubik.Move;
+import org.viwa.Rubik.PackedCube;
+import org.viwa.Rubik.RubiksCube;
+
+/**
+ * Near optimal solver using Kociemba's two-phase algorithm.
+ *
+ * Phase 1 searches move sequences bringing the cube into the group generated by U, D, R2, L2, F2 and B2,
+ * phase 2 solves it within that group. Both phases are iterative deepening searches over the coordinates of
+ * {@link CubieCube}, pruned by the tables of {@link CoordinateTables}. After a first solution is found the search
+ * goes on with longer phase 1 sequences looking for shorter solutions, until one is not longer than the target
+ * length or the time budget is used up.
+ *
+ * Solutions are side turns as the cube is currently held, applying them with {@link RubiksCube#applyMove(Move)}
+ * solves the cube. A solver keeps its search state in the instance, so every thread needs its own solver;
+ * the tables are shared.
+ *
+ * @author Vishal Wakchaure
+ */
+public final class TwoPhaseSolver {
+
+    public static final int DEFAULT_TARGET_LENGTH = 22;
+    public static final long DEFAULT_TIME_BUDGET = 1000;
+
+    //Longest phase 1 and phase 2 solutions ever needed.
+    private static final int PHASE1_MAX_DEPTH = 12;
+    private static final int PHASE2_MAX_DEPTH = 18;
+    private static final int MAX_LENGTH = PHASE1_MAX_DEPTH + PHASE2_MAX_DEPTH;
+
+    //Axis of each side, sides on the same axis commute.
+    private static final byte[] AXIS = {0, 1, 1, 2, 2, 0};
+
+    //Number of searched nodes between two looks at the clock.
+    private static final int CLOCK_INTERVAL = 1 << 12;
+
+    private final CubieCube start = new CubieCube();
+    private final CubieCube cube = new CubieCube();
+    private final byte[] moves = new byte[MAX_LENGTH];
+    private final byte[] solution = new byte[MAX_LENGTH];
+    private int solutionLength;
+    private int targetLength;
+    private long deadline;
+    private long nodes;
+    private boolean stopped;
+
+    /**
+     * Returns a solution of the cube, not longer than {@link #DEFAULT_TARGET_LENGTH} moves if found within
+     * {@link #DEFAULT_TIME_BUDGET} milliseconds.
+     *
+     * @param cube
+     * @return side turns solving the cube.
+     * @throws IllegalArgumentException if the cube can not be solved.
+     */
+    public Move[] solve(RubiksCube cube) {
+        return solve(cube, DEFAULT_TARGET_LENGTH, DEFAULT_TIME_BUDGET);
+    }
+
+    /**
+     * Returns a solution of the cube, not longer than targetLength moves if found within the time budget.
+     * Otherwise the shortest solution found is returned. When no solution is found in time the search goes on
+     * until the first one.
+     *
+     * @param cube
+     * @param targetLength number of moves good enough to stop searching.
+     * @param timeBudget milliseconds.
+     * @return side turns solving the cube.
+     * @throws IllegalArgumentException if the cube can not be solved.
+     */
+    public Move[] solve(RubiksCube cube, int targetLength, long timeBudget) {
+        return solve(PackedCube.of(cube), targetLength, timeBudget);
+    }
+
+    /**
+     * Returns a solution of the cube, see {@link #solve(RubiksCube, int, long)}.
+     *
+     * @param cube
+     * @param targetLength number of moves good enough to stop searching.
+     * @param timeBudget milliseconds.
+     * @return side turns solving the cube.
+     * @throws IllegalArgumentException if the cube can not be solved.
+     */
+    public Move[] solve(PackedCube cube, int targetLength, long timeBudget) {
+        //Pieces relative to the centers can be solved however the cube is held, checked before they are recolored.
+        start.set(cube);
+        if(!start.isSolvable()) {
+            throw new IllegalArgumentException("Cube can not be solved, it has a twisted corner, a flipped edge or two swapped pieces");
+        }
+        start.set(cube.toReferenceOrientation());
+        this.targetLength = targetLength;
+        this.deadline = System.nanoTime() + timeBudget * 1000000;
+        this.solutionLength = MAX_LENGTH + 1;
+        this.nodes = 0;
+        this.stopped = false;
+
+        int twist = start.getTwist();
+        int flip = start.getFlip();
+        int slice = start.getSlice();
+        int depth = phase1Distance(twist, flip, slice);
+        for(; depth<=PHASE1_MAX_DEPTH && depth<solutionLength && !stopped; depth++) {
+            phase1(twist, flip, slice, 0, depth, -1);
+        }
+
+        Move result[] = new Move[solutionLength];
+        for(int i=0; i<solutionLength; i++) {
+            result[i] = Move.valueOf(solution[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Returns number of search nodes expanded by the last solve.
+     *
+     * @return
+     */
+    long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Searches phase 1 sequences of exactly 'togo' more moves.
+     */
+    private void phase1(int twist, int flip, int slice, int depth, int togo, int lastSide) {
+        if(togo == 0) {
+            //A sequence ending with a phase 2 move was already tried one move shorter.
+            if(depth == 0 || !isPhase2Move(moves[depth-1])) {
+                phase2Start(depth);
+            }
+            return;
+        }
+        for(int move=0; move<CoordinateTables.MOVES && !stopped; move++) {
+            int side = move / 3;
+            if(lastSide >= 0 && (side == lastSide || AXIS[side] == AXIS[lastSide] && side < lastSide)) {
+                continue;
+            }
+            int nextTwist = CoordinateTables.TWIST_MOVE[twist*CoordinateTables.MOVES + move];
+            int nextFlip = CoordinateTables.FLIP_MOVE[flip*CoordinateTables.MOVES + move];
+            int nextSlice = CoordinateTables.SLICE_MOVE[slice*CoordinateTables.MOVES + move];
+            if(phase1Distance(nextTwist, nextFlip, nextSlice) > togo - 1) {
+                continue;
+            }
+            moves[depth] = (byte) move;
+            tick();
+            phase1(nextTwist, nextFlip, nextSlice, depth + 1, togo - 1, side);
+        }
+    }
+
+    /**
+     * Looks for phase 2 sequences after the phase 1 sequence in moves, short enough to improve the solution.
+     */
+    private void phase2Start(int phase1Length) {
+        cube.set(start);
+        for(int i=0; i<phase1Length; i++) {
+            cube.move(moves[i]);
+        }
+        int cornerPerm = cube.getCornerPerm();
+        int edgePerm = cube.getEdgePerm();
+        int slicePerm = cube.getSlicePerm();
+        int maxDepth = Math.min(PHASE2_MAX_DEPTH, solutionLength - 1 - phase1Length);
+        int lastSide = phase1Length > 0 ? moves[phase1Length-1] / 3 : -1;
+
+        for(int depth=phase2Distance(cornerPerm, edgePerm, slicePerm); depth<=maxDepth; depth++) {
+            if(phase2(cornerPerm, edgePerm, slicePerm, phase1Length, depth, lastSide)) {
+                solutionLength = phase1Length + depth;
+                System.arraycopy(moves, 0, solution, 0, solutionLength);
+                if(solutionLength <= targetLength) {
+                    stopped = true;
+                }
+                return;
+            }
+            if(stopped) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Searches phase 2 sequences of exactly 'togo' more moves, returns true when the cube is solved.
+     */
+    private boolean phase2(int cornerPerm, int edgePerm, int slicePerm, int depth, int togo, int lastSide) {
+        if(togo == 0) {
+            return cornerPerm == 0 && edgePerm == 0 && slicePerm == 0;
+        }
+        for(int i=0; i<CoordinateTables.PHASE2_MOVE_COUNT && !stopped; i++) {
+            int move = CoordinateTables.PHASE2_MOVES[i];
+            int side = move / 3;
+            if(lastSide >= 0 && (side == lastSide || AXIS[side] == AXIS[lastSide] && side < lastSide)) {
+                continue;
+            }
+            int nextCornerPerm = CoordinateTables.CORNER_PERM_MOVE[cornerPerm*CoordinateTables.PHASE2_MOVE_COUNT + i];
+            int nextEdgePerm = CoordinateTables.EDGE_PERM_MOVE[edgePerm*CoordinateTables.PHASE2_MOVE_COUNT + i];
+            int nextSlicePerm = CoordinateTables.SLICE_PERM_MOVE[slicePerm*CoordinateTables.PHASE2_MOVE_COUNT + i];
+            if(phase2Distance(nextCornerPerm, nextEdgePerm, nextSlicePerm) > togo - 1) {
+                continue;
+            }
+            moves[depth] = (byte) move;
+            tick();
+            if(phase2(nextCornerPerm, nextEdgePerm, nextSlicePerm, depth + 1, togo - 1, side)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int phase1Distance(int twist, int flip, int slice) {
+        return Math.max(CoordinateTables.SLICE_TWIST_PRUNE.get(slice*CubieCube.TWISTS + twist),
+            CoordinateTables.SLICE_FLIP_PRUNE.get(slice*CubieCube.FLIPS + flip));
+    }
+
+    private static int phase2Distance(int cornerPerm, int edgePerm, int slicePerm) {
+        return Math.max(CoordinateTables.SLICE_CORNER_PRUNE.get(slicePerm*CubieCube.CORNER_PERMS + cornerPerm),
+            CoordinateTables.SLICE_EDGE_PRUNE.get(slicePerm*CubieCube.EDGE_PERMS + edgePerm));
+    }
+
+    private static boolean isPhase2Move(int move) {
+        int side = move / 3;
+        return side == 3 || side == 4 || move % 3 == 1;
+    }
+
+    /**
+     * Counts a node and stops the search once the time budget is used up, if a solution was found.
+     */
+    private void tick() {
+        if((++nodes & (CLOCK_INTERVAL - 1)) == 0 && solutionLength <= MAX_LENGTH && System.nanoTime() > deadline) {
+            stopped = true;
+        }
+    }
+}
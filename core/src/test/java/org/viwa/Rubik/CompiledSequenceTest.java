@@ -0,0 +1,137 @@
+package org.viwa.Rubik;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compiled sequences against the same moves applied one by one, whole cube rotations x y z being played as
+ * the three layers turning together.
+ *
+ * @author Vishal Wakchaure
+ */
+class CompiledSequenceTest {
+
+    private static final String[] TOKENS = {
+        "F", "R", "L", "U", "D", "B", "M", "E", "S", "x", "y", "z"
+    };
+
+    //Layer turns doing a quarter of x, y and z.
+    private static final String[] AXIS_TURNS = {"R M' L'", "U E' D'", "F S B'"};
+
+    @Test
+    void rotationsTurnAllLayers() {
+        assertSame("x", "R M' L'");
+        assertSame("y", "U E' D'");
+        assertSame("z", "F S B'");
+        assertSame("x' y2 z", "R' M L U2 E2 D2 F S B'");
+    }
+
+    @Test
+    void sequencesMatchMovesOneByOne() {
+        Random random = new Random(14);
+        for(int test=0; test<100; test++) {
+            assertSame(randomSequence(random, 1 + random.nextInt(20)), null);
+        }
+    }
+
+    @Test
+    void thenInverseAndPower() {
+        Random random = new Random(15);
+        for(int test=0; test<50; test++) {
+            String first = randomSequence(random, 1 + random.nextInt(10));
+            String second = randomSequence(random, 1 + random.nextInt(10));
+            CompiledSequence a = CompiledSequence.parse(first);
+            CompiledSequence b = CompiledSequence.parse(second);
+            assertSame(a.then(b), first + " " + second);
+            assertSame(a.then(a.inverse()), "");
+            assertSame(a.inverse().then(a), "");
+            assertSame(a.power(3), first + " " + first + " " + first);
+            assertSame(a.power(-2).then(a).then(a), "");
+            assertSame(a.power(0), "");
+        }
+    }
+
+    @Test
+    void sexyMoveHasOrderSix() {
+        CompiledSequence sexy = CompiledSequence.parse("R U R' U'");
+        assertSame(sexy.power(6), "");
+        assertEquals("R U R' U'", sexy.toString());
+    }
+
+    @Test
+    void unknownMovesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> CompiledSequence.parse("R Q"));
+        assertThrows(IllegalArgumentException.class, () -> CompiledSequence.parse("R3"));
+    }
+
+    /**
+     * Asserts that a sequence turns cubes held in any orientation like the moves written in reference, or
+     * like itself when reference is null.
+     */
+    private static void assertSame(String sequence, String reference) {
+        assertSame(CompiledSequence.parse(sequence), reference == null ? sequence : reference);
+    }
+
+    private static void assertSame(CompiledSequence sequence, String reference) {
+        Random random = new Random(reference.hashCode());
+        for(int test=0; test<4; test++) {
+            RubiksCube expected = new RubiksCube();
+            RubiksCube cube = new RubiksCube();
+            PackedCube packed = new PackedCube();
+            for(int i=0; i<10; i++) {
+                if(random.nextInt(3) == 0) {
+                    char rotation = "XxYyZz".charAt(random.nextInt(6));
+                    RubiksCubeTest.apply(expected, rotation);
+                    RubiksCubeTest.apply(cube, rotation);
+                    RubiksCubeTest.apply(packed, rotation);
+                } else {
+                    Move move = Move.valueOf(random.nextInt(Move.COUNT));
+                    expected.applyMove(move);
+                    cube.applyMove(move);
+                    packed.applyMove(move);
+                }
+            }
+
+            play(expected, reference);
+            sequence.applyTo(cube);
+            sequence.applyTo(packed);
+            assertEquals(RubiksCubeTest.facelets(expected), RubiksCubeTest.facelets(cube), sequence.toString());
+            assertEquals(RubiksCubeTest.facelets(expected), RubiksCubeTest.facelets(packed), sequence.toString());
+        }
+    }
+
+    /**
+     * Plays a sequence move by move, whole cube rotations as turns of their three layers.
+     */
+    private static void play(RubiksCube cube, String sequence) {
+        for(String token : sequence.trim().split("\\s+")) {
+            if(token.isEmpty()) {
+                continue;
+            }
+            int power = token.endsWith("'") ? 3 : token.endsWith("2") ? 2 : 1;
+            int axis = "xyz".indexOf(token.charAt(0));
+            if(axis < 0) {
+                cube.applyMove(Move.of("FRLUDBMES".indexOf(token.charAt(0)), power));
+            } else {
+                for(int i=0; i<power; i++) {
+                    play(cube, AXIS_TURNS[axis]);
+                }
+            }
+        }
+    }
+
+    private static String randomSequence(Random random, int length) {
+        StringBuilder sequence = new StringBuilder();
+        for(int i=0; i<length; i++) {
+            if(i > 0) {
+                sequence.append(' ');
+            }
+            sequence.append(TOKENS[random.nextInt(TOKENS.length)]).append(new String[] {"", "2", "'"}[random.nextInt(3)]);
+        }
+        return sequence.toString();
+    }
+}
@@ -0,0 +1,123 @@
+package org.viwa.Rubik;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Cubes of a batch against the same cubes turned one at a time.
+ *
+ * @author Vishal Wakchaure
+ */
+class CubeBatchTest {
+
+    private static final int SIZE = 100;
+
+    @Test
+    void loadAndStore() {
+        long[] states = new long[2 * SIZE];
+        RandomStates.randomStates(19, SIZE, states);
+        CubeBatch batch = new CubeBatch(SIZE);
+        batch.load(states);
+        long[] stored = new long[2 * SIZE];
+        batch.store(stored);
+        assertArrayEquals(states, stored);
+        assertEquals(states[2], batch.getCorners(1));
+        assertEquals(states[3], batch.getEdges(1));
+    }
+
+    @Test
+    void movesMatchPackedCubes() {
+        Random random = new Random(19);
+        long[] states = new long[2 * SIZE];
+        RandomStates.randomStates(20, SIZE, states);
+        CubeBatch batch = new CubeBatch(SIZE);
+        batch.load(states);
+        PackedCube[] cubes = cubes(states);
+
+        //Slices turn the shared frame, all cubes stay held alike.
+        for(int i=0; i<200; i++) {
+            Move move = Move.valueOf(random.nextInt(Move.COUNT));
+            batch.applyMove(move);
+            for(PackedCube cube : cubes) {
+                cube.applyMove(move);
+            }
+        }
+        assertSame(cubes, batch);
+
+        CompiledSequence sequence = CompiledSequence.parse("R U M' x F2 E S'");
+        batch.applySequence(sequence);
+        MoveSequence moves = MoveSequence.parse("D' B2 M");
+        batch.applySequence(moves);
+        for(PackedCube cube : cubes) {
+            sequence.applyTo(cube);
+            moves.applyTo(cube);
+        }
+        assertSame(cubes, batch);
+    }
+
+    @Test
+    void cubesHeldApart() {
+        Random random = new Random(21);
+        CubeBatch batch = new CubeBatch(SIZE);
+        PackedCube[] cubes = new PackedCube[SIZE];
+        for(int i=0; i<SIZE; i++) {
+            cubes[i] = new PackedCube();
+            int rotations = random.nextInt(4);
+            for(int k=0; k<rotations; k++) {
+                RubiksCubeTest.apply(cubes[i], "XxYyZz".charAt(random.nextInt(6)));
+            }
+            batch.set(i, cubes[i]);
+        }
+        assertEquals(SIZE, batch.countSolved());
+
+        for(int i=0; i<50; i++) {
+            Move move = Move.valueOf(random.nextInt(Move.COUNT));
+            batch.applyMove(move);
+            for(PackedCube cube : cubes) {
+                cube.applyMove(move);
+            }
+        }
+        batch.applySequence(CompiledSequence.parse("R U R' U'"));
+        for(PackedCube cube : cubes) {
+            CompiledSequence.parse("R U R' U'").applyTo(cube);
+        }
+        assertSame(cubes, batch);
+    }
+
+    @Test
+    void solvedCubesAreCounted() {
+        CubeBatch batch = new CubeBatch(SIZE);
+        assertEquals(SIZE, batch.countSolved());
+        PackedCube cube = new PackedCube();
+        cube.applyMove(Move.R);
+        batch.set(3, cube);
+        assertEquals(SIZE - 1, batch.countSolved());
+
+        batch.applyMove(Move.R_PRIME);
+        assertTrue(batch.isSolved(3));
+        assertEquals(1, batch.countSolved());
+    }
+
+    private static void assertSame(PackedCube[] cubes, CubeBatch batch) {
+        PackedCube cube = new PackedCube();
+        for(int i=0; i<cubes.length; i++) {
+            batch.get(i, cube);
+            assertEquals(cubes[i], cube);
+            assertEquals(RubiksCubeTest.facelets(cubes[i]), RubiksCubeTest.facelets(cube));
+            assertEquals(cubes[i].isSolved(), batch.isSolved(i));
+        }
+    }
+
+    private static PackedCube[] cubes(long[] states) {
+        PackedCube[] cubes = new PackedCube[states.length / 2];
+        for(int i=0; i<cubes.length; i++) {
+            cubes[i] = new PackedCube(states[2*i], states[2*i + 1]);
+        }
+        return cubes;
+    }
+}
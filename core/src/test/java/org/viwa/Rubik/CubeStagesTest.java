@@ -0,0 +1,139 @@
+package org.viwa.Rubik;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import org.viwa.Rubik.CubePiece.Color;
+
+/**
+ * Stage checks against the same checks made on the facelets, each piece compared with the centers.
+ *
+ * @author Vishal Wakchaure
+ */
+class CubeStagesTest {
+
+    @Test
+    void lastLayerCases() {
+        //Cross on the GREEN side, which is down.
+        RubiksCube cube = new RubiksCube();
+        MoveSequence.parse("R U R' U R U2 R'").applyTo(cube);
+        assertTrue(CubeStages.isF2LSolved(cube, Color.GREEN));
+        assertFalse(CubeStages.isOLLSolved(cube, Color.GREEN));
+        assertFalse(CubeStages.isCrossSolved(cube, Color.BLUE));
+
+        cube = new RubiksCube();
+        MoveSequence.parse("R U R' U' R' F R2 U' R' U' R U R' F'").applyTo(cube);
+        assertTrue(CubeStages.isOLLSolved(cube, Color.GREEN));
+        assertFalse(CubeStages.isPLLSolved(cube));
+
+        //Cross on the BLUE side, which is up: turning the down side keeps its last layer one color.
+        cube = new RubiksCube();
+        cube.applyMove(Move.D);
+        assertTrue(CubeStages.isOLLSolved(cube, Color.BLUE));
+        assertFalse(CubeStages.isPLLSolved(cube));
+
+        //Pairs of corners URF and UFL broken, ULB and UBR kept.
+        cube = new RubiksCube();
+        cube.applyMove(Move.F2);
+        assertFalse(CubeStages.isCrossSolved(cube, Color.BLUE));
+        assertEquals(0b1100, CubeStages.getSolvedPairs(cube, Color.BLUE));
+        assertTrue(CubeStages.isPLLSolved(new RubiksCube()));
+    }
+
+    @Test
+    void stagesMatchFacelets() {
+        Random random = new Random(25);
+        for(int test=0; test<2000; test++) {
+            RubiksCube cube = new RubiksCube();
+            //Short scrambles leave some stages solved.
+            int length = random.nextInt(5);
+            for(int i=0; i<length; i++) {
+                cube.applyMove(Move.valueOf(random.nextInt(Move.COUNT)));
+            }
+            for(int i=random.nextInt(3); i>0; i--) {
+                RubiksCubeTest.apply(cube, "XxYyZz".charAt(random.nextInt(6)));
+            }
+            PackedCube packed = PackedCube.of(cube);
+            //Pieces as they lie relative to the centers, the cube held with every center in its reference location.
+            byte[] facelets = new byte[CubeLayout.FACELETS];
+            new PackedCube(packed.getCorners() & (1L << PackedCube.FRAME_SHIFT) - 1, packed.getEdges()).getFacelets(facelets);
+
+            for(Color color : Color.values()) {
+                int location = CubeLayout.REFERENCE_LOCATION[color.ordinal()];
+                boolean cross = isCrossSolved(facelets, location);
+                int pairs = solvedPairs(facelets, location);
+                boolean f2l = cross && pairs == 15;
+                boolean oll = f2l && showsOneColor(facelets, CubeLayout.OPPOSITE[location]);
+                assertEquals(cross, CubeStages.isCrossSolved(packed, color));
+                assertEquals(cross, CubeStages.isCrossSolved(cube, color));
+                assertEquals(pairs, CubeStages.getSolvedPairs(packed, color));
+                assertEquals(pairs, CubeStages.getSolvedPairs(cube, color));
+                assertEquals(f2l, CubeStages.isF2LSolved(packed, color));
+                assertEquals(f2l, CubeStages.isF2LSolved(cube, color));
+                assertEquals(oll, CubeStages.isOLLSolved(packed, color));
+                assertEquals(oll, CubeStages.isOLLSolved(cube, color));
+            }
+            assertEquals(packed.isSolved(), CubeStages.isPLLSolved(cube));
+        }
+    }
+
+    private static boolean isCrossSolved(byte[] facelets, int location) {
+        for(byte[] slot : CubeLayout.EDGE_FACELETS) {
+            if(isOn(slot, location) && !isSolved(facelets, slot)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int solvedPairs(byte[] facelets, int location) {
+        int pairs = 0;
+        int pair = 0;
+        for(byte[] corner : CubeLayout.CORNER_FACELETS) {
+            if(!isOn(corner, location)) {
+                continue;
+            }
+            for(byte[] edge : CubeLayout.EDGE_FACELETS) {
+                if(!isOn(edge, location) && isOn(corner, edge[0] / 9) && isOn(corner, edge[1] / 9)
+                    && isSolved(facelets, corner) && isSolved(facelets, edge)) {
+                    pairs |= 1 << pair;
+                }
+            }
+            pair++;
+        }
+        return pairs;
+    }
+
+    private static boolean showsOneColor(byte[] facelets, int location) {
+        for(int i=0; i<9; i++) {
+            if(facelets[location*9 + i] != facelets[location*9 + 4]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isOn(byte[] slot, int location) {
+        for(byte facelet : slot) {
+            if(facelet / 9 == location) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //A piece is solved when its facelets show the colors of the centers next to them.
+    private static boolean isSolved(byte[] facelets, byte[] slot) {
+        for(byte facelet : slot) {
+            if(facelets[facelet] != facelets[facelet / 9 * 9 + 4]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,79 @@
+package org.viwa.Rubik;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Facelet strings are parsed and formatted back unchanged, and strings of no cube are rejected.
+ *
+ * @author Vishal Wakchaure
+ */
+class FaceletStringTest {
+
+    @Test
+    void solvedCube() {
+        assertEquals(FaceletString.SOLVED, FaceletString.format(new RubiksCube()));
+        assertEquals(FaceletString.SOLVED, FaceletString.format(new PackedCube()));
+        assertEquals(FaceletString.SOLVED, FaceletString.format(FaceletString.parse(FaceletString.SOLVED)));
+    }
+
+    @Test
+    void parseAndFormatRoundTrip() {
+        for(int seed=0; seed<50; seed++) {
+            byte[] scramble = Scrambler.scramble(seed, Scrambler.DEFAULT_LENGTH);
+            PackedCube scrambled = new PackedCube();
+            MoveSequence.of(scramble, 0, scramble.length).applyTo(scrambled);
+            String text = FaceletString.format(scrambled);
+
+            assertEquals(text, FaceletString.format(FaceletString.parse(text)));
+            PackedCube packed = new PackedCube();
+            FaceletString.parse("--" + text + "--", 2, packed);
+            assertEquals(text, FaceletString.format(packed));
+            assertEquals(scrambled.getCorners(), packed.getCorners());
+            assertEquals(scrambled.getEdges(), packed.getEdges());
+
+            RubiksCube cube = new RubiksCube(CubePiece.Color.WHITE, false);
+            FaceletString.parse(text, 0, cube);
+            assertEquals(text, FaceletString.format(cube));
+        }
+    }
+
+    @Test
+    void formatNamesColorsAfterCenters() {
+        RubiksCube cube = new RubiksCube();
+        MoveSequence.parse("M E S").applyTo(cube);
+        String text = FaceletString.format(cube);
+        for(int face=0; face<6; face++) {
+            assertEquals("URFDLB".charAt(face), text.charAt(face*9 + 4));
+        }
+    }
+
+    @Test
+    void badStringsAreRejected() {
+        String solved = FaceletString.SOLVED;
+        //Length.
+        assertRejected(solved.substring(1));
+        //Not a face letter.
+        assertRejected("X" + solved.substring(1));
+        //Center of U is R.
+        assertRejected(replace(solved, 4, 'R'));
+        //Corner URF (U9, R1, F3) with colors U U F.
+        assertRejected(replace(solved, 9, 'U'));
+        //Corner URF colors counter clockwise: U9, R1, F3 as U F R.
+        assertRejected(replace(replace(solved, 9, 'F'), 20, 'R'));
+        //Edge UR (U6, R2) with colors U U.
+        assertRejected(replace(solved, 10, 'U'));
+        //Edges UR and UL (U6 R2, U4 L2) both U R.
+        assertRejected(replace(solved, 37, 'R'));
+    }
+
+    private static void assertRejected(String text) {
+        assertThrows(IllegalArgumentException.class, () -> FaceletString.parse(text), text);
+    }
+
+    private static String replace(String text, int index, char letter) {
+        return text.substring(0, index) + letter + text.substring(index + 1);
+    }
+}
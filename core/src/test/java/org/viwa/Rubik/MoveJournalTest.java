@@ -0,0 +1,128 @@
+package org.viwa.Rubik;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import org.viwa.Rubik.CubePiece.Color;
+
+/**
+ * Snapshots and journals bring cubes back to the state they were in.
+ *
+ * @author Vishal Wakchaure
+ */
+class MoveJournalTest {
+
+    @Test
+    void snapshotIsRestored() {
+        RubiksCube cube = new RubiksCube();
+        scramble(cube, new Random(16));
+        String facelets = RubiksCubeTest.facelets(cube);
+        long hash = cube.hash64();
+        RubiksCube copy = new RubiksCube();
+        copy.setFacelets(faceletBytes(cube));
+
+        RubiksCube.Snapshot snapshot = cube.snapshot();
+        for(int test=0; test<3; test++) {
+            scramble(cube, new Random(test));
+            cube.restore(snapshot);
+            assertEquals(facelets, RubiksCubeTest.facelets(cube));
+            assertEquals(hash, cube.hash64());
+            assertEquals(copy, cube);
+        }
+
+        //A snapshot is reused by taking it again.
+        cube.applyMove(Move.R);
+        cube.snapshot(snapshot);
+        scramble(cube, new Random(17));
+        cube.restore(snapshot);
+        copy.applyMove(Move.R);
+        assertEquals(copy, cube);
+        assertTrue(snapshot.getCube() == cube);
+
+        assertThrows(IllegalArgumentException.class, () -> new RubiksCube().restore(snapshot));
+    }
+
+    @Test
+    void journalRollsBack() {
+        Random random = new Random(18);
+        RubiksCube cube = new RubiksCube();
+        PackedCube packed = new PackedCube();
+        //Starting small, the journals grow as they go deeper.
+        MoveJournal journal = new MoveJournal(2);
+        MoveJournal packedJournal = new MoveJournal(2);
+        Move[] moves = new Move[100];
+        for(int i=0; i<moves.length; i++) {
+            moves[i] = Move.valueOf(random.nextInt(Move.COUNT));
+        }
+
+        for(int i=0; i<40; i++) {
+            journal.apply(cube, moves[i]);
+            packedJournal.apply(packed, moves[i]);
+        }
+        String facelets = RubiksCubeTest.facelets(cube);
+        PackedCube expected = new PackedCube(packed);
+        int mark = journal.size();
+        for(int i=40; i<moves.length; i++) {
+            journal.apply(cube, moves[i]);
+            packedJournal.apply(packed, moves[i]);
+        }
+        assertEquals(moves.length, journal.size());
+        journal.rollback(cube, mark);
+        packedJournal.rollback(packed, mark);
+        assertEquals(facelets, RubiksCubeTest.facelets(cube));
+        assertEquals(expected, packed);
+        assertEquals(mark, journal.size());
+
+        assertEquals(moves[39], journal.undo(cube));
+        assertEquals(moves[39], packedJournal.undo(packed));
+        journal.rollback(cube, 0);
+        packedJournal.rollback(packed, 0);
+        assertEquals(RubiksCubeTest.SOLVED, RubiksCubeTest.facelets(cube));
+        assertTrue(packed.isSolved());
+        assertEquals(0, journal.size());
+    }
+
+    @Test
+    void journalRecordsPath() {
+        MoveJournal journal = new MoveJournal();
+        PackedCube cube = new PackedCube();
+        MoveSequence path = MoveSequence.parse("R U2 M' F' E");
+        for(Move move : path.toMoves()) {
+            journal.apply(cube, move);
+        }
+        assertEquals(path, journal.toSequence());
+        assertEquals(Move.U2, journal.get(1));
+
+        journal.undo(cube);
+        PackedCube expected = new PackedCube();
+        MoveSequence.parse("R U2 M' F'").applyTo(expected);
+        assertEquals(expected, cube);
+    }
+
+    @Test
+    void copiedPieceKeepsColors() {
+        CubePiece piece = new CubePiece(Color.WHITE, Color.RED, Color.BLUE);
+        assertEquals(piece.getColors(), new CubePiece(piece).getColors());
+    }
+
+    private static void scramble(RubiksCube cube, Random random) {
+        for(int i=0; i<30; i++) {
+            if(random.nextInt(4) == 0) {
+                RubiksCubeTest.apply(cube, "XxYyZz".charAt(random.nextInt(6)));
+            } else {
+                cube.applyMove(Move.valueOf(random.nextInt(Move.COUNT)));
+            }
+        }
+    }
+
+    private static byte[] faceletBytes(RubiksCube cube) {
+        byte[] facelets = new byte[CubeLayout.FACELETS];
+        cube.getFacelets(facelets);
+        return facelets;
+    }
+}
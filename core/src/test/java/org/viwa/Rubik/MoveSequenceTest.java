@@ -0,0 +1,102 @@
+package org.viwa.Rubik;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Canonical forms turn cubes like the sequences they come from, and written sequences read back unchanged.
+ *
+ * @author Vishal Wakchaure
+ */
+class MoveSequenceTest {
+
+    @Test
+    void canonicalMergesTurns() {
+        assertEquals("R2", MoveSequence.parse("R R").canonical().toString());
+        assertEquals("L", MoveSequence.parse("R L R'").canonical().toString());
+        assertEquals("", MoveSequence.parse("R U U' R'").canonical().toString());
+        assertEquals("F2", MoveSequence.parse("F R L' M R' L M' F").canonical().toString());
+        assertEquals(MoveSequence.parse("R L").canonical(), MoveSequence.parse("L R").canonical());
+        assertEquals(MoveSequence.parse("U E D").canonical(), MoveSequence.parse("D U E").canonical());
+    }
+
+    @Test
+    void canonicalTurnsCubesTheSame() {
+        Random random = new Random(15);
+        for(int test=0; test<200; test++) {
+            MoveSequence sequence = randomSequence(random, random.nextInt(40), test % 2 == 0 ? 6 : 9);
+            MoveSequence canonical = sequence.canonical();
+            assertTrue(canonical.length() <= sequence.length());
+            assertEquals(canonical, canonical.canonical());
+            assertEquals(0, sequence.then(sequence.inverse()).canonical().length());
+
+            RubiksCube expected = new RubiksCube();
+            RubiksCube cube = new RubiksCube();
+            PackedCube packed = new PackedCube();
+            sequence.applyTo(expected);
+            canonical.applyTo(cube);
+            canonical.applyTo(packed);
+            assertEquals(RubiksCubeTest.facelets(expected), RubiksCubeTest.facelets(cube), sequence.toString());
+            assertEquals(RubiksCubeTest.facelets(expected), RubiksCubeTest.facelets(packed), sequence.toString());
+        }
+    }
+
+    @Test
+    void bytesReadBack() {
+        Random random = new Random(16);
+        for(int length=0; length<200; length+=7) {
+            MoveSequence sequence = randomSequence(random, length, 9);
+            byte[] bytes = sequence.toBytes();
+            assertEquals(varintLength(length) + (length*5 + 7) / 8, bytes.length);
+            MoveSequence read = MoveSequence.fromBytes(bytes);
+            assertEquals(sequence, read);
+            assertArrayEquals(sequence.toMoves(), read.toMoves());
+        }
+        assertEquals(MoveSequence.EMPTY, MoveSequence.fromBytes(MoveSequence.EMPTY.toBytes()));
+    }
+
+    @Test
+    void badBytesAreRejected() {
+        byte[] bytes = MoveSequence.parse("R U R' U'").toBytes();
+        assertThrows(IllegalArgumentException.class, () -> MoveSequence.fromBytes(Arrays.copyOf(bytes, bytes.length - 1)));
+        assertThrows(IllegalArgumentException.class, () -> MoveSequence.fromBytes(Arrays.copyOf(bytes, bytes.length + 1)));
+        assertThrows(IllegalArgumentException.class, () -> MoveSequence.fromBytes(new byte[0]));
+        assertThrows(IllegalArgumentException.class, () -> MoveSequence.fromBytes(new byte[] {(byte) 0x80}));
+
+        //A single move of all ones is not a move.
+        assertThrows(IllegalArgumentException.class, () -> MoveSequence.fromBytes(new byte[] {1, 31}));
+    }
+
+    @Test
+    void notationReadsBack() {
+        MoveSequence sequence = MoveSequence.parse(" R  U2 M' ");
+        assertEquals("R U2 M'", sequence.toString());
+        assertArrayEquals(new Move[] {Move.R, Move.U2, Move.M_PRIME}, sequence.toMoves());
+        assertEquals("M U2 R'", sequence.inverse().toString());
+        assertThrows(IllegalArgumentException.class, () -> MoveSequence.parse("R x"));
+    }
+
+    private static MoveSequence randomSequence(Random random, int length, int layers) {
+        Move[] moves = new Move[length];
+        for(int i=0; i<length; i++) {
+            moves[i] = Move.of(random.nextInt(layers), 1 + random.nextInt(3));
+        }
+        return MoveSequence.of(moves);
+    }
+
+    private static int varintLength(int value) {
+        int length = 1;
+        while(value >= 0x80) {
+            value >>>= 7;
+            length++;
+        }
+        return length;
+    }
+}
@@ -0,0 +1,117 @@
+package org.viwa.Rubik;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import org.viwa.Rubik.CubePiece.Color;
+
+/**
+ * Indexed piece positions against the positions read from the facelets the cube shows.
+ *
+ * @author Vishal Wakchaure
+ */
+class PiecePositionTest {
+
+    @Test
+    void positionsMatchPackedCube() {
+        Random random = new Random(18);
+        RubiksCube cube = new RubiksCube();
+        byte[] facelets = new byte[CubeLayout.FACELETS];
+        for(int test=0; test<300; test++) {
+            if(random.nextInt(4) == 0) {
+                RubiksCubeTest.apply(cube, "XxYyZz".charAt(random.nextInt(6)));
+            } else {
+                cube.applyMove(Move.valueOf(random.nextInt(Move.COUNT)));
+            }
+            if(test % 50 == 0) {
+                //Direct side changes make the index be built again, four quarter turns leave the facelets as they were.
+                for(int i=0; i<4; i++) {
+                    cube.getSide(Color.WHITE).rotateMatrixClockwise();
+                }
+            }
+            cube.getFacelets(facelets);
+            assertPositions(cube, facelets);
+        }
+    }
+
+    @Test
+    void snapshotKeepsPositions() {
+        RubiksCube cube = new RubiksCube();
+        cube.applyMove(Move.R);
+        cube.applyMove(Move.U);
+        int position = cube.getCornerPosition(Color.BLUE, Color.RED, Color.WHITE);
+        RubiksCube.Snapshot snapshot = cube.snapshot();
+        cube.applyMove(Move.F);
+        cube.restore(snapshot);
+        assertEquals(position, cube.getCornerPosition(Color.BLUE, Color.RED, Color.WHITE));
+    }
+
+    @Test
+    void missingPiecesAreRejected() {
+        RubiksCube cube = new RubiksCube();
+        assertThrows(IllegalArgumentException.class, () -> cube.getEdgePosition(Color.WHITE, Color.YELLOW));
+        assertThrows(IllegalArgumentException.class, () -> cube.getCornerPosition(Color.WHITE, Color.RED, Color.ORANGE));
+        assertThrows(IllegalArgumentException.class, () -> cube.getStickerFacelet(Color.BLUE, Color.BLUE));
+    }
+
+    @Test
+    void edgePiecesOfColor() {
+        RubiksCube cube = new RubiksCube();
+        CubePiece edges = cube.getSide(Color.WHITE).getEdgePieces(Color.RED);
+        assertEquals(edges, edges.next());
+        assertEquals(2, edges.getColors().size());
+
+        //All four edges of a side have its color, in a circular list.
+        edges = cube.getSide(Color.WHITE).getEdgePieces(Color.WHITE);
+        assertEquals(edges, edges.getLast().next());
+        assertEquals(edges.getLast(), edges.getAt(3));
+        assertEquals(null, edges.getAt(4));
+    }
+
+    /**
+     * Asserts positions read from the facelets shown: the slot showing the piece's colors, and the facelet of the
+     * slot showing its Blue or Green color (White or Yellow for middle layer edges).
+     */
+    private static void assertPositions(RubiksCube cube, byte[] facelets) {
+        for(int slot=0; slot<CubeLayout.CORNERS; slot++) {
+            Color[] colors = colors(facelets, CubeLayout.CORNER_FACELETS[slot]);
+            int expected = slot*3 + indexOf(colors, Color.BLUE, Color.GREEN);
+            assertEquals(expected, cube.getCornerPosition(colors[0], colors[1], colors[2]));
+            assertEquals(expected, cube.getCornerPosition(colors[2], colors[0], colors[1]));
+            for(int k=0; k<3; k++) {
+                int facelet = cube.getStickerFacelet(colors[k], colors[(k + 1) % 3], colors[(k + 2) % 3]);
+                assertEquals(CubeLayout.CORNER_FACELETS[slot][k], facelet);
+            }
+        }
+        for(int slot=0; slot<CubeLayout.EDGES; slot++) {
+            Color[] colors = colors(facelets, CubeLayout.EDGE_FACELETS[slot]);
+            int orientation = indexOf(colors, Color.BLUE, Color.GREEN);
+            int expected = slot*2 + (orientation >= 0 ? orientation : indexOf(colors, Color.WHITE, Color.YELLOW));
+            assertEquals(expected, cube.getEdgePosition(colors[0], colors[1]));
+            assertEquals(expected, cube.getEdgePosition(colors[1], colors[0]));
+            assertEquals(CubeLayout.EDGE_FACELETS[slot][0], cube.getStickerFacelet(colors[0], colors[1]));
+            assertEquals(CubeLayout.EDGE_FACELETS[slot][1], cube.getStickerFacelet(colors[1], colors[0]));
+        }
+    }
+
+    private static Color[] colors(byte[] facelets, byte[] slotFacelets) {
+        Color[] colors = new Color[slotFacelets.length];
+        for(int k=0; k<colors.length; k++) {
+            colors[k] = CubeLayout.COLORS[facelets[slotFacelets[k]]];
+        }
+        return colors;
+    }
+
+    private static int indexOf(Color[] colors, Color color1, Color color2) {
+        for(int k=0; k<colors.length; k++) {
+            if(colors[k] == color1 || colors[k] == color2) {
+                return k;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,294 @@
+package org.viwa.Rubik;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Turns and rotations of RubiksCube against facelets of the original cube model, and PackedCube against RubiksCube.
+ * Facelets are written side by side in the order FRONT, RIGHT, LEFT, UP, DOWN, BACK, first letter of each color.
+ *
+ * @author Vishal Wakchaure
+ */
+class RubiksCubeTest {
+
+    static final String SOLVED = "WWWWWWWWW RRRRRRRRR OOOOOOOOO BBBBBBBBB GGGGGGGGG YYYYYYYYY";
+
+    //Facelets written by the original implementation of front turns (F, f) and cube rotations (X, x, Y, y, Z, z).
+    private static final String[][] BASELINE = {
+        {"F", "WWWWWWWWW BRRBRRBRR OOGOOGOOG BBBBBBOOO RRRGGGGGG YYYYYYYYY"},
+        {"f", "WWWWWWWWW GRRGRRGRR OOBOOBOOB BBBBBBRRR OOOGGGGGG YYYYYYYYY"},
+        {"X", "RRRRRRRRR YYYYYYYYY WWWWWWWWW BBBBBBBBB GGGGGGGGG OOOOOOOOO"},
+        {"Y", "BBBBBBBBB RRRRRRRRR OOOOOOOOO YYYYYYYYY WWWWWWWWW GGGGGGGGG"},
+        {"Z", "WWWWWWWWW BBBBBBBBB GGGGGGGGG OOOOOOOOO RRRRRRRRR YYYYYYYYY"},
+        {"x", "OOOOOOOOO WWWWWWWWW YYYYYYYYY BBBBBBBBB GGGGGGGGG RRRRRRRRR"},
+        {"y", "GGGGGGGGG RRRRRRRRR OOOOOOOOO WWWWWWWWW YYYYYYYYY BBBBBBBBB"},
+        {"z", "WWWWWWWWW GGGGGGGGG BBBBBBBBB RRRRRRRRR OOOOOOOOO YYYYYYYYY"},
+        {"FXF", "BBBRRRRRR OYYBYYBYY WWRWWGWWG OBBOBBWWW YYYRGGRGG OOGOOGOOG"},
+        {"FYF", "OBBOBBOBB YRRYRRYBB OOWOOWGGW YYYYYYGOO BRRWWWWWW GGGGGGRRR"},
+        {"FZF", "WWWWWWWWW GBBGBBGBB GGBGGBGGB OOOOOORRR OOORRRRRR YYYYYYYYY"},
+        {"XFyFzFYfZF", "WBBWYYGYY WWWBBBBBB GGGGGGYYY ORRORRORR ROOROOROO GGYWWYWWB"}
+    };
+
+    //Facelets after a single side or slice turn of a solved cube.
+    private static final String[][] TURNS = {
+        {"R", "WWGWWGWWG RRRRRRRRR OOOOOOOOO BBWBBWBBW GGYGGYGGY BYYBYYBYY"},
+        {"U", "RRRWWWWWW YYYRRRRRR WWWOOOOOO BBBBBBBBB GGGGGGGGG OOOYYYYYY"},
+        {"B", "WWWWWWWWW RRGRRGRRG BOOBOOBOO RRRBBBBBB GGGGGGOOO YYYYYYYYY"},
+        {"M", "WBWWBWWBW RRRRRRRRR OOOOOOOOO BYBBYBBYB GWGGWGGWG YGYYGYYGY"},
+        {"E", "WWWOOOWWW RRRWWWRRR OOOYYYOOO BBBBBBBBB GGGGGGGGG YYYRRRYYY"},
+        {"S", "WWWWWWWWW RBRRBRRBR OGOOGOOGO BBBOOOBBB GGGRRRGGG YYYYYYYYY"}
+    };
+
+    @Test
+    void frontTurnsAndRotationsMatchBaseline() {
+        for(String[] test : BASELINE) {
+            RubiksCube cube = new RubiksCube();
+            PackedCube packed = new PackedCube();
+            for(char operation : test[0].toCharArray()) {
+                apply(cube, operation);
+                apply(packed, operation);
+            }
+            assertEquals(test[1], facelets(cube), test[0]);
+            assertEquals(test[1], facelets(packed), test[0]);
+        }
+    }
+
+    @Test
+    void sideAndSliceTurns() {
+        for(String[] test : TURNS) {
+            RubiksCube cube = new RubiksCube();
+            PackedCube packed = new PackedCube();
+            cube.applyMove(Move.valueOf(test[0]));
+            packed.applyMove(Move.valueOf(test[0]));
+            assertEquals(test[1], facelets(cube), test[0]);
+            assertEquals(test[1], facelets(packed), test[0]);
+        }
+    }
+
+    @Test
+    void fourQuarterTurnsAreIdentity() {
+        for(int layer=0; layer<Move.COUNT/3; layer++) {
+            RubiksCube cube = new RubiksCube();
+            PackedCube packed = new PackedCube();
+            for(int i=0; i<4; i++) {
+                cube.applyMove(Move.of(layer, 1));
+                packed.applyMove(Move.of(layer, 1));
+            }
+            assertEquals(SOLVED, facelets(cube));
+            assertTrue(packed.isSolved());
+        }
+    }
+
+    @Test
+    void packedCubeMatchesRubiksCube() {
+        Random random = new Random(1);
+        for(int test=0; test<200; test++) {
+            RubiksCube cube = new RubiksCube();
+            PackedCube packed = new PackedCube();
+            for(int i=0; i<30; i++) {
+                if(random.nextInt(4) == 0) {
+                    char rotation = "XxYyZz".charAt(random.nextInt(6));
+                    apply(cube, rotation);
+                    apply(packed, rotation);
+                } else {
+                    Move move = Move.valueOf(random.nextInt(Move.COUNT));
+                    cube.applyMove(move);
+                    packed.applyMove(move);
+                }
+            }
+            assertEquals(facelets(cube), facelets(packed));
+            assertEquals(facelets(cube), facelets(PackedCube.of(cube)));
+        }
+    }
+
+    @Test
+    void scrambleThenInverseSolves() {
+        byte[] scramble = Scrambler.scramble(7, Scrambler.DEFAULT_LENGTH);
+        RubiksCube cube = new RubiksCube();
+        for(byte move : scramble) {
+            cube.applyMove(Move.valueOf(move));
+        }
+        for(int i=scramble.length - 1; i>=0; i--) {
+            Move move = Move.valueOf(scramble[i]);
+            cube.applyMove(Move.of(move.getLayer(), 4 - move.getPower()));
+        }
+        assertEquals(SOLVED, facelets(cube));
+    }
+
+    @Test
+    void setFaceletsReplacesHeldOrientation() {
+        RubiksCube scrambled = new RubiksCube();
+        for(byte move : Scrambler.scramble(8, Scrambler.DEFAULT_LENGTH)) {
+            scrambled.applyMove(Move.valueOf(move));
+        }
+        byte[] facelets = new byte[CubeLayout.FACELETS];
+        scrambled.getFacelets(facelets);
+
+        //A pending whole cube rotation must not be applied to the facelets set.
+        RubiksCube cube = new RubiksCube();
+        cube.rotateCubeXClockwise();
+        cube.rotateCubeYClockwise();
+        cube.setFacelets(facelets);
+        assertEquals(facelets(scrambled), facelets(cube));
+
+        PackedCube packed = new PackedCube();
+        packed.rotateCubeZClockwise();
+        packed.setFacelets(facelets);
+        assertEquals(facelets(scrambled), facelets(packed));
+    }
+
+    @Test
+    void countedTurnsMatchSingleTurns() throws ReflectiveOperationException {
+        String[] turns = {
+            "rotateFrontSideClockwise", "rotateRightSideClockwise", "rotateLeftSideClockwise",
+            "rotateUpSideClockwise", "rotateDownSideClockwise", "rotateBackSideClockwise",
+            "rotateMiddleSliceClockwise", "rotateEquatorSliceClockwise", "rotateStandingSliceClockwise",
+            "rotateCubeXClockwise", "rotateCubeXAntiClockwise", "rotateCubeYClockwise",
+            "rotateCubeYAntiClockwise", "rotateCubeZClockwise", "rotateCubeZAntiClockwise"
+        };
+        //Counts below 1 turn nothing, others turn count % 4 times.
+        int[] counts = {-5, -4, -1, 0, 1, 2, 3, 4, 5, 7, 1000001};
+        for(String turn : turns) {
+            for(int count : counts) {
+                RubiksCube expected = new RubiksCube();
+                RubiksCube cube = new RubiksCube();
+                PackedCube packed = new PackedCube();
+                MoveSequence.parse("R U F'").applyTo(expected);
+                MoveSequence.parse("R U F'").applyTo(cube);
+                MoveSequence.parse("R U F'").applyTo(packed);
+                for(int i=0; i<Math.max(count, 0) % 4; i++) {
+                    RubiksCube.class.getMethod(turn).invoke(expected);
+                }
+                RubiksCube.class.getMethod(turn, int.class).invoke(cube, count);
+                PackedCube.class.getMethod(turn, int.class).invoke(packed, count);
+                assertEquals(facelets(expected), facelets(cube), turn + " " + count);
+                assertEquals(facelets(expected), facelets(packed), turn + " " + count);
+            }
+        }
+    }
+
+    @Test
+    void setFaceletsRejectsDuplicatePieces() {
+        RubiksCube scrambled = new RubiksCube();
+        MoveSequence.parse("R U F' M").applyTo(scrambled);
+        String before = facelets(scrambled);
+        byte[] facelets = new byte[CubeLayout.FACELETS];
+
+        //Corner slot 1 showing the piece of corner slot 0, and edge slot 5 showing the piece of edge slot 2.
+        for(int test=0; test<2; test++) {
+            new RubiksCube().getFacelets(facelets);
+            if(test == 0) {
+                for(int k=0; k<3; k++) {
+                    facelets[CubeLayout.CORNER_FACELETS[1][k]] = facelets[CubeLayout.CORNER_FACELETS[0][k]];
+                }
+            } else {
+                for(int k=0; k<2; k++) {
+                    facelets[CubeLayout.EDGE_FACELETS[5][k]] = facelets[CubeLayout.EDGE_FACELETS[2][k]];
+                }
+            }
+            assertThrows(IllegalArgumentException.class, () -> scrambled.setFacelets(facelets));
+            assertThrows(IllegalArgumentException.class, () -> new PackedCube().setFacelets(facelets));
+            assertEquals(before, facelets(scrambled));
+        }
+    }
+
+    @Test
+    void faceletOnlyCubeMatchesTrackingCube() {
+        Random random = new Random(17);
+        RubiksCube tracking = new RubiksCube();
+        RubiksCube faceletOnly = new RubiksCube(CubePiece.Color.WHITE, false);
+        assertTrue(tracking.isTrackingPieces());
+        assertFalse(faceletOnly.isTrackingPieces());
+        RubiksCube.Snapshot snapshot = faceletOnly.snapshot();
+        for(int test=0; test<50; test++) {
+            for(int i=0; i<10; i++) {
+                if(random.nextInt(4) == 0) {
+                    char rotation = "XxYyZz".charAt(random.nextInt(6));
+                    apply(tracking, rotation);
+                    apply(faceletOnly, rotation);
+                } else {
+                    Move move = Move.valueOf(random.nextInt(Move.COUNT));
+                    tracking.applyMove(move);
+                    faceletOnly.applyMove(move);
+                }
+            }
+            CompiledSequence sequence = CompiledSequence.parse("R U R' y M2");
+            sequence.applyTo(tracking);
+            sequence.applyTo(faceletOnly);
+
+            //Pieces derived from the facelets are the pieces tracked.
+            assertEquals(facelets(tracking), facelets(faceletOnly));
+            assertEquals(tracking.toString(), faceletOnly.toString());
+            assertEquals(tracking.hash64(), faceletOnly.hash64());
+        }
+
+        String facelets = facelets(faceletOnly);
+        faceletOnly.snapshot(snapshot);
+        faceletOnly.applyMove(Move.F);
+        faceletOnly.restore(snapshot);
+        assertEquals(facelets, facelets(faceletOnly));
+
+        byte[] bytes = new byte[CubeLayout.FACELETS];
+        new RubiksCube().getFacelets(bytes);
+        faceletOnly.setFacelets(bytes);
+        assertEquals(SOLVED, facelets(faceletOnly));
+        assertEquals(new RubiksCube().toString(), faceletOnly.toString());
+    }
+
+    static void apply(RubiksCube cube, char operation) {
+        switch(operation) {
+            case 'F': cube.rotateFrontSideClockwise(); break;
+            case 'f': cube.rotateFrontSideAntiClockwise(); break;
+            case 'X': cube.rotateCubeXClockwise(); break;
+            case 'x': cube.rotateCubeXAntiClockwise(); break;
+            case 'Y': cube.rotateCubeYClockwise(); break;
+            case 'y': cube.rotateCubeYAntiClockwise(); break;
+            case 'Z': cube.rotateCubeZClockwise(); break;
+            case 'z': cube.rotateCubeZAntiClockwise(); break;
+            default: throw new IllegalArgumentException("Unknown operation " + operation);
+        }
+    }
+
+    static void apply(PackedCube cube, char operation) {
+        switch(operation) {
+            case 'F': cube.rotateFrontSideClockwise(); break;
+            case 'f': cube.rotateFrontSideAntiClockwise(); break;
+            case 'X': cube.rotateCubeXClockwise(); break;
+            case 'x': cube.rotateCubeXAntiClockwise(); break;
+            case 'Y': cube.rotateCubeYClockwise(); break;
+            case 'y': cube.rotateCubeYAntiClockwise(); break;
+            case 'Z': cube.rotateCubeZClockwise(); break;
+            case 'z': cube.rotateCubeZAntiClockwise(); break;
+            default: throw new IllegalArgumentException("Unknown operation " + operation);
+        }
+    }
+
+    static String facelets(RubiksCube cube) {
+        byte[] facelets = new byte[CubeLayout.FACELETS];
+        cube.getFacelets(facelets);
+        return facelets(facelets);
+    }
+
+    static String facelets(PackedCube cube) {
+        byte[] facelets = new byte[CubeLayout.FACELETS];
+        cube.getFacelets(facelets);
+        return facelets(facelets);
+    }
+
+    private static String facelets(byte[] facelets) {
+        StringBuilder text = new StringBuilder();
+        for(int i=0; i<CubeLayout.FACELETS; i++) {
+            if(i > 0 && i % 9 == 0) {
+                text.append(' ');
+            }
+            text.append(CubeLayout.COLORS[facelets[i]].name().charAt(0));
+        }
+        return text.toString();
+    }
+}
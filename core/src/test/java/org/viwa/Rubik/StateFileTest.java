@@ -0,0 +1,97 @@
+package org.viwa.Rubik;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * States written to a state file are read back, and broken files are rejected.
+ *
+ * @author Vishal Wakchaure
+ */
+class StateFileTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void statesRoundTrip() throws IOException {
+        long[] states = new long[2 * 1000];
+        RandomStates.randomStates(4, 1000, states);
+        Path path = directory.resolve("states.bin");
+        try(StateFile.Writer writer = new StateFile.Writer(path)) {
+            writer.write(states, 999);
+            writer.write(new PackedCube(states[2*999], states[2*999 + 1]));
+        }
+
+        StateFile.Reader reader = new StateFile.Reader(path);
+        assertEquals(1000, reader.size());
+        long[] read = new long[states.length];
+        reader.read(0, read, 1000);
+        assertArrayEquals(states, read);
+
+        PackedCube cube = new PackedCube();
+        reader.read(123, cube);
+        assertEquals(states[2*123], cube.getCorners());
+        assertEquals(states[2*123 + 1], cube.getEdges());
+
+        long[] visited = new long[states.length];
+        reader.forEach((index, corners, edges) -> {
+            visited[2 * (int) index] = corners;
+            visited[2 * (int) index + 1] = edges;
+        });
+        assertArrayEquals(states, visited);
+        assertThrows(IndexOutOfBoundsException.class, () -> reader.getCorners(1000));
+    }
+
+    @Test
+    void emptyFileRoundTrips() throws IOException {
+        Path path = directory.resolve("empty.bin");
+        new StateFile.Writer(path).close();
+        assertEquals(0, new StateFile.Reader(path).size());
+    }
+
+    @Test
+    void truncatedFileIsRejected() throws IOException {
+        Path path = directory.resolve("truncated.bin");
+        try(StateFile.Writer writer = new StateFile.Writer(path)) {
+            for(int i=0; i<10; i++) {
+                writer.write(new PackedCube());
+            }
+        }
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 8);
+        }
+        assertThrows(IOException.class, () -> new StateFile.Reader(path));
+    }
+
+    @Test
+    void fileOfUnclosedWriterIsRejected() throws IOException {
+        Path path = directory.resolve("unclosed.bin");
+        Files.write(path, new byte[0]);
+        assertThrows(IOException.class, () -> new StateFile.Reader(path));
+
+        StateFile.Writer writer = new StateFile.Writer(path);
+        writer.write(new PackedCube());
+        //Header with a count of -1 only, the writer is not closed.
+        assertThrows(IOException.class, () -> new StateFile.Reader(path));
+        writer.close();
+        assertEquals(1, new StateFile.Reader(path).size());
+    }
+
+    @Test
+    void otherFileIsRejected() throws IOException {
+        Path path = directory.resolve("other.bin");
+        Files.write(path, "not a state file, but long enough for a header".getBytes());
+        assertThrows(IOException.class, () -> new StateFile.Reader(path));
+    }
+}
@@ -0,0 +1,94 @@
+package org.viwa.Rubik;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import org.junit.jupiter.api.Test;
+import org.viwa.Rubik.StateValidator.Verdict;
+
+/**
+ * StateValidator finds the rule a state breaks, on facelet strings and on packed words.
+ *
+ * @author Vishal Wakchaure
+ */
+class StateValidatorTest {
+
+    //Facelet string positions of corner URF (U9, R1, F3) and edges UR (U6, R2) and UF (U8, F2).
+    private static final int URF_U = 8;
+    private static final int URF_R = 9;
+    private static final int URF_F = 20;
+    private static final int UR_R = 10;
+    private static final int UR_U = 5;
+    private static final int UF_F = 19;
+
+    @Test
+    void reachableStatesAreValid() {
+        assertEquals(Verdict.VALID, StateValidator.validate(FaceletString.SOLVED, 0));
+        for(int seed=0; seed<20; seed++) {
+            byte[] scramble = Scrambler.scramble(seed, Scrambler.DEFAULT_LENGTH);
+            PackedCube cube = new PackedCube();
+            MoveSequence.of(scramble, 0, scramble.length).applyTo(cube);
+            assertEquals(Verdict.VALID, StateValidator.validate(cube));
+            assertEquals(Verdict.VALID, StateValidator.validate(FaceletString.format(cube), 0));
+            assertEquals(Verdict.VALID, StateValidator.validate(cube.toRubiksCube()));
+        }
+    }
+
+    @Test
+    void twistedCorner() {
+        //Colors of corner URF turned clockwise in place.
+        String text = replace(replace(replace(FaceletString.SOLVED, URF_U, 'F'), URF_R, 'U'), URF_F, 'R');
+        assertEquals(Verdict.TWISTED_CORNER, StateValidator.validate(text, 0));
+
+        PackedCube cube = new PackedCube();
+        assertEquals(Verdict.TWISTED_CORNER, StateValidator.validate(cube.getCorners() + (1 << 3), cube.getEdges()));
+    }
+
+    @Test
+    void flippedEdge() {
+        String text = replace(replace(FaceletString.SOLVED, UR_U, 'R'), UR_R, 'U');
+        assertEquals(Verdict.FLIPPED_EDGE, StateValidator.validate(text, 0));
+
+        PackedCube cube = new PackedCube();
+        assertEquals(Verdict.FLIPPED_EDGE, StateValidator.validate(cube.getCorners(), cube.getEdges() ^ 1 << 4));
+    }
+
+    @Test
+    void swappedPieces() {
+        //Edges UR and UF swapped.
+        String text = replace(replace(FaceletString.SOLVED, UR_R, 'F'), UF_F, 'R');
+        assertEquals(Verdict.PARITY, StateValidator.validate(text, 0));
+
+        //Corners URF and UFL swapped: corner 1 in slot 0, corner 0 in slot 1.
+        long corners = PackedCube.SOLVED_CORNERS & ~0x3FFL | 1;
+        assertEquals(Verdict.PARITY, StateValidator.validate(corners, PackedCube.SOLVED_EDGES));
+    }
+
+    @Test
+    void brokenStates() {
+        assertEquals(Verdict.BAD_LENGTH, StateValidator.validate(FaceletString.SOLVED, 1));
+        assertEquals(Verdict.BAD_COLOR, StateValidator.validate(replace(FaceletString.SOLVED, 0, 'X'), 0));
+        assertEquals(Verdict.BAD_COLOR_COUNT, StateValidator.validate(replace(FaceletString.SOLVED, 0, 'R'), 0));
+        assertEquals(Verdict.DUPLICATE_CORNER,
+            StateValidator.validate(PackedCube.SOLVED_CORNERS & ~31L | 1, PackedCube.SOLVED_EDGES));
+        assertEquals(Verdict.DUPLICATE_EDGE,
+            StateValidator.validate(PackedCube.SOLVED_CORNERS, PackedCube.SOLVED_EDGES & ~31L | 1));
+    }
+
+    @Test
+    void batchCountsValidStates() {
+        long[] states = new long[2 * 3];
+        RandomStates.randomStates(5, 3, states);
+        //Orientation of the corner in slot 0 of the second state changed.
+        states[2] ^= 1 << 3;
+        byte[] verdicts = new byte[3];
+        assertEquals(2, StateValidator.validate(states, 3, verdicts));
+        assertEquals(Verdict.VALID, StateValidator.verdict(verdicts[0]));
+        assertNotEquals(Verdict.VALID, StateValidator.verdict(verdicts[1]));
+        assertEquals(Verdict.VALID, StateValidator.verdict(verdicts[2]));
+    }
+
+    private static String replace(String text, int index, char letter) {
+        return text.substring(0, index) + letter + text.substring(index + 1);
+    }
+}
@@ -0,0 +1,88 @@
+package org.viwa.Rubik;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Canonical forms are the smallest conjugates, shared by every conjugate of a state, and can be undone.
+ *
+ * @author Vishal Wakchaure
+ */
+class SymmetryTest {
+
+    @Test
+    void symmetriesFormAGroup() {
+        for(int s=0; s<Symmetry.COUNT; s++) {
+            assertEquals(0, Symmetry.multiply(s, Symmetry.inverse(s)));
+            assertEquals(s, Symmetry.multiply(0, s));
+            assertEquals(s >= CubeFrames.COUNT, Symmetry.isMirror(s));
+            for(int t=0; t<Symmetry.COUNT; t++) {
+                assertEquals(Symmetry.isMirror(s) != Symmetry.isMirror(t), Symmetry.isMirror(Symmetry.multiply(s, t)));
+            }
+        }
+    }
+
+    @Test
+    void conjugatesOfSolvedCubeAreSolved() {
+        for(int s=0; s<Symmetry.COUNT; s++) {
+            PackedCube cube = new PackedCube();
+            Symmetry.conjugate(cube, s);
+            assertTrue(cube.isSolved(), "Symmetry " + s);
+        }
+    }
+
+    @Test
+    void canonicalFormIsSmallestConjugate() {
+        SplittableRandom random = new SplittableRandom(13);
+        for(int test=0; test<100; test++) {
+            PackedCube cube = RandomStates.randomState(random);
+            PackedCube smallest = null;
+            for(int s=0; s<Symmetry.COUNT; s++) {
+                PackedCube conjugate = new PackedCube(cube);
+                Symmetry.conjugate(conjugate, s);
+                if(smallest == null || compare(conjugate, smallest) < 0) {
+                    smallest = conjugate;
+                }
+            }
+
+            PackedCube canonical = new PackedCube(cube);
+            int symmetry = Symmetry.canonicalize(canonical);
+            assertEquals(smallest.getCorners(), canonical.getCorners());
+            assertEquals(smallest.getEdges(), canonical.getEdges());
+
+            Symmetry.conjugate(canonical, Symmetry.inverse(symmetry));
+            PackedCube reference = cube.toReferenceOrientation();
+            assertEquals(reference.getCorners(), canonical.getCorners());
+            assertEquals(reference.getEdges(), canonical.getEdges());
+        }
+    }
+
+    @Test
+    void conjugatesShareCanonicalForm() {
+        SplittableRandom random = new SplittableRandom(14);
+        PackedCube cube = RandomStates.randomState(random);
+        PackedCube canonical = new PackedCube(cube);
+        Symmetry.canonicalize(canonical);
+        for(int s=0; s<Symmetry.COUNT; s++) {
+            PackedCube conjugate = new PackedCube(cube);
+            Symmetry.conjugate(conjugate, s);
+            Symmetry.canonicalize(conjugate);
+            assertEquals(canonical, conjugate, "Symmetry " + s);
+        }
+
+        //Held in another orientation, the same state has the same canonical form.
+        RubiksCube rotated = cube.toRubiksCube();
+        rotated.rotateCubeYClockwise();
+        Symmetry.canonicalize(rotated);
+        assertEquals(RubiksCubeTest.facelets(canonical), RubiksCubeTest.facelets(rotated));
+    }
+
+    private static int compare(PackedCube a, PackedCube b) {
+        int corners = Long.compare(a.getCorners(), b.getCorners());
+        return corners != 0 ? corners : Long.compare(a.getEdges(), b.getEdges());
+    }
+}
@@ -0,0 +1,85 @@
+package org.viwa.Rubik;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * State hashes kept up to date by turns are the hashes of the facelets, and equality follows the facelets.
+ *
+ * @author Vishal Wakchaure
+ */
+class ZobristTest {
+
+    @Test
+    void incrementalHashMatchesFacelets() {
+        Random random = new Random(12);
+        RubiksCube cube = new RubiksCube();
+        for(int i=0; i<300; i++) {
+            if(random.nextInt(5) == 0) {
+                RubiksCubeTest.apply(cube, "XxYyZz".charAt(random.nextInt(6)));
+            } else {
+                cube.applyMove(Move.valueOf(random.nextInt(Move.COUNT)));
+            }
+            assertEquals(hashOfFacelets(cube), cube.hash64());
+        }
+    }
+
+    @Test
+    void directSideChangesAreHashed() {
+        RubiksCube cube = new RubiksCube();
+        cube.applyMove(Move.R);
+        cube.hash64();
+        cube.getSide(CubePiece.Color.WHITE).rotateMatrixClockwise();
+        assertEquals(hashOfFacelets(cube), cube.hash64());
+    }
+
+    @Test
+    void equalityFollowsFacelets() {
+        RubiksCube turned = new RubiksCube();
+        for(int i=0; i<4; i++) {
+            turned.applyMove(Move.R);
+        }
+        assertEquals(new RubiksCube(), turned);
+        assertEquals(new RubiksCube().hashCode(), turned.hashCode());
+
+        RubiksCube first = new RubiksCube();
+        first.applyMove(Move.R);
+        first.applyMove(Move.U);
+        RubiksCube second = new RubiksCube();
+        second.applyMove(Move.U);
+        second.applyMove(Move.R);
+        assertNotEquals(first, second);
+
+        //Same state held another way shows other facelets.
+        RubiksCube rotated = new RubiksCube();
+        rotated.rotateCubeXClockwise();
+        assertNotEquals(new RubiksCube(), rotated);
+    }
+
+    @Test
+    void packedCubeEquality() {
+        PackedCube first = new PackedCube();
+        first.applyMove(Move.R);
+        first.applyMove(Move.U);
+        PackedCube second = new PackedCube(first.getCorners(), first.getEdges());
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertEquals(first.hash64(), second.hash64());
+        second.applyMove(Move.U_PRIME);
+        assertNotEquals(first, second);
+    }
+
+    private static long hashOfFacelets(RubiksCube cube) {
+        byte[] facelets = new byte[CubeLayout.FACELETS];
+        cube.getFacelets(facelets);
+        long hash = 0;
+        for(int i=0; i<CubeLayout.FACELETS; i++) {
+            hash ^= Zobrist.key(i, facelets[i]);
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,122 @@
+package org.viwa.Rubik.solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.viwa.Rubik.MoveSequence;
+import org.viwa.Rubik.PackedCube;
+import org.viwa.Rubik.Scrambler;
+
+/**
+ * Every input line gets its solution, or an error, on the same output line.
+ *
+ * @author Vishal Wakchaure
+ */
+class SolvePipelineTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void linesAreSolvedInOrder() throws IOException {
+        StringBuilder input = new StringBuilder();
+        String[] scrambles = new String[20];
+        for(int i=0; i<scrambles.length; i++) {
+            byte[] scramble = Scrambler.scramble(i, Scrambler.DEFAULT_LENGTH);
+            scrambles[i] = MoveSequence.of(scramble, 0, scramble.length).toString();
+            input.append(scrambles[i]).append(i % 2 == 0 ? "\n" : "\r\n");
+        }
+        input.append("R Q\n");
+        input.append("\n");
+        //Last line without a line end.
+        input.append("R U");
+
+        long[] reported = new long[2];
+        SolvePipeline pipeline = new SolvePipeline(BatchSolver.twoPhase(), 3);
+        pipeline.setListener((lines, bytes, nanos) -> {
+            reported[0] = lines;
+            reported[1] = bytes;
+        });
+        String[] output = run(pipeline, input.toString());
+
+        assertEquals(scrambles.length + 3, output.length);
+        for(int i=0; i<scrambles.length; i++) {
+            assertSolves(scrambles[i], output[i]);
+        }
+        assertEquals("ERROR Unknown move: Q", output[scrambles.length]);
+        assertEquals("", output[scrambles.length + 1]);
+        assertSolves("R U", output[scrambles.length + 2]);
+        assertEquals(output.length, reported[0]);
+        assertEquals(input.length(), reported[1]);
+    }
+
+    @Test
+    void filesAreSolved() throws IOException {
+        Path input = directory.resolve("scrambles.txt");
+        Path output = directory.resolve("solutions.txt");
+        Files.write(input, List.of("R U R' U'", "F2 M E'"));
+        assertEquals(2, new SolvePipeline(BatchSolver.twoPhase(), 1).run(input, output));
+        List<String> lines = Files.readAllLines(output);
+        assertEquals(2, lines.size());
+        assertSolves("R U R' U'", lines.get(0));
+        assertSolves("F2 M E'", lines.get(1));
+    }
+
+    @Test
+    void tooLongLinesAreErrors() throws IOException {
+        //Lines of R turns, padded to 4096 bytes and one more.
+        String longest = pad("R U", 4096);
+        String tooLong = pad("R U", 4097);
+        String input = longest + "\n" + tooLong + "\n" + longest + "\r\n" + tooLong + "\r\nU\n" + tooLong;
+        String[] output = run(new SolvePipeline(BatchSolver.twoPhase(), 2), input);
+
+        assertEquals(6, output.length);
+        assertSolves("R U", output[0]);
+        assertEquals("ERROR line too long", output[1]);
+        assertSolves("R U", output[2]);
+        assertEquals("ERROR line too long", output[3]);
+        assertSolves("U", output[4]);
+        assertEquals("ERROR line too long", output[5]);
+    }
+
+    @Test
+    void windowMustHoldALine() {
+        assertThrows(IllegalArgumentException.class, () -> new SolvePipeline(BatchSolver.twoPhase(), 0));
+    }
+
+    static String[] run(SolvePipeline pipeline, String input) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        pipeline.run(Channels.newChannel(new ByteArrayInputStream(input.getBytes(StandardCharsets.US_ASCII))),
+            Channels.newChannel(output));
+        String text = output.toString(StandardCharsets.US_ASCII);
+        assertTrue(text.endsWith("\n"));
+        return text.substring(0, text.length() - 1).split("\n", -1);
+    }
+
+    private static String pad(String scramble, int length) {
+        StringBuilder line = new StringBuilder(scramble);
+        while(line.length() < length) {
+            line.append(' ');
+        }
+        return line.toString();
+    }
+
+    private static void assertSolves(String scramble, String solution) {
+        PackedCube cube = new PackedCube();
+        MoveSequence.parse(scramble).applyTo(cube);
+        MoveSequence.parse(solution).applyTo(cube);
+        assertTrue(cube.isSolved(), "Not a solution of " + scramble + ": " + solution);
+    }
+}
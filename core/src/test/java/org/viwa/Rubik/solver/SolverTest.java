@@ -0,0 +1,163 @@
+package org.viwa.Rubik.solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+import org.viwa.Rubik.Move;
+import org.viwa.Rubik.PackedCube;
+import org.viwa.Rubik.RandomStates;
+import org.viwa.Rubik.Scrambler;
+
+/**
+ * Every solution of the solvers solves its cube.
+ *
+ * @author Vishal Wakchaure
+ */
+class SolverTest {
+
+    @Test
+    void twoPhaseSolvesRandomStates() {
+        TwoPhaseSolver solver = new TwoPhaseSolver();
+        SplittableRandom random = new SplittableRandom(2);
+        for(int test=0; test<10; test++) {
+            PackedCube cube = RandomStates.randomState(random);
+            Move[] moves = solver.solve(cube, TwoPhaseSolver.DEFAULT_TARGET_LENGTH, TwoPhaseSolver.DEFAULT_TIME_BUDGET);
+            assertSolves(cube, moves);
+        }
+    }
+
+    @Test
+    void optimalSolvesShortScrambles() {
+        OptimalSolver solver = new OptimalSolver();
+        for(int length=0; length<=5; length++) {
+            PackedCube cube = new PackedCube();
+            for(byte move : Scrambler.scramble(length, length)) {
+                cube.applyMove(Move.valueOf(move));
+            }
+            Solution solution = solver.solve(cube);
+            assertSolves(cube, solution.getMoves());
+            assertTrue(solution.getLength() <= length, "Longer than its scramble: " + solution);
+        }
+    }
+
+    @Test
+    void unsolvableCubeIsRejected() {
+        PackedCube cube = new PackedCube();
+        //Corner in slot 0 twisted once.
+        cube.set(cube.getCorners() + (1 << 3), cube.getEdges());
+        assertThrows(IllegalArgumentException.class, () -> new OptimalSolver().solve(cube));
+        assertThrows(IllegalArgumentException.class,
+            () -> new TwoPhaseSolver().solve(cube, TwoPhaseSolver.DEFAULT_TARGET_LENGTH, TwoPhaseSolver.DEFAULT_TIME_BUDGET));
+    }
+
+    @Test
+    void duplicatePieceIsRejected() {
+        TwoPhaseSolver solver = new TwoPhaseSolver();
+        for(PackedCube cube : duplicatePieces()) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> solver.solve(cube, TwoPhaseSolver.DEFAULT_TARGET_LENGTH, TwoPhaseSolver.DEFAULT_TIME_BUDGET));
+            assertTrue(e.getMessage().startsWith("Cube can not be solved"), e.getMessage());
+        }
+    }
+
+    @Test
+    void optimalRejectsDuplicatePiece() {
+        OptimalSolver solver = new OptimalSolver();
+        for(PackedCube cube : duplicatePieces()) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> solver.solve(cube));
+            assertTrue(e.getMessage().startsWith("Cube can not be solved"), e.getMessage());
+        }
+    }
+
+    @Test
+    void batchSolvesInInputOrder() {
+        long[] states = new long[2 * 8];
+        RandomStates.randomStates(3, 8, states);
+        PackedCube[] cubes = new PackedCube[8];
+        for(int i=0; i<cubes.length; i++) {
+            cubes[i] = new PackedCube(states[2*i], states[2*i + 1]);
+        }
+        //Edge in slot 0 flipped.
+        PackedCube unsolvable = new PackedCube();
+        unsolvable.set(unsolvable.getCorners(), unsolvable.getEdges() ^ 1 << 4);
+        cubes[5] = unsolvable;
+        states[2*5] = unsolvable.getCorners();
+        states[2*5 + 1] = unsolvable.getEdges();
+
+        BatchSolver batch = BatchSolver.twoPhase();
+        for(Solution[] solutions : new Solution[][] {batch.solve(cubes), batch.solve(states, cubes.length)}) {
+            assertEquals(cubes.length, solutions.length);
+            for(int i=0; i<cubes.length; i++) {
+                if(i == 5) {
+                    assertNull(solutions[i]);
+                } else {
+                    assertNotNull(solutions[i]);
+                    assertSolves(cubes[i], solutions[i].getMoves());
+                }
+            }
+        }
+    }
+
+    @Test
+    void batchGivesNullForRecordsWhichAreNoCube() {
+        PackedCube[] duplicates = duplicatePieces();
+        long[] states = new long[2 * (duplicates.length + 2)];
+        for(int i=0; i<duplicates.length; i++) {
+            states[2*i] = duplicates[i].getCorners();
+            states[2*i + 1] = duplicates[i].getEdges();
+        }
+        //Corner in slot 0 twisted 3 times, which is no twist, then a solved cube.
+        states[2*duplicates.length] = new PackedCube().getCorners() | 3 << 3;
+        states[2*duplicates.length + 1] = new PackedCube().getEdges();
+        states[2*duplicates.length + 2] = new PackedCube().getCorners();
+        states[2*duplicates.length + 3] = new PackedCube().getEdges();
+
+        for(BatchSolver batch : new BatchSolver[] {BatchSolver.twoPhase(), BatchSolver.optimal()}) {
+            Solution[] solutions = batch.solve(states, duplicates.length + 2);
+            for(int i=0; i<=duplicates.length; i++) {
+                assertNull(solutions[i]);
+            }
+            assertEquals(0, solutions[duplicates.length + 1].getLength());
+        }
+    }
+
+    @Test
+    void optimalBatchSolvesShortScrambles() {
+        PackedCube[] cubes = new PackedCube[6];
+        for(int i=0; i<cubes.length; i++) {
+            cubes[i] = new PackedCube();
+            for(byte move : Scrambler.scramble(100 + i, 4)) {
+                cubes[i].applyMove(Move.valueOf(move));
+            }
+        }
+        Solution[] solutions = BatchSolver.optimal().solve(cubes);
+        for(int i=0; i<cubes.length; i++) {
+            assertSolves(cubes[i], solutions[i].getMoves());
+            assertTrue(solutions[i].getLength() <= 4);
+        }
+    }
+
+    //Corner 1 in slots 0 and 1, edge 1 in slots 0 and 1, and edge 15 which is no edge in slot 0.
+    private static PackedCube[] duplicatePieces() {
+        PackedCube solved = new PackedCube();
+        return new PackedCube[] {
+            new PackedCube(solved.getCorners() & ~31L | 1, solved.getEdges()),
+            new PackedCube(solved.getCorners(), solved.getEdges() & ~31L | 1),
+            new PackedCube(solved.getCorners(), solved.getEdges() | 15)
+        };
+    }
+
+    static void assertSolves(PackedCube cube, Move[] moves) {
+        PackedCube solved = new PackedCube(cube);
+        for(Move move : moves) {
+            solved.applyMove(move);
+        }
+        assertTrue(solved.isSolved(), "Not a solution of " + moves.length + " moves");
+    }
+}
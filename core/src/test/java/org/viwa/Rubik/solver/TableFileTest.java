@@ -0,0 +1,99 @@
+package org.viwa.Rubik.solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tables written to files are mapped back unchanged, and files of other versions are not used.
+ *
+ * @author Vishal Wakchaure
+ */
+class TableFileTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writtenTableIsMapped() throws IOException {
+        byte[] table = table(1000);
+        Path path = directory.resolve("test.tbl");
+        TableFile.write(path, 3, table);
+
+        ByteBuffer mapped = TableFile.map(path, 3, table.length);
+        assertNotNull(mapped);
+        for(int i=0; i<table.length; i++) {
+            assertEquals(table[i], mapped.get(i));
+        }
+    }
+
+    @Test
+    void otherTablesAreNotMapped() throws IOException {
+        Path path = directory.resolve("test.tbl");
+        TableFile.write(path, 3, table(1000));
+        assertNull(TableFile.map(path, 4, 1000));
+        assertNull(TableFile.map(path, 3, 999));
+
+        Files.write(path, new byte[10]);
+        assertNull(TableFile.map(path, 3, 1000));
+    }
+
+    @Test
+    void generatedTableIsWrittenOnce() {
+        String previous = System.getProperty(TableFile.DIRECTORY_PROPERTY);
+        System.setProperty(TableFile.DIRECTORY_PROPERTY, directory.toString());
+        try {
+            int[] generated = new int[1];
+            ByteBuffer first = TableFile.load("test", 1, 1000, table -> {
+                generated[0]++;
+                System.arraycopy(table(1000), 0, table, 0, 1000);
+            });
+            assertTrue(Files.isRegularFile(directory.resolve("test.tbl")));
+            ByteBuffer second = TableFile.load("test", 1, 1000, table -> generated[0]++);
+            assertEquals(1, generated[0]);
+            assertEquals(first, second);
+        } finally {
+            if(previous == null) {
+                System.clearProperty(TableFile.DIRECTORY_PROPERTY);
+            } else {
+                System.setProperty(TableFile.DIRECTORY_PROPERTY, previous);
+            }
+        }
+    }
+
+    @Test
+    void unwritableTableIsKeptInMemory() throws IOException {
+        //A table directory below a regular file can not be created.
+        Path file = Files.write(directory.resolve("file"), new byte[1]);
+        String previous = System.getProperty(TableFile.DIRECTORY_PROPERTY);
+        System.setProperty(TableFile.DIRECTORY_PROPERTY, file.resolve("tables").toString());
+        try {
+            ByteBuffer table = TableFile.load("test", 1, 1000, generated -> System.arraycopy(table(1000), 0, generated, 0, 1000));
+            assertEquals(ByteBuffer.wrap(table(1000)), table);
+            assertTrue(table.isReadOnly());
+        } finally {
+            if(previous == null) {
+                System.clearProperty(TableFile.DIRECTORY_PROPERTY);
+            } else {
+                System.setProperty(TableFile.DIRECTORY_PROPERTY, previous);
+            }
+        }
+    }
+
+    private static byte[] table(int length) {
+        byte[] table = new byte[length];
+        for(int i=0; i<length; i++) {
+            table[i] = (byte) (i * 31 + 7);
+        }
+        return table;
+    }
+}